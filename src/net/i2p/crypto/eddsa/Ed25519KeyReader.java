@@ -0,0 +1,342 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.Key;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
+
+/**
+ * Reads Ed25519 keys one at a time from a stream of text in the usual
+ * PEM and OpenSSH formats:
+ *<ul><li>
+ * PEM "PUBLIC KEY" blocks, holding an X.509 SubjectPublicKeyInfo;
+ *</li><li>
+ * PEM "PRIVATE KEY" blocks, holding a PKCS#8 v1 or v2 key;
+ *</li><li>
+ * PEM "OPENSSH PRIVATE KEY" blocks, holding an unencrypted openssh-key-v1
+ * key;
+ *</li><li>
+ * "ssh-ed25519" lines as in authorized_keys and .pub files.
+ *</li></ul>
+ *<p>
+ * Only the current line and the current key are held in memory, and the
+ * base64 is decoded into a reused buffer. Other text, PEM blocks of other
+ * types and OpenSSH lines of other key types are skipped.
+ *</p><p>
+ * Ref: https://tools.ietf.org/html/rfc7468
+ *</p><p>
+ * Ref: https://cvsweb.openbsd.org/src/usr.bin/ssh/PROTOCOL.key
+ *</p>
+ * @author str4d
+ *
+ */
+public final class Ed25519KeyReader implements Closeable {
+    private static final String PEM_BEGIN = "-----BEGIN ";
+    private static final String PEM_END = "-----END ";
+    private static final String SSH_ED25519 = "ssh-ed25519";
+    private static final byte[] OPENSSH_MAGIC = "openssh-key-v1\0".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] BASE64 = new byte[128];
+
+    static {
+        Arrays.fill(BASE64, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++)
+            BASE64[alphabet.charAt(i)] = (byte) i;
+    }
+
+    private final BufferedReader in;
+    private final boolean trustPublicKeys;
+    private final EdDSANamedCurveSpec spec;
+    private final LinkedList<Key> pending = new LinkedList<Key>();
+    private byte[] buf = new byte[256];
+    private int len;
+    /** Base64 bits not yet written to buf, and how many there are. */
+    private int acc;
+    private int bits;
+
+    /**
+     * @param in the text to read keys from
+     */
+    public Ed25519KeyReader(Reader in) {
+        this(in, false);
+    }
+
+    /**
+     * @param in the text to read keys from
+     * @param trustPublicKeys true to use the public keys stored with
+     * private keys without checking them until the first signature, see
+     * EdDSAPrivateKey(PKCS8EncodedKeySpec, boolean).
+     */
+    public Ed25519KeyReader(Reader in, boolean trustPublicKeys) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        this.trustPublicKeys = trustPublicKeys;
+        this.spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    }
+
+    /**
+     * @param in the text to read keys from, in US-ASCII or UTF-8
+     * @param trustPublicKeys see Ed25519KeyReader(Reader, boolean)
+     */
+    public Ed25519KeyReader(InputStream in, boolean trustPublicKeys) {
+        this(new InputStreamReader(in, Charset.forName("UTF-8")), trustPublicKeys);
+    }
+
+    /**
+     * Reads the next key.
+     *<p>
+     * If a key cannot be decoded, the exception is thrown after the whole
+     * key has been read, so the next call continues with the key after it.
+     *</p>
+     *
+     * @return an EdDSAPublicKey or an EdDSAPrivateKey, or null at the end
+     * of the stream.
+     * @throws IOException if the stream cannot be read.
+     * @throws InvalidKeySpecException if the next key cannot be decoded.
+     */
+    public Key readKey() throws IOException, InvalidKeySpecException {
+        if (!pending.isEmpty())
+            return pending.removeFirst();
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith(PEM_BEGIN) && line.endsWith("-----")) {
+                String label = line.substring(PEM_BEGIN.length(), line.length() - 5);
+                if (!readPem(label))
+                    continue;
+                if ("PUBLIC KEY".equals(label))
+                    return EdDSAPublicKey.decode(buf, 0, len);
+                if ("PRIVATE KEY".equals(label))
+                    return EdDSAPrivateKey.decode(buf, 0, len, trustPublicKeys);
+                readOpenSshPrivateKeys();
+                if (!pending.isEmpty())
+                    return pending.removeFirst();
+            } else if (line.length() > 0 && line.charAt(0) != '#') {
+                int i = findSshEd25519(line);
+                if (i >= 0)
+                    return readSshPublicKey(line, i);
+            }
+        }
+        return null;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads a PEM block up to its END line, decoding it into buf if it is
+     * one of ours.
+     *
+     * @return true if the block was decoded.
+     */
+    private boolean readPem(String label) throws IOException, InvalidKeySpecException {
+        boolean ours = "PUBLIC KEY".equals(label) || "PRIVATE KEY".equals(label) ||
+                       "OPENSSH PRIVATE KEY".equals(label);
+        String end = PEM_END + label + "-----";
+        startBase64();
+        InvalidKeySpecException error = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.equals(end)) {
+                if (error != null)
+                    throw error;
+                if (bits >= 6)
+                    throw new InvalidKeySpecException("truncated base64");
+                return ours;
+            }
+            if (!ours || error != null)
+                continue;
+            if (line.indexOf(':') >= 0) {
+                error = new InvalidKeySpecException("encrypted PEM keys are not supported");
+                continue;
+            }
+            if (!appendBase64(line, 0, line.length()))
+                error = new InvalidKeySpecException("invalid base64");
+        }
+        throw new InvalidKeySpecException("missing " + end);
+    }
+
+    private void startBase64() {
+        len = 0;
+        acc = 0;
+        bits = 0;
+    }
+
+    /**
+     * Decodes base64 from s into buf, continuing from earlier calls.
+     *
+     * @return false if there is an invalid character.
+     */
+    private boolean appendBase64(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '=')
+                break;
+            int v = c < 128 ? BASE64[c] : -1;
+            if (v < 0)
+                return false;
+            acc = (acc << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                if (len == buf.length)
+                    buf = Arrays.copyOf(buf, 2 * len);
+                buf[len++] = (byte) (acc >> bits);
+                acc &= (1 << bits) - 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the "ssh-ed25519" key type field in an OpenSSH
+     * public key line, which may start with options, or -1.
+     */
+    private static int findSshEd25519(String line) {
+        int i = line.indexOf(SSH_ED25519 + ' ');
+        if (i < 0)
+            i = line.indexOf(SSH_ED25519 + '\t');
+        if (i > 0 && !Character.isWhitespace(line.charAt(i - 1)))
+            return -1;
+        return i;
+    }
+
+    private EdDSAPublicKey readSshPublicKey(String line, int i) throws InvalidKeySpecException {
+        int start = i + SSH_ED25519.length();
+        while (start < line.length() && Character.isWhitespace(line.charAt(start)))
+            start++;
+        int end = start;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end)))
+            end++;
+        startBase64();
+        if (!appendBase64(line, start, end))
+            throw new InvalidKeySpecException("invalid base64");
+        try {
+            ByteBuffer bb = ByteBuffer.wrap(buf, 0, len);
+            checkKeyType(bb);
+            EdDSAPublicKey rv = publicKey(readString(bb));
+            if (bb.hasRemaining())
+                throw new InvalidKeySpecException("trailing data");
+            return rv;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidKeySpecException("truncated key");
+        }
+    }
+
+    /**
+     * Decodes the openssh-key-v1 key in buf into pending.
+     */
+    private void readOpenSshPrivateKeys() throws InvalidKeySpecException {
+        try {
+            ByteBuffer bb = ByteBuffer.wrap(buf, 0, len);
+            for (int i = 0; i < OPENSSH_MAGIC.length; i++) {
+                if (bb.get() != OPENSSH_MAGIC[i])
+                    throw new InvalidKeySpecException("not an openssh-key-v1 key");
+            }
+            if (!isString(readString(bb), "none") || !isString(readString(bb), "none"))
+                throw new InvalidKeySpecException("encrypted OpenSSH keys are not supported");
+            readString(bb); // kdf options
+            int n = bb.getInt();
+            if (n < 0 || n > bb.remaining())
+                throw new InvalidKeySpecException("invalid number of keys");
+            for (int i = 0; i < n; i++)
+                readString(bb); // public keys, repeated in the private section
+            ByteBuffer priv = readString(bb);
+            if (priv.getInt() != priv.getInt())
+                throw new InvalidKeySpecException("check values differ");
+            LinkedList<Key> keys = new LinkedList<Key>();
+            for (int i = 0; i < n; i++) {
+                checkKeyType(priv);
+                ByteBuffer pk = readString(priv);
+                ByteBuffer sk = readString(priv);
+                readString(priv); // comment
+                if (pk.remaining() != 32 || sk.remaining() != 64)
+                    throw new InvalidKeySpecException("invalid key length");
+                byte[] seed = new byte[32];
+                byte[] Abyte = new byte[32];
+                sk.get(seed);
+                sk.get(Abyte);
+                if (!pk.equals(ByteBuffer.wrap(Abyte)))
+                    throw new InvalidKeySpecException("public keys differ");
+                keys.add(privateKey(seed, Abyte));
+            }
+            pending.addAll(keys);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidKeySpecException("truncated key");
+        }
+    }
+
+    private EdDSAPublicKey publicKey(ByteBuffer pk) throws InvalidKeySpecException {
+        if (pk.remaining() != 32)
+            throw new InvalidKeySpecException("invalid key length");
+        byte[] Abyte = new byte[32];
+        pk.get(Abyte);
+        return new EdDSAPublicKey(new EdDSAPublicKeySpec(EdDSAPublicKey.decodePoint(Abyte, spec), spec));
+    }
+
+    private EdDSAPrivateKey privateKey(byte[] seed, byte[] Abyte) throws InvalidKeySpecException {
+        // A trusted Abyte is checked against the seed before the first signature
+        if (trustPublicKeys)
+            return new EdDSAPrivateKey(new EdDSAPrivateKeySpec(seed, Abyte, spec));
+        EdDSAPrivateKeySpec rv = new EdDSAPrivateKeySpec(seed, spec);
+        if (!Arrays.equals(rv.getAbyte(), Abyte))
+            throw new InvalidKeySpecException("public key does not match private key");
+        return new EdDSAPrivateKey(rv);
+    }
+
+    private static void checkKeyType(ByteBuffer bb) throws InvalidKeySpecException {
+        if (!isString(readString(bb), SSH_ED25519))
+            throw new InvalidKeySpecException("not an ssh-ed25519 key");
+    }
+
+    /**
+     * Reads an SSH string, a length and that many bytes.
+     *
+     * @return the bytes, as a view of bb.
+     */
+    private static ByteBuffer readString(ByteBuffer bb) throws InvalidKeySpecException {
+        int n = bb.getInt();
+        if (n < 0 || n > bb.remaining())
+            throw new InvalidKeySpecException("truncated key");
+        ByteBuffer rv = bb.slice();
+        rv.limit(n);
+        bb.position(bb.position() + n);
+        return rv;
+    }
+
+    private static boolean isString(ByteBuffer b, String s) {
+        if (b.remaining() != s.length())
+            return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (b.get(b.position() + i) != s.charAt(i))
+                return false;
+        }
+        return true;
+    }
+}
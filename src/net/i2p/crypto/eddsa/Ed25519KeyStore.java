@@ -0,0 +1,311 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
+
+/**
+ * A read-only, memory-mapped file of Ed25519 keys.
+ *<p>
+ * The file holds fixed size records sorted by the encoded public key, so
+ * opening it only maps the file, and keys are found by binary search and
+ * only turned into EdDSAPublicKey or EdDSAPrivateKey objects when they are
+ * asked for. The keys themselves stay off the heap.
+ *</p><p>
+ * Layout, integers big-endian:
+ *</p>
+ *<pre>
+ *  magic    4 bytes  "EdKS"
+ *  version  1 byte   1
+ *  type     1 byte   0 for public keys, 1 for private keys
+ *  reserved 2 bytes  0
+ *  count    4 bytes
+ *  records  count * 32 bytes: A
+ *        or count * 64 bytes: A || seed
+ *</pre>
+ *<p>
+ * Private keys are loaded with their stored public key trusted, see
+ * EdDSAPrivateKeySpec(byte[], byte[], EdDSAParameterSpec), so loading one
+ * only costs a hash. The stored public key is checked against the seed
+ * before the key first signs, and a key whose record has been tampered
+ * with refuses to sign. getPrivateKey(int, boolean) checks it on loading
+ * instead.
+ *</p><p>
+ * Instances are thread-safe.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class Ed25519KeyStore {
+    private static final byte[] MAGIC = { 'E', 'd', 'K', 'S' };
+    private static final int VERSION = 1;
+    private static final int TYPE_PUBLIC = 0;
+    private static final int TYPE_PRIVATE = 1;
+    private static final int HEADER_LEN = 12;
+    private static final int KEY_LEN = 32;
+
+    private static final Comparator<byte[]> UNSIGNED_ORDER = new Comparator<byte[]>() {
+        public int compare(byte[] a, byte[] b) {
+            for (int i = 0; i < KEY_LEN; i++) {
+                int c = (a[i] & 0xff) - (b[i] & 0xff);
+                if (c != 0)
+                    return c;
+            }
+            return 0;
+        }
+    };
+
+    private final EdDSANamedCurveSpec spec;
+    private final ByteBuffer buf;
+    private final boolean privateKeys;
+    private final int recordLen;
+    private final int size;
+
+    private Ed25519KeyStore(ByteBuffer buf) throws IOException {
+        this.spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        this.buf = buf;
+        if (buf.capacity() < HEADER_LEN)
+            throw new IOException("not a key store");
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buf.get(i) != MAGIC[i])
+                throw new IOException("not a key store");
+        }
+        if (buf.get(4) != VERSION)
+            throw new IOException("unsupported key store version " + buf.get(4));
+        int type = buf.get(5);
+        if (type != TYPE_PUBLIC && type != TYPE_PRIVATE)
+            throw new IOException("unsupported key store type " + type);
+        this.privateKeys = type == TYPE_PRIVATE;
+        this.recordLen = privateKeys ? 2 * KEY_LEN : KEY_LEN;
+        this.size = buf.getInt(8);
+        if (size < 0 || (long) size * recordLen != buf.capacity() - HEADER_LEN)
+            throw new IOException("invalid key store length");
+    }
+
+    /**
+     * Maps a key store file. Only the header is read.
+     *
+     * @param file a file written by writePublicKeys() or writePrivateKeys().
+     * @return the key store.
+     * @throws IOException if the file cannot be read or is not a key store.
+     */
+    public static Ed25519KeyStore open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Ed25519KeyStore(buf);
+        } finally {
+            // The mapping stays valid after the file is closed
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes a public key store.
+     *
+     * @param file the file to write.
+     * @param keys the keys, in any order.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a key is duplicated.
+     * @throws UnsupportedOperationException if a key is not an Ed25519 key.
+     */
+    public static void writePublicKeys(File file, Collection<EdDSAPublicKey> keys) throws IOException {
+        byte[][] records = new byte[keys.size()][];
+        int i = 0;
+        for (EdDSAPublicKey key : keys) {
+            EdDSAPublicKey.checkEd25519(key.getParams());
+            records[i++] = key.getAbyte();
+        }
+        write(file, TYPE_PUBLIC, records);
+    }
+
+    /**
+     * Writes a private key store. Each record holds the seed and the public
+     * key, so that loading a key only costs a hash.
+     *
+     * @param file the file to write.
+     * @param keys the keys, in any order.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a key is duplicated or has no seed.
+     * @throws UnsupportedOperationException if a key is not an Ed25519 key.
+     */
+    public static void writePrivateKeys(File file, Collection<EdDSAPrivateKey> keys) throws IOException {
+        byte[][] records = new byte[keys.size()][];
+        int i = 0;
+        for (EdDSAPrivateKey key : keys) {
+            EdDSAPublicKey.checkEd25519(key.getParams());
+            if (key.getSeed() == null)
+                throw new IllegalArgumentException("key has no seed");
+            byte[] record = new byte[2 * KEY_LEN];
+            System.arraycopy(key.getAbyte(), 0, record, 0, KEY_LEN);
+            System.arraycopy(key.getSeed(), 0, record, KEY_LEN, KEY_LEN);
+            records[i++] = record;
+        }
+        write(file, TYPE_PRIVATE, records);
+    }
+
+    private static void write(File file, int type, byte[][] records) throws IOException {
+        Arrays.sort(records, UNSIGNED_ORDER);
+        for (int i = 1; i < records.length; i++) {
+            if (UNSIGNED_ORDER.compare(records[i - 1], records[i]) == 0)
+                throw new IllegalArgumentException("duplicate key");
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(type);
+            out.writeShort(0);
+            out.writeInt(records.length);
+            for (byte[] record : records)
+                out.write(record);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this store holds private keys.
+     */
+    public boolean hasPrivateKeys() {
+        return privateKeys;
+    }
+
+    /**
+     * @param i the index of the key, in public key order.
+     * @return the encoded public key.
+     * @throws IndexOutOfBoundsException if i is out of range.
+     */
+    public byte[] getAbyte(int i) {
+        return read(i, 0);
+    }
+
+    /**
+     * @param i the index of the key, in public key order.
+     * @return the public key, as a compact key.
+     * @throws IndexOutOfBoundsException if i is out of range.
+     */
+    public EdDSAPublicKey getPublicKey(int i) {
+        return new EdDSAPublicKey(getAbyte(i), spec);
+    }
+
+    /**
+     * @param i the index of the key, in public key order.
+     * @return the private key; it is decoded on every call.
+     * @throws IndexOutOfBoundsException if i is out of range.
+     * @throws UnsupportedOperationException if this store holds public keys.
+     */
+    public EdDSAPrivateKey getPrivateKey(int i) {
+        return getPrivateKey(i, false);
+    }
+
+    /**
+     * @param i the index of the key, in public key order.
+     * @param checkPublicKey true to check the stored public key against the
+     * seed now rather than before the first signature.
+     * @return the private key; it is decoded on every call.
+     * @throws IndexOutOfBoundsException if i is out of range.
+     * @throws UnsupportedOperationException if this store holds public keys.
+     * @throws IllegalStateException if checkPublicKey is set and the stored
+     * public key does not belong to the seed.
+     */
+    public EdDSAPrivateKey getPrivateKey(int i, boolean checkPublicKey) {
+        if (!privateKeys)
+            throw new UnsupportedOperationException("not a private key store");
+        EdDSAPrivateKey rv = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(read(i, KEY_LEN), getAbyte(i), spec));
+        if (checkPublicKey && !rv.checkPublicKey())
+            throw new IllegalStateException("public key " + i + " does not match private key");
+        return rv;
+    }
+
+    /**
+     * Finds a key by binary search.
+     *
+     * @param Abyte the encoded public key.
+     * @return the index of the key, or -1 if it is not in this store.
+     */
+    public int indexOf(byte[] Abyte) {
+        if (Abyte.length != KEY_LEN)
+            return -1;
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int off = HEADER_LEN + mid * recordLen;
+            int c = 0;
+            for (int j = 0; j < KEY_LEN && c == 0; j++)
+                c = (buf.get(off + j) & 0xff) - (Abyte[j] & 0xff);
+            if (c < 0)
+                lo = mid + 1;
+            else if (c > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * @param Abyte the encoded public key.
+     * @return the public key, or null if it is not in this store.
+     */
+    public EdDSAPublicKey findPublicKey(byte[] Abyte) {
+        int i = indexOf(Abyte);
+        return i < 0 ? null : getPublicKey(i);
+    }
+
+    /**
+     * @param Abyte the encoded public key.
+     * @return the matching private key, or null if it is not in this store.
+     * @throws UnsupportedOperationException if this store holds public keys.
+     */
+    public EdDSAPrivateKey findPrivateKey(byte[] Abyte) {
+        if (!privateKeys)
+            throw new UnsupportedOperationException("not a private key store");
+        int i = indexOf(Abyte);
+        return i < 0 ? null : getPrivateKey(i);
+    }
+
+    private byte[] read(int i, int offset) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("index " + i + " out of range");
+        // Private positions, so that concurrent readers do not interfere
+        ByteBuffer b = buf.duplicate();
+        b.position(HEADER_LEN + i * recordLen + offset);
+        byte[] rv = new byte[KEY_LEN];
+        b.get(rv);
+        return rv;
+    }
+}
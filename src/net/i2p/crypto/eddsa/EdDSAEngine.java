@@ -23,7 +23,6 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidKeySpecException;
-import java.security.spec.X509EncodedKeySpec;
 import java.util.Arrays;
 
 import net.i2p.crypto.eddsa.math.Curve;
@@ -76,6 +75,10 @@ public final class EdDSAEngine extends Signature {
     private byte[] oneShotBytes;
     private int oneShotOffset;
     private int oneShotLength;
+    private boolean cofactoredVerify;
+    /** wNAF buffers for verifying, reused across verifies */
+    private byte[] hSlide;
+    private byte[] sSlide;
 
     /**
      *  To efficiently sign or verify data in one shot, pass this to setParameters()
@@ -88,6 +91,24 @@ public final class EdDSAEngine extends Signature {
 
     private static class OneShotSpec implements AlgorithmParameterSpec {}
 
+    /**
+     *  To verify with the cofactored equation $[8][S]B = [8]R + [8][k]A$,
+     *  pass this to setParameters() after initVerify(). The setting stays
+     *  in effect for the verifies with the key given to that initVerify();
+     *  the next initSign() or initVerify() restores the default check.
+     *<p>
+     *  By default the engine checks $R = [S]B - [k]A$ by encoding the
+     *  right-hand side and comparing bytes, which rejects signatures whose
+     *  R or A have a small order component. The cofactored check also
+     *  accepts those, as batch verification does; R must still be a
+     *  canonical encoding of a point. It decompresses R instead of
+     *  encoding a point and is about three times slower on its own,
+     *  so it is not the default.
+     */
+    public static final AlgorithmParameterSpec COFACTORED_VERIFY_MODE = new CofactoredSpec();
+
+    private static class CofactoredSpec implements AlgorithmParameterSpec {}
+
     /**
      * No specific EdDSA-internal hash requested, allows any EdDSA key.
      */
@@ -116,6 +137,7 @@ public final class EdDSAEngine extends Signature {
     @Override
     protected void engineInitSign(PrivateKey privateKey) throws InvalidKeyException {
         reset();
+        cofactoredVerify = false;
         if (privateKey instanceof EdDSAPrivateKey) {
             EdDSAPrivateKey privKey = (EdDSAPrivateKey) privateKey;
             key = privKey;
@@ -145,6 +167,7 @@ public final class EdDSAEngine extends Signature {
     @Override
     protected void engineInitVerify(PublicKey publicKey) throws InvalidKeyException {
         reset();
+        cofactoredVerify = false;
         if (publicKey instanceof EdDSAPublicKey) {
             key = (EdDSAPublicKey) publicKey;
 
@@ -162,7 +185,8 @@ public final class EdDSAEngine extends Signature {
             // key is valid but needs to be instanced as an EdDSAPublicKey before it can be used.
             EdDSAPublicKey parsedPublicKey;
             try {
-                parsedPublicKey = new EdDSAPublicKey(new X509EncodedKeySpec(publicKey.getEncoded()));
+                byte[] encoded = publicKey.getEncoded();
+                parsedPublicKey = EdDSAPublicKey.decode(encoded, 0, encoded.length);
             } catch (InvalidKeySpecException ex) {
                 throw new InvalidKeyException("cannot handle X.509 EdDSA public key: " + publicKey.getAlgorithm());
             }
@@ -220,6 +244,9 @@ public final class EdDSAEngine extends Signature {
         Curve curve = key.getParams().getCurve();
         ScalarOps sc = key.getParams().getScalarOps();
         byte[] a = ((EdDSAPrivateKey) key).geta();
+        // Signing with a public key which does not belong to a would leak a
+        if (!((EdDSAPrivateKey) key).isPublicKeyValid())
+            throw new SignatureException("public key does not match private key");
 
         byte[] message;
         int offset, length;
@@ -306,9 +333,23 @@ public final class EdDSAEngine extends Signature {
         h = key.getParams().getScalarOps().reduce(h);
 
         byte[] Sbyte = Arrays.copyOfRange(sigBytes, b/8, b/4);
+        GroupElement Aneg;
+        try {
+            Aneg = ((EdDSAPublicKey) key).getNegativeA();
+        } catch (IllegalArgumentException e) {
+            // A compact key with an invalid encoding, nothing verifies
+            return false;
+        }
+        if (hSlide == null) {
+            hSlide = new byte[256];
+            sSlide = new byte[256];
+        }
         // R = SB - H(Rbar,Abar,M)A
         GroupElement R = key.getParams().getB().doubleScalarMultiplyVariableTime(
-                ((EdDSAPublicKey) key).getNegativeA(), h, Sbyte);
+                Aneg, h, Sbyte, hSlide, sSlide);
+
+        if (cofactoredVerify)
+            return cofactoredEquals(curve, R, sigBytes);
 
         // Variable time. This should be okay, because there are no secret
         // values used anywhere in verification.
@@ -320,6 +361,28 @@ public final class EdDSAEngine extends Signature {
         return true;
     }
 
+    /**
+     * @return true if $[8]R = [8]Rcalc$ for the R in the first b/8 bytes of
+     * sigBytes, false if those are not a canonical point encoding.
+     */
+    private static boolean cofactoredEquals(Curve curve, GroupElement Rcalc, byte[] sigBytes) {
+        int b = curve.getField().getb();
+        byte[] Rbyte = Arrays.copyOf(sigBytes, b/8);
+        GroupElement R;
+        try {
+            R = new GroupElement(curve, Rbyte);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // y must be reduced, and x = 0 must have a positive sign
+        byte[] y = curve.getField().fromByteArray(Rbyte).toByteArray();
+        int sign = Utils.bit(Rbyte, b-1);
+        Rbyte[b/8-1] &= 0x7f;
+        if (!Arrays.equals(y, Rbyte) || (sign == 1 && !R.getX().isNonZero()))
+            return false;
+        return R.multiplyByCofactor().equals(Rcalc.multiplyByCofactor());
+    }
+
     /**
      *  To efficiently sign all the data in one shot, if it is available,
      *  use this method, which will avoid copying the data.
@@ -461,6 +524,7 @@ public final class EdDSAEngine extends Signature {
     /**
      * @throws InvalidAlgorithmParameterException if spec is ONE_SHOT_MODE and update() already called
      * @see #ONE_SHOT_MODE
+     * @see #COFACTORED_VERIFY_MODE
      */
     @Override
     protected void engineSetParameter(AlgorithmParameterSpec spec) throws InvalidAlgorithmParameterException {
@@ -468,6 +532,8 @@ public final class EdDSAEngine extends Signature {
             if (oneShotBytes != null || (baos != null && baos.size() > 0))
                 throw new InvalidAlgorithmParameterException("update() already called");
             oneShotMode = true;
+        } else if (spec.equals(COFACTORED_VERIFY_MODE)) {
+            cofactoredVerify = true;
         } else {
             super.engineSetParameter(spec);
         }
@@ -11,12 +11,18 @@
  */
 package net.i2p.crypto.eddsa;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.security.PrivateKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Arrays;
 
 import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519MontgomeryLadder;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
 import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
@@ -30,6 +36,11 @@ import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
  * For compatibility with older releases, decoding supports both the old and new
  * draft specifications. See decode().
  *</p><p>
+ * PKCS#8 v2 encodings (RFC 5958 OneAsymmetricKey) which also carry the
+ * public key can be read and written. By default the stored public key is
+ * checked against the seed; see EdDSAPrivateKey(PKCS8EncodedKeySpec, boolean)
+ * to trust it instead and defer the scalar multiplication.
+ *</p><p>
  * Ref: https://tools.ietf.org/html/draft-ietf-curdle-pkix-04
  *</p><p>
  * Old Ref: https://tools.ietf.org/html/draft-josefsson-pkix-eddsa-04
@@ -42,28 +53,154 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
     private final byte[] seed;
     private final byte[] h;
     private final byte[] a;
-    private final GroupElement A;
+    private volatile GroupElement A;
     private final byte[] Abyte;
     private final EdDSAParameterSpec edDsaSpec;
+    private transient volatile X25519PrivateKey x25519;
+    private transient volatile byte[] encoded;
+    /**
+     *  Whether Abyte belongs to a, or null if a trusted Abyte has not been
+     *  checked yet.
+     */
+    private transient volatile Boolean publicKeyValid;
 
     // OID 1.3.101.xxx
     private static final int OID_OLD = 100;
     private static final int OID_ED25519 = 112;
     private static final int OID_BYTE = 11;
     private static final int IDLEN_BYTE = 6;
+    private static final int VERSION_BYTE = 4;
+    // [1] publicKey, as a BIT STRING with no unused bits
+    private static final int PUBKEY_LEN = 35;
 
     public EdDSAPrivateKey(EdDSAPrivateKeySpec spec) {
+        this(spec, spec.getAbyte());
+    }
+
+    /**
+     * @param spec the key
+     * @param Abyte the encoding of spec.getA(), e.g. from
+     * GroupElement.toByteArrays()
+     */
+    EdDSAPrivateKey(EdDSAPrivateKeySpec spec, byte[] Abyte) {
         this.seed = spec.getSeed();
         this.h = spec.getH();
         this.a = spec.geta();
-        this.A = spec.getA();
-        this.Abyte = this.A.toByteArray();
+        this.Abyte = Abyte;
+        // A trusted public key is only decompressed when first needed,
+        // and only checked before the first signature
+        if (spec.isPublicKeyTrusted()) {
+            this.A = null;
+        } else {
+            this.A = spec.getA();
+            this.publicKeyValid = Boolean.TRUE;
+        }
         this.edDsaSpec = spec.getParams();
     }
 
+    /**
+     * Decodes a PKCS#8 v1 or v2 encoding. If it includes the public key,
+     * the key is computed from the seed and compared with it.
+     *
+     * @param spec the encoded key
+     * @throws InvalidKeySpecException if the encoding is invalid, or if the
+     * included public key does not belong to the seed.
+     */
     public EdDSAPrivateKey(PKCS8EncodedKeySpec spec) throws InvalidKeySpecException {
-        this(new EdDSAPrivateKeySpec(decode(spec.getEncoded()),
-                                     EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519)));
+        this(spec, false);
+    }
+
+    /**
+     * Decodes a PKCS#8 v1 or v2 encoding.
+     *<p>
+     * If trustPublicKey is set and the encoding includes the public key, it
+     * is used as is, so loading the key only costs a hash. The public key is
+     * then checked against the seed once, before the first signature, as a
+     * signature made with a wrong public key reveals the private key; if it
+     * does not match, signing fails. Keys which are never used to sign, or
+     * are only converted, never pay for the check.
+     *</p>
+     *
+     * @param spec the encoded key
+     * @param trustPublicKey true to use an included public key without
+     * checking it against the seed until the first signature.
+     * @throws InvalidKeySpecException if the encoding is invalid, or if the
+     * included public key is not trusted and does not belong to the seed.
+     */
+    public EdDSAPrivateKey(PKCS8EncodedKeySpec spec, boolean trustPublicKey) throws InvalidKeySpecException {
+        this(decodeSpec(spec.getEncoded(), 0, -1, false, trustPublicKey));
+    }
+
+    /**
+     * Decodes a key from a PKCS#8 v1 or v2 encoding in a larger buffer,
+     * without copying the encoding. An included public key is checked as
+     * for EdDSAPrivateKey(PKCS8EncodedKeySpec).
+     *
+     * @param b the buffer
+     * @param offset where the encoding starts
+     * @param length the length of the encoding
+     * @return the key
+     * @throws InvalidKeySpecException if the encoding is invalid, or if the
+     * included public key does not belong to the seed.
+     */
+    public static EdDSAPrivateKey decode(byte[] b, int offset, int length) throws InvalidKeySpecException {
+        return new EdDSAPrivateKey(decodeSpec(b, offset, length, true, false));
+    }
+
+    /**
+     * Decodes a key from a PKCS#8 v1 or v2 encoding in a larger buffer,
+     * without copying the encoding. See
+     * EdDSAPrivateKey(PKCS8EncodedKeySpec, boolean) for trustPublicKey.
+     *
+     * @param b the buffer
+     * @param offset where the encoding starts
+     * @param length the length of the encoding
+     * @param trustPublicKey true to use an included public key without
+     * checking it against the seed until the first signature.
+     * @return the key
+     * @throws InvalidKeySpecException if the encoding is invalid, or if the
+     * included public key is not trusted and does not belong to the seed.
+     */
+    public static EdDSAPrivateKey decode(byte[] b, int offset, int length, boolean trustPublicKey)
+            throws InvalidKeySpecException {
+        return new EdDSAPrivateKey(decodeSpec(b, offset, length, true, trustPublicKey));
+    }
+
+    /**
+     * Decodes a key from the PKCS#8 v1 or v2 encoding at the position of a
+     * buffer, and moves the position past it. The encoding is not copied if
+     * the buffer has an accessible array.
+     *
+     * @param buf the buffer
+     * @return the key
+     * @throws InvalidKeySpecException if the encoding is invalid, or if the
+     * included public key does not belong to the seed; the position is then
+     * unchanged
+     */
+    public static EdDSAPrivateKey decode(ByteBuffer buf) throws InvalidKeySpecException {
+        int length = Utils.derLength(buf);
+        EdDSAPrivateKey rv;
+        if (buf.hasArray()) {
+            rv = decode(buf.array(), buf.arrayOffset() + buf.position(), length);
+        } else {
+            byte[] d = new byte[length];
+            buf.duplicate().get(d);
+            rv = decode(d, 0, length);
+        }
+        buf.position(buf.position() + length);
+        return rv;
+    }
+
+    private static EdDSAPrivateKeySpec decodeSpec(byte[] d, int off, int len, boolean slice,
+                                                  boolean trustPublicKey) throws InvalidKeySpecException {
+        byte[][] decoded = decodeRaw(d, off, len, slice);
+        EdDSAParameterSpec params = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        if (decoded[1] != null && trustPublicKey)
+            return new EdDSAPrivateKeySpec(decoded[0], decoded[1], params);
+        EdDSAPrivateKeySpec rv = new EdDSAPrivateKeySpec(decoded[0], params);
+        if (decoded[1] != null && !Arrays.equals(rv.getAbyte(), decoded[1]))
+            throw new InvalidKeySpecException("public key does not match private key");
+        return rv;
     }
 
     @Override
@@ -132,15 +269,99 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
      *  id-Ed25519   OBJECT IDENTIFIER ::= { 1 3 101 112 }
      *</pre>
      *
+     *<p>
+     * The encoding is built on the first call and cached; later calls
+     * return a copy of it.
+     *</p>
+     *
      * @return 48 bytes for Ed25519, null for other curves
      */
     @Override
     public byte[] getEncoded() {
+        byte[] rv = cachedEncoding();
+        return rv != null ? rv.clone() : null;
+    }
+
+    /**
+     * Writes the encoding returned by getEncoded() into a buffer.
+     *
+     * @param out the buffer
+     * @param offset where to write
+     * @return the number of bytes written, 48 for Ed25519
+     * @throws UnsupportedOperationException for other curves, or if there
+     * is no seed
+     * @throws IndexOutOfBoundsException if out is too short
+     */
+    public int getEncoded(byte[] out, int offset) {
+        byte[] rv = cachedEncodingOrThrow();
+        System.arraycopy(rv, 0, out, offset, rv.length);
+        return rv.length;
+    }
+
+    /**
+     * Writes the encoding returned by getEncoded() at the position of a
+     * buffer, and moves the position past it.
+     *
+     * @param out the buffer
+     * @return the number of bytes written, 48 for Ed25519
+     * @throws UnsupportedOperationException for other curves, or if there
+     * is no seed
+     * @throws java.nio.BufferOverflowException if out is too short
+     */
+    public int getEncoded(ByteBuffer out) {
+        byte[] rv = cachedEncodingOrThrow();
+        out.put(rv);
+        return rv.length;
+    }
+
+    private byte[] cachedEncoding() {
+        byte[] rv = encoded;
+        if (rv == null) {
+            rv = encode(false);
+            encoded = rv;
+        }
+        return rv;
+    }
+
+    private byte[] cachedEncodingOrThrow() {
+        byte[] rv = cachedEncoding();
+        if (rv == null)
+            throw new UnsupportedOperationException("no encoding for this key");
+        return rv;
+    }
+
+    /**
+     * Returns the PKCS#8 encoding, optionally as v2 with the public key
+     * included, so that it need not be recomputed when the key is loaded.
+     *<p>
+     * getEncoded() stays at v1, as older readers including the PKCS8Key
+     * class of Java 8 reject v2 encodings.
+     *</p>
+     *<pre>
+     *  OneAsymmetricKey ::= SEQUENCE {
+     *    version Version,                      -- v2(1)
+     *    privateKeyAlgorithm PrivateKeyAlgorithmIdentifier,
+     *    privateKey PrivateKey,
+     *    publicKey [1] IMPLICIT BIT STRING
+     *  }
+     *</pre>
+     *
+     * @param includePublicKey true for v2, false for the same result as
+     * getEncoded().
+     * @return 48 or 83 bytes for Ed25519, null for other curves
+     */
+    public byte[] getEncoded(boolean includePublicKey) {
+        return includePublicKey ? encode(true) : getEncoded();
+    }
+
+    private byte[] encode(boolean includePublicKey) {
         if (!edDsaSpec.equals(EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519)))
             return null;
         if (seed == null)
             return null;
         int totlen = 16 + seed.length;
+        if (includePublicKey)
+            totlen += PUBKEY_LEN;
         byte[] rv = new byte[totlen];
         int idx = 0;
         // sequence
@@ -149,8 +370,8 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
         // version
         rv[idx++] = 0x02;
         rv[idx++] = 1;
-        // v1 - no public key included
-        rv[idx++] = 0;
+        // v1 - no public key included, v2 - public key included
+        rv[idx++] = (byte) (includePublicKey ? 1 : 0);
         // Algorithm Identifier
         // sequence
         rv[idx++] = 0x30;
@@ -171,6 +392,15 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
         rv[idx++] = (byte) seed.length;
         // the key
         System.arraycopy(seed, 0, rv, idx, seed.length);
+        idx += seed.length;
+        if (includePublicKey) {
+            // [1] IMPLICIT BIT STRING
+            rv[idx++] = (byte) 0x81;
+            rv[idx++] = (byte) (1 + Abyte.length);
+            // no unused bits
+            rv[idx++] = 0;
+            System.arraycopy(Abyte, 0, rv, idx, Abyte.length);
+        }
         return rv;
     }
 
@@ -187,28 +417,47 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
      * keystore. Other implementations MUST NOT copy this behaviour from here
      * unless they also need to read keys from the default Java keystore.
      *</p><p>
+     * With the current OID, v2 encodings with the public key as the
+     * [1] publicKey field of RFC 5958 are accepted too.
+     *</p><p>
      * This is really dumb for now. It does not use a general-purpose ASN.1 decoder.
      * See also getEncoded().
      *
-     * @return 32 bytes for Ed25519, throws for other curves
+     * @param d the buffer
+     * @param off where the encoding starts
+     * @param len the length of the encoding, ignored if not slice
+     * @param slice false if the encoding is all of d
+     * @return the 32 byte seed and the 32 byte public key, or null for the
+     * public key in v1 encodings; throws for other curves
      */
-    private static byte[] decode(byte[] d) throws InvalidKeySpecException {
+    private static byte[][] decodeRaw(byte[] d, int off, int len, boolean slice) throws InvalidKeySpecException {
+        if (!slice)
+            len = d.length;
+        else if (off < 0 || len < 0 || off > d.length - len)
+            throw new InvalidKeySpecException("invalid key spec length");
         try {
             //
             // Setup and OID check
             //
             int totlen = 48;
             int idlen = 5;
-            int doid = d[OID_BYTE];
+            if (len <= OID_BYTE)
+                throw new InvalidKeySpecException("invalid key spec length");
+            int doid = d[off + OID_BYTE];
+            boolean v2 = false;
             if (doid == OID_OLD) {
                 totlen = 49;
                 idlen = 8;
             } else if (doid == OID_ED25519) {
                 // Detect parameter value of NULL
-                if (d[IDLEN_BYTE] == 7) {
+                if (d[off + IDLEN_BYTE] == 7) {
                     totlen = 50;
                     idlen = 7;
                 }
+                if (d[off + VERSION_BYTE] == 1) {
+                    totlen += PUBKEY_LEN;
+                    v2 = true;
+                }
             } else {
                 throw new InvalidKeySpecException("unsupported key spec");
             }
@@ -216,19 +465,19 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
             //
             // Pre-decoding check
             //
-            if (d.length != totlen) {
+            if (len != totlen) {
                 throw new InvalidKeySpecException("invalid key spec length");
             }
 
             //
             // Decoding
             //
-            int idx = 0;
+            int idx = off;
             if (d[idx++] != 0x30 ||
                 d[idx++] != (totlen - 2) ||
                 d[idx++] != 0x02 ||
                 d[idx++] != 1 ||
-                d[idx++] != 0 ||
+                d[idx++] != (v2 ? 1 : 0) ||
                 d[idx++] != 0x30 ||
                 d[idx++] != idlen ||
                 d[idx++] != 0x06 ||
@@ -273,7 +522,18 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
             }
             byte[] rv = new byte[32];
             System.arraycopy(d, idx, rv, 0, 32);
-            return rv;
+            idx += 32;
+            byte[] pub = null;
+            if (v2) {
+                if (d[idx++] != (byte) 0x81 ||
+                    d[idx++] != 33 ||
+                    d[idx++] != 0) {
+                    throw new InvalidKeySpecException("unsupported key spec");
+                }
+                pub = new byte[32];
+                System.arraycopy(d, idx, pub, 0, 32);
+            }
+            return new byte[][] { rv, pub };
         } catch (IndexOutOfBoundsException ioobe) {
             throw new InvalidKeySpecException(ioobe);
         }
@@ -308,9 +568,15 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
 
     /**
      *  @return the public key
+     *  @throws IllegalArgumentException if a trusted public key is not a valid point
      */
     public GroupElement getA() {
-        return A;
+        GroupElement rv = A;
+        if (rv == null) {
+            rv = new GroupElement(edDsaSpec.getCurve(), Abyte);
+            A = rv;
+        }
+        return rv;
     }
 
     /**
@@ -320,6 +586,100 @@ public class EdDSAPrivateKey implements EdDSAKey, PrivateKey {
         return Abyte;
     }
 
+    /**
+     * Recomputes the public key from the private key and compares it with
+     * the stored one. Keys loaded with a trusted public key are checked
+     * like this before their first signature anyway; this allows checking
+     * them earlier, e.g. when loading them.
+     *
+     * @return true if the public key belongs to the private key.
+     */
+    public boolean checkPublicKey() {
+        boolean rv = Arrays.equals(edDsaSpec.getB().scalarMultiply(a).toByteArray(), Abyte);
+        publicKeyValid = Boolean.valueOf(rv);
+        return rv;
+    }
+
+    /**
+     * Called by EdDSAEngine before signing. A trusted public key is checked
+     * on the first call and the result is cached.
+     *
+     * @return true if the public key belongs to the private key.
+     */
+    boolean isPublicKeyValid() {
+        Boolean rv = publicKeyValid;
+        return rv != null ? rv.booleanValue() : checkPublicKey();
+    }
+
+    /**
+     * Converts this key to the equivalent X25519 private key, whose scalar
+     * is the clamped first half of H(seed), as libsodium's
+     * crypto_sign_ed25519_sk_to_curve25519() does.
+     *<p>
+     * The public key is mapped from A rather than recomputed, and the
+     * result is cached.
+     *</p>
+     *
+     * @return the X25519 private key.
+     * @throws UnsupportedOperationException if this is not an Ed25519 key.
+     */
+    public X25519PrivateKey toX25519PrivateKey() {
+        X25519PrivateKey sk = x25519;
+        if (sk == null) {
+            EdDSAPublicKey.checkEd25519(edDsaSpec);
+            sk = new X25519PrivateKey(a, Ed25519MontgomeryLadder.toMontgomery(getA()));
+            x25519 = sk;
+        }
+        return sk;
+    }
+
+    /**
+     * Keys on a named curve are serialized as the curve name, the seed (or
+     * H if there is none) and the public key, and read back with the
+     * interned curve spec. The public key is trusted on reading, so it is
+     * checked before the first signature as for any trusted public key.
+     */
+    private Object writeReplace() {
+        if (edDsaSpec instanceof EdDSANamedCurveSpec) {
+            String name = ((EdDSANamedCurveSpec) edDsaSpec).getName();
+            if (edDsaSpec.equals(EdDSANamedCurveTable.getByName(name)))
+                return new SerializationProxy(name, seed, seed == null ? h : null, Abyte);
+        }
+        return this;
+    }
+
+    private static final class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = -6053187427371046329L;
+        private final String curve;
+        private final byte[] seed;
+        private final byte[] h;
+        private final byte[] Abyte;
+
+        SerializationProxy(String curve, byte[] seed, byte[] h, byte[] Abyte) {
+            this.curve = curve;
+            this.seed = seed;
+            this.h = h;
+            this.Abyte = Abyte;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(curve);
+            if (spec == null)
+                throw new InvalidObjectException("unknown curve " + curve);
+            try {
+                // A stream may have been tampered with, but a trusted Abyte
+                // is checked against the seed before the first signature
+                if (seed != null)
+                    return new EdDSAPrivateKey(new EdDSAPrivateKeySpec(seed, Abyte, spec));
+                if (h != null)
+                    return new EdDSAPrivateKey(new EdDSAPrivateKeySpec(spec, h.clone()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+            throw new InvalidObjectException("no seed or hash");
+        }
+    }
+
     @Override
     public int hashCode() {
         return Arrays.hashCode(seed);
@@ -11,15 +11,22 @@
 package net.i2p.crypto.eddsa;
 
 import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519MontgomeryLadder;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
 import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * An EdDSA public key.
@@ -30,6 +37,11 @@ import java.util.Arrays;
  * For compatibility with older releases, decoding supports both the old and new
  * draft specifications. See decode().
  *</p><p>
+ * Keys hold the decoded point A and its negation with the table used for
+ * verification, about 1.9 KB per key. For large key sets, compact keys from
+ * EdDSAPublicKey(byte[], EdDSAParameterSpec) hold only the encoding, under
+ * 100 bytes per key, and build the rest when needed.
+ *</p><p>
  * Ref: https://tools.ietf.org/html/draft-ietf-curdle-pkix-04
  *</p><p>
  * Old Ref: https://tools.ietf.org/html/draft-josefsson-pkix-eddsa-04
@@ -44,21 +56,139 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
     private static final int OID_ED25519 = 112;
     private static final int OID_BYTE = 8;
     private static final int IDLEN_BYTE = 3;
+    /** Default size of the cache of negated points shared by compact keys. */
+    private static final int NEG_A_CACHE_SIZE = 1024;
+    private static volatile NegACache negACache = new NegACache(NEG_A_CACHE_SIZE);
     private final GroupElement A;
     private final GroupElement Aneg;
     private final byte[] Abyte;
     private final EdDSAParameterSpec edDsaSpec;
+    private final boolean compact;
+    private transient volatile X25519PublicKey x25519;
+    private transient volatile byte[] encoded;
 
     public EdDSAPublicKey(EdDSAPublicKeySpec spec) {
+        this(spec, spec.getA().toByteArray());
+    }
+
+    /**
+     * @param spec the key
+     * @param Abyte the encoding of spec.getA(), e.g. from
+     * GroupElement.toByteArrays()
+     */
+    EdDSAPublicKey(EdDSAPublicKeySpec spec, byte[] Abyte) {
         this.A = spec.getA();
         this.Aneg = spec.getNegativeA();
-        this.Abyte = this.A.toByteArray();
+        this.Abyte = Abyte;
         this.edDsaSpec = spec.getParams();
+        this.compact = false;
+    }
+
+    /**
+     * @param spec the parameter specification for this key
+     * @param A the public key
+     * @param Aneg A.negate(), e.g. from GroupElement.negateAll()
+     * @param Abyte the encoding of A, e.g. from GroupElement.toByteArrays()
+     */
+    EdDSAPublicKey(EdDSAParameterSpec spec, GroupElement A, GroupElement Aneg, byte[] Abyte) {
+        this.A = A;
+        this.Aneg = Aneg;
+        this.Abyte = Abyte;
+        this.edDsaSpec = spec;
+        this.compact = false;
+    }
+
+    /**
+     * Creates a compact key, which only holds the encoding.
+     *<p>
+     * The point is not decoded here, so an invalid encoding is only noticed
+     * when the key is used: getA() then throws, and no signature verifies.
+     * getA() decodes the point on every call. The negated point used for
+     * verification is kept in an LRU cache shared by all compact keys, so
+     * keys which are used often stay fast; see setCompactKeyCacheSize().
+     * Keys which are used all the time are better held as full keys, which
+     * keep the negated point themselves.
+     *</p><p>
+     * The encoding is used as given, so it should be the canonical one, as
+     * produced by getAbyte().
+     *</p>
+     *
+     * @param pk the encoded public key
+     * @param spec the parameter specification for this key
+     * @throws IllegalArgumentException if key length is wrong
+     */
+    public EdDSAPublicKey(byte[] pk, EdDSAParameterSpec spec) {
+        if (pk.length != spec.getCurve().getField().getb()/8)
+            throw new IllegalArgumentException("public-key length is wrong");
+        this.A = null;
+        this.Aneg = null;
+        this.Abyte = pk.clone();
+        this.edDsaSpec = spec;
+        this.compact = true;
     }
 
     public EdDSAPublicKey(X509EncodedKeySpec spec) throws InvalidKeySpecException {
-        this(new EdDSAPublicKeySpec(decode(spec.getEncoded()),
-                EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519)));
+        this(decodeSpec(decode(spec.getEncoded(), 0, -1, false)));
+    }
+
+    /**
+     * Decodes a key from an X.509 encoding in a larger buffer, without
+     * copying the encoding.
+     *
+     * @param b the buffer
+     * @param offset where the encoding starts
+     * @param length the length of the encoding
+     * @return the key
+     * @throws InvalidKeySpecException if the encoding is invalid or the
+     * point is not on the curve
+     */
+    public static EdDSAPublicKey decode(byte[] b, int offset, int length) throws InvalidKeySpecException {
+        return new EdDSAPublicKey(decodeSpec(decode(b, offset, length, true)));
+    }
+
+    /**
+     * Decodes a key from the X.509 encoding at the position of a buffer,
+     * and moves the position past it. The encoding is not copied if the
+     * buffer has an accessible array.
+     *
+     * @param buf the buffer
+     * @return the key
+     * @throws InvalidKeySpecException if the encoding is invalid or the
+     * point is not on the curve; the position is then unchanged
+     */
+    public static EdDSAPublicKey decode(ByteBuffer buf) throws InvalidKeySpecException {
+        int length = Utils.derLength(buf);
+        EdDSAPublicKey rv;
+        if (buf.hasArray()) {
+            rv = decode(buf.array(), buf.arrayOffset() + buf.position(), length);
+        } else {
+            byte[] d = new byte[length];
+            buf.duplicate().get(d);
+            rv = decode(d, 0, length);
+        }
+        buf.position(buf.position() + length);
+        return rv;
+    }
+
+    private static EdDSAPublicKeySpec decodeSpec(byte[] Abyte) throws InvalidKeySpecException {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        return new EdDSAPublicKeySpec(decodePoint(Abyte, spec), spec);
+    }
+
+    /**
+     * Decodes the point of a public key.
+     *
+     * @param Abyte the encoded point
+     * @param spec the parameter specification of the key
+     * @return the point
+     * @throws InvalidKeySpecException if Abyte is not a point on the curve
+     */
+    static GroupElement decodePoint(byte[] Abyte, EdDSAParameterSpec spec) throws InvalidKeySpecException {
+        try {
+            return new GroupElement(spec.getCurve(), Abyte);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidKeySpecException(e);
+        }
     }
 
     /**
@@ -78,22 +208,32 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
      * See also getEncoded().
      *</p>
      *
+     * @param d the buffer
+     * @param off where the encoding starts
+     * @param len the length of the encoding, ignored if not slice
+     * @param slice false if the encoding is all of d
      * @return 32 bytes for Ed25519, throws for other curves
      */
-    private static byte[] decode(byte[] d) throws InvalidKeySpecException {
+    static byte[] decode(byte[] d, int off, int len, boolean slice) throws InvalidKeySpecException {
+        if (!slice)
+            len = d.length;
+        else if (off < 0 || len < 0 || off > d.length - len)
+            throw new InvalidKeySpecException("invalid key spec length");
         try {
             //
             // Setup and OID check
             //
             int totlen = 44;
             int idlen = 5;
-            int doid = d[OID_BYTE];
+            if (len <= OID_BYTE)
+                throw new InvalidKeySpecException("invalid key spec length");
+            int doid = d[off + OID_BYTE];
             if (doid == OID_OLD) {
                 totlen = 47;
                 idlen = 8;
             } else if (doid == OID_ED25519) {
                 // Detect parameter value of NULL
-                if (d[IDLEN_BYTE] == 7) {
+                if (d[off + IDLEN_BYTE] == 7) {
                     totlen = 46;
                     idlen = 7;
                 }
@@ -104,14 +244,14 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
             //
             // Pre-decoding check
             //
-            if (d.length != totlen) {
+            if (len != totlen) {
                 throw new InvalidKeySpecException("invalid key spec length");
             }
 
             //
             // Decoding
             //
-            int idx = 0;
+            int idx = off;
             if (d[idx++] != 0x30 ||
                     d[idx++] != (totlen - 2) ||
                     d[idx++] != 0x30 ||
@@ -207,10 +347,66 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
      *  id-Ed25519   OBJECT IDENTIFIER ::= { 1 3 101 112 }
      *</pre>
      *
+     *<p>
+     * The encoding is built on the first call and cached; later calls
+     * return a copy of it.
+     *</p>
+     *
      * @return 44 bytes for Ed25519, null for other curves
      */
     @Override
     public byte[] getEncoded() {
+        byte[] rv = cachedEncoding();
+        return rv != null ? rv.clone() : null;
+    }
+
+    /**
+     * Writes the encoding returned by getEncoded() into a buffer.
+     *
+     * @param out the buffer
+     * @param offset where to write
+     * @return the number of bytes written, 44 for Ed25519
+     * @throws UnsupportedOperationException for other curves
+     * @throws IndexOutOfBoundsException if out is too short
+     */
+    public int getEncoded(byte[] out, int offset) {
+        byte[] rv = cachedEncodingOrThrow();
+        System.arraycopy(rv, 0, out, offset, rv.length);
+        return rv.length;
+    }
+
+    /**
+     * Writes the encoding returned by getEncoded() at the position of a
+     * buffer, and moves the position past it.
+     *
+     * @param out the buffer
+     * @return the number of bytes written, 44 for Ed25519
+     * @throws UnsupportedOperationException for other curves
+     * @throws java.nio.BufferOverflowException if out is too short
+     */
+    public int getEncoded(ByteBuffer out) {
+        byte[] rv = cachedEncodingOrThrow();
+        out.put(rv);
+        return rv.length;
+    }
+
+    private byte[] cachedEncoding() {
+        byte[] rv = encoded;
+        if (rv == null) {
+            rv = encode();
+            encoded = rv;
+        }
+        return rv;
+    }
+
+    private byte[] cachedEncodingOrThrow() {
+        byte[] rv = cachedEncoding();
+        if (rv == null)
+            throw new UnsupportedOperationException("no encoding for this curve");
+        return rv;
+    }
+
+    private byte[] encode() {
         if (edDsaSpec instanceof EdDSANamedCurveSpec && ((EdDSANamedCurveSpec) edDsaSpec).getName().equals(EdDSANamedCurveTable.ED_25519)) {
 
             int totlen = 12 + Abyte.length;
@@ -246,18 +442,214 @@ public class EdDSAPublicKey implements EdDSAKey, PublicKey {
         return edDsaSpec;
     }
 
+    /**
+     * @return the public key
+     * @throws IllegalArgumentException if this is a compact key with an
+     * invalid encoding
+     */
     public GroupElement getA() {
+        if (compact)
+            return new GroupElement(edDsaSpec.getCurve(), Abyte);
         return A;
     }
 
+    /**
+     * @return the negated public key, with the table used for verification
+     * @throws IllegalArgumentException if this is a compact key with an
+     * invalid encoding
+     */
     public GroupElement getNegativeA() {
-        return Aneg;
+        if (!compact)
+            return Aneg;
+        NegACache cache = negACache;
+        GroupElement rv = cache.get(this);
+        if (rv == null) {
+            rv = getA().negate();
+            cache.put(this, rv);
+        }
+        return rv;
+    }
+
+    /**
+     * Sets the number of negated points, with their verification tables,
+     * cached for compact keys, about 1.8 KB each. The default is 1024.
+     * The cache is split into stripes with their own locks, so that
+     * verifying threads rarely contend; the current contents are dropped.
+     *
+     * @param size the number of entries, or 0 for no cache.
+     * @throws IllegalArgumentException if size is negative.
+     */
+    public static void setCompactKeyCacheSize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("negative cache size");
+        negACache = new NegACache(size);
+    }
+
+    /**
+     * A striped LRU map from compact keys to their negated points. Each
+     * stripe is an access-ordered LinkedHashMap under its own lock.
+     */
+    private static final class NegACache {
+        private static final int STRIPES = 16;
+        private final Map<EdDSAPublicKey, GroupElement>[] stripes;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        NegACache(int size) {
+            final int perStripe = (size + STRIPES - 1) / STRIPES;
+            stripes = new Map[size == 0 ? 0 : STRIPES];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new LinkedHashMap<EdDSAPublicKey, GroupElement>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<EdDSAPublicKey, GroupElement> eldest) {
+                        return size() > perStripe;
+                    }
+                };
+            }
+        }
+
+        private Map<EdDSAPublicKey, GroupElement> stripe(EdDSAPublicKey key) {
+            if (stripes.length == 0)
+                return null;
+            int h = key.hashCode();
+            h ^= h >>> 16;
+            return stripes[h & (STRIPES - 1)];
+        }
+
+        GroupElement get(EdDSAPublicKey key) {
+            Map<EdDSAPublicKey, GroupElement> m = stripe(key);
+            if (m == null)
+                return null;
+            synchronized (m) {
+                return m.get(key);
+            }
+        }
+
+        void put(EdDSAPublicKey key, GroupElement Aneg) {
+            Map<EdDSAPublicKey, GroupElement> m = stripe(key);
+            if (m == null)
+                return;
+            synchronized (m) {
+                m.put(key, Aneg);
+            }
+        }
+    }
+
+    /**
+     * @return true if this key only holds its encoding, see
+     * EdDSAPublicKey(byte[], EdDSAParameterSpec)
+     */
+    public boolean isCompact() {
+        return compact;
     }
 
     public byte[] getAbyte() {
         return Abyte;
     }
 
+    /**
+     * Converts this key to the equivalent X25519 public key,
+     * $u = (1 + y) / (1 - y)$, as libsodium's
+     * crypto_sign_ed25519_pk_to_curve25519() does.
+     *<p>
+     * The result is cached, so only the first call costs a field inversion.
+     * Use {@link #toX25519PublicKeys(EdDSAPublicKey[])} to convert many keys.
+     *</p>
+     *
+     * @return the X25519 public key.
+     * @throws UnsupportedOperationException if this is not an Ed25519 key.
+     */
+    public X25519PublicKey toX25519PublicKey() {
+        X25519PublicKey pk = x25519;
+        if (pk == null) {
+            checkEd25519(edDsaSpec);
+            pk = new X25519PublicKey(Ed25519MontgomeryLadder.toMontgomery(getA()));
+            x25519 = pk;
+        }
+        return pk;
+    }
+
+    /**
+     * Converts a set of keys to X25519 public keys with a single shared
+     * field inversion. The results are cached on the keys as for
+     * {@link #toX25519PublicKey()}.
+     *
+     * @param keys the Ed25519 public keys.
+     * @return the X25519 public keys, in the same order.
+     * @throws UnsupportedOperationException if any key is not an Ed25519 key.
+     */
+    public static X25519PublicKey[] toX25519PublicKeys(EdDSAPublicKey[] keys) {
+        final X25519PublicKey[] rv = new X25519PublicKey[keys.length];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            checkEd25519(keys[i].edDsaSpec);
+            rv[i] = keys[i].x25519;
+            if (rv[i] == null)
+                n++;
+        }
+        if (n == 0)
+            return rv;
+
+        final GroupElement[] points = new GroupElement[n];
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            if (rv[i] == null)
+                points[j++] = keys[i].getA();
+        }
+        final byte[][] u = Ed25519MontgomeryLadder.toMontgomery(points);
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            if (rv[i] == null) {
+                rv[i] = new X25519PublicKey(u[j++]);
+                keys[i].x25519 = rv[i];
+            }
+        }
+        return rv;
+    }
+
+    /**
+     * Keys on a named curve are serialized as the curve name and the
+     * encoding only, and read back with the interned curve spec.
+     */
+    private Object writeReplace() {
+        if (edDsaSpec instanceof EdDSANamedCurveSpec) {
+            String name = ((EdDSANamedCurveSpec) edDsaSpec).getName();
+            if (edDsaSpec.equals(EdDSANamedCurveTable.getByName(name)))
+                return new SerializationProxy(name, Abyte, compact);
+        }
+        return this;
+    }
+
+    private static final class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = 2817399234876122853L;
+        private final String curve;
+        private final byte[] Abyte;
+        private final boolean compact;
+
+        SerializationProxy(String curve, byte[] Abyte, boolean compact) {
+            this.curve = curve;
+            this.Abyte = Abyte;
+            this.compact = compact;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(curve);
+            if (spec == null)
+                throw new InvalidObjectException("unknown curve " + curve);
+            try {
+                if (compact)
+                    return new EdDSAPublicKey(Abyte, spec);
+                return new EdDSAPublicKey(new EdDSAPublicKeySpec(Abyte, spec));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+        }
+    }
+
+    static void checkEd25519(EdDSAParameterSpec spec) {
+        if (!(spec instanceof EdDSANamedCurveSpec && ((EdDSANamedCurveSpec) spec).getName().equals(EdDSANamedCurveTable.ED_25519)))
+            throw new UnsupportedOperationException("X25519 conversion is only defined for Ed25519 keys");
+    }
+
     @Override
     public int hashCode() {
         return Arrays.hashCode(Abyte);
@@ -42,6 +42,8 @@ public class EdDSASecurityProvider extends Provider {
         put("KeyFactory." + EdDSAKey.KEY_ALGORITHM, "net.i2p.crypto.eddsa.KeyFactory");
         put("KeyPairGenerator." + EdDSAKey.KEY_ALGORITHM, "net.i2p.crypto.eddsa.KeyPairGenerator");
         put("Signature." + EdDSAEngine.SIGNATURE_ALGORITHM, "net.i2p.crypto.eddsa.EdDSAEngine");
+        put("KeyPairGenerator." + X25519PublicKey.KEY_ALGORITHM, "net.i2p.crypto.eddsa.X25519KeyPairGenerator");
+        put("KeyAgreement." + X25519PublicKey.KEY_ALGORITHM, "net.i2p.crypto.eddsa.X25519KeyAgreement");
 
         // OID Mappings
         // See section "Mapping from OID to name".
@@ -55,5 +57,12 @@ public class EdDSASecurityProvider extends Provider {
         put("Alg.Alias.KeyPairGenerator.OID.1.3.101.112", EdDSAKey.KEY_ALGORITHM);
         put("Alg.Alias.Signature.1.3.101.112", EdDSAEngine.SIGNATURE_ALGORITHM);
         put("Alg.Alias.Signature.OID.1.3.101.112", EdDSAEngine.SIGNATURE_ALGORITHM);
+
+        // From RFC 8410:
+        //   id-X25519    OBJECT IDENTIFIER ::= { 1 3 101 110 }
+        put("Alg.Alias.KeyPairGenerator.1.3.101.110", X25519PublicKey.KEY_ALGORITHM);
+        put("Alg.Alias.KeyPairGenerator.OID.1.3.101.110", X25519PublicKey.KEY_ALGORITHM);
+        put("Alg.Alias.KeyAgreement.1.3.101.110", X25519PublicKey.KEY_ALGORITHM);
+        put("Alg.Alias.KeyAgreement.OID.1.3.101.110", X25519PublicKey.KEY_ALGORITHM);
     }
 }
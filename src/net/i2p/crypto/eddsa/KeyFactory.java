@@ -20,7 +20,18 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
 import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
 
@@ -29,6 +40,148 @@ import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
  *
  */
 public final class KeyFactory extends KeyFactorySpi {
+    /** Keys decoded per task in bulk imports. */
+    private static final int BULK_CHUNK = 64;
+
+    /**
+     * The outcome of a bulk import: a key or an error for each input, in
+     * input order.
+     *
+     * @param <K> the key type
+     */
+    public static final class BulkResult<K extends Key> {
+        private final List<K> keys;
+        private final InvalidKeySpecException[] errors;
+        private final int failures;
+
+        @SuppressWarnings("unchecked")
+        BulkResult(Object[] keys, InvalidKeySpecException[] errors) {
+            this.keys = Collections.unmodifiableList((List<K>) (List<?>) Arrays.asList(keys));
+            this.errors = errors;
+            int n = 0;
+            for (InvalidKeySpecException e : errors) {
+                if (e != null)
+                    n++;
+            }
+            this.failures = n;
+        }
+
+        /**
+         * @return the number of inputs.
+         */
+        public int size() {
+            return keys.size();
+        }
+
+        /**
+         * @param i the index of the input.
+         * @return the key, or null if it could not be decoded.
+         */
+        public K getKey(int i) {
+            return keys.get(i);
+        }
+
+        /**
+         * @param i the index of the input.
+         * @return why the input could not be decoded, or null if it was.
+         */
+        public InvalidKeySpecException getError(int i) {
+            return errors[i];
+        }
+
+        /**
+         * @return the number of inputs which could not be decoded.
+         */
+        public int getFailureCount() {
+            return failures;
+        }
+
+        /**
+         * @return the keys in input order, with null for failed inputs.
+         */
+        public List<K> getKeys() {
+            return keys;
+        }
+    }
+
+    /**
+     * Decodes a chunk of inputs, sharing what work it can between them.
+     */
+    private static abstract class Decoder {
+        abstract void decodeRange(List<byte[]> in, int from, int to,
+                                  Object[] keys, InvalidKeySpecException[] errors);
+    }
+
+    /**
+     * Decompresses each point on its own, as the square roots cannot be
+     * shared. The re-encoding of the points and the tables for verifying,
+     * one and eight field inversions per key, are then batched over the
+     * chunk.
+     */
+    private static final Decoder PUBLIC_DECODER = new Decoder() {
+        void decodeRange(List<byte[]> in, int from, int to,
+                         Object[] keys, InvalidKeySpecException[] errors) {
+            EdDSANamedCurveSpec spec = ed25519();
+            int[] index = new int[to - from];
+            GroupElement[] A = new GroupElement[to - from];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                byte[] d = in.get(i);
+                try {
+                    if (d == null)
+                        throw new InvalidKeySpecException("no key");
+                    byte[] Abyte = d.length == 32 ? d : EdDSAPublicKey.decode(d, 0, d.length, false);
+                    A[n] = EdDSAPublicKey.decodePoint(Abyte, spec);
+                    index[n++] = i;
+                } catch (InvalidKeySpecException e) {
+                    errors[i] = e;
+                }
+            }
+            A = Arrays.copyOf(A, n);
+            byte[][] Abyte = GroupElement.toByteArrays(A);
+            GroupElement[] Aneg = GroupElement.negateAll(A);
+            for (int j = 0; j < n; j++)
+                keys[index[j]] = new EdDSAPublicKey(spec, A[j], Aneg[j], Abyte[j]);
+        }
+    };
+
+    /**
+     * Raw seeds have their public keys encoded with one field inversion per
+     * chunk; PKCS#8 encodings are decoded one by one.
+     */
+    private static final Decoder PRIVATE_DECODER = new Decoder() {
+        void decodeRange(List<byte[]> in, int from, int to,
+                         Object[] keys, InvalidKeySpecException[] errors) {
+            EdDSANamedCurveSpec spec = ed25519();
+            int[] index = new int[to - from];
+            EdDSAPrivateKeySpec[] seeds = new EdDSAPrivateKeySpec[to - from];
+            GroupElement[] A = new GroupElement[to - from];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                byte[] d = in.get(i);
+                try {
+                    if (d == null)
+                        throw new InvalidKeySpecException("no key");
+                    if (d.length == 32) {
+                        seeds[n] = new EdDSAPrivateKeySpec(d, spec);
+                        A[n] = seeds[n].getA();
+                        index[n++] = i;
+                    } else {
+                        keys[i] = EdDSAPrivateKey.decode(d, 0, d.length);
+                    }
+                } catch (InvalidKeySpecException e) {
+                    errors[i] = e;
+                }
+            }
+            byte[][] Abyte = GroupElement.toByteArrays(Arrays.copyOf(A, n));
+            for (int j = 0; j < n; j++)
+                keys[index[j]] = new EdDSAPrivateKey(seeds[j], Abyte[j]);
+        }
+    };
+
+    private static EdDSANamedCurveSpec ed25519() {
+        return EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    }
 
     protected PrivateKey engineGeneratePrivate(KeySpec keySpec)
             throws InvalidKeySpecException {
@@ -72,4 +225,81 @@ public final class KeyFactory extends KeyFactorySpi {
     protected Key engineTranslateKey(Key key) throws InvalidKeyException {
         throw new InvalidKeyException("No other EdDSA key providers known");
     }
+
+    /**
+     * Decodes many Ed25519 public keys, in parallel if an executor is given.
+     *<p>
+     * Each input is either a raw 32 byte key or an X.509 encoding. Inputs
+     * are decoded in chunks, one task per chunk, and an input which cannot
+     * be decoded is reported in the result without affecting the others.
+     *</p><p>
+     * Within a chunk, the field inversions for encoding the keys and for
+     * building their verification tables are shared, see
+     * GroupElement.negateAll().
+     *</p>
+     *
+     * @param encoded the encoded keys.
+     * @param executor runs the chunks, or null to decode in this thread.
+     * @return the keys or errors, in input order.
+     * @throws InterruptedException if interrupted while waiting for the
+     * executor.
+     */
+    public BulkResult<EdDSAPublicKey> generatePublicKeys(Iterable<byte[]> encoded, ExecutorService executor)
+            throws InterruptedException {
+        return bulkDecode(encoded, executor, PUBLIC_DECODER);
+    }
+
+    /**
+     * Decodes many Ed25519 private keys, in parallel if an executor is
+     * given.
+     *<p>
+     * Each input is either a raw 32 byte seed or a PKCS#8 v1 or v2
+     * encoding; see generatePublicKeys() for how they are decoded.
+     *</p>
+     *
+     * @param encoded the encoded keys.
+     * @param executor runs the chunks, or null to decode in this thread.
+     * @return the keys or errors, in input order.
+     * @throws InterruptedException if interrupted while waiting for the
+     * executor.
+     */
+    public BulkResult<EdDSAPrivateKey> generatePrivateKeys(Iterable<byte[]> encoded, ExecutorService executor)
+            throws InterruptedException {
+        return bulkDecode(encoded, executor, PRIVATE_DECODER);
+    }
+
+    private static <K extends Key> BulkResult<K> bulkDecode(Iterable<byte[]> encoded, ExecutorService executor,
+            final Decoder decoder) throws InterruptedException {
+        final List<byte[]> in = new ArrayList<byte[]>();
+        for (byte[] d : encoded)
+            in.add(d);
+        final Object[] keys = new Object[in.size()];
+        final InvalidKeySpecException[] errors = new InvalidKeySpecException[in.size()];
+        if (executor == null) {
+            for (int start = 0; start < in.size(); start += BULK_CHUNK)
+                decoder.decodeRange(in, start, Math.min(start + BULK_CHUNK, in.size()), keys, errors);
+            return new BulkResult<K>(keys, errors);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < in.size(); start += BULK_CHUNK) {
+            final int from = start;
+            final int to = Math.min(start + BULK_CHUNK, in.size());
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    decoder.decodeRange(in, from, to, keys, errors);
+                    return null;
+                }
+            });
+        }
+        // Future.get() also makes the tasks' writes visible here
+        for (Future<Void> f : executor.invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("bulk decoding failed", e.getCause());
+            }
+        }
+        return new BulkResult<K>(keys, errors);
+    }
 }
@@ -17,8 +17,16 @@ import java.security.KeyPair;
 import java.security.KeyPairGeneratorSpi;
 import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import net.i2p.crypto.eddsa.math.GroupElement;
 import net.i2p.crypto.eddsa.spec.EdDSAGenParameterSpec;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
@@ -31,6 +39,8 @@ import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
  */
 public final class KeyPairGenerator extends KeyPairGeneratorSpi {
     private static final int DEFAULT_KEYSIZE = 256;
+    /** Keys generated per task in bulk generation. */
+    private static final int BULK_CHUNK = 64;
     private EdDSAParameterSpec edParams;
     private SecureRandom random;
     private boolean initialized;
@@ -80,6 +90,111 @@ public final class KeyPairGenerator extends KeyPairGeneratorSpi {
         return new KeyPair(new EdDSAPublicKey(pubKey), new EdDSAPrivateKey(privKey));
     }
 
+    /**
+     * Generates n key pairs in this thread; see
+     * generateKeyPairs(int, ExecutorService).
+     *
+     * @param n the number of key pairs.
+     * @return the key pairs.
+     */
+    public KeyPair[] generateKeyPairs(int n) {
+        try {
+            return generateKeyPairs(n, null);
+        } catch (InterruptedException e) {
+            // Not thrown without an executor
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates n key pairs, in parallel if an executor is given.
+     *<p>
+     * All seeds are drawn from the SecureRandom in one call, rather than
+     * one call per key, and all public keys are encoded with a single
+     * shared field inversion. The fixed-base multiplications and the
+     * verification tables of the public keys are computed in chunks, one
+     * task per chunk; the tables of a chunk share one field inversion, see
+     * GroupElement.negateAll().
+     *</p>
+     *
+     * @param n the number of key pairs.
+     * @param executor runs the chunks, or null to run them in this thread.
+     * @return the key pairs.
+     * @throws IllegalArgumentException if n is negative, or so large that
+     * the seeds do not fit in one array.
+     * @throws InterruptedException if interrupted while waiting for the
+     * executor.
+     */
+    public KeyPair[] generateKeyPairs(final int n, ExecutorService executor) throws InterruptedException {
+        if (!initialized)
+            initialize(DEFAULT_KEYSIZE, new SecureRandom());
+        if (n < 0)
+            throw new IllegalArgumentException("negative number of keys");
+
+        final int seedLen = edParams.getCurve().getField().getb()/8;
+        if (n > Integer.MAX_VALUE / seedLen)
+            throw new IllegalArgumentException("too many keys");
+        final byte[] seeds = new byte[n * seedLen];
+        random.nextBytes(seeds);
+
+        final EdDSAPrivateKeySpec[] privKeys = new EdDSAPrivateKeySpec[n];
+        final GroupElement[] A = new GroupElement[n];
+        runChunked(n, executor, new Chunk() {
+            void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    byte[] seed = Arrays.copyOfRange(seeds, i * seedLen, (i + 1) * seedLen);
+                    privKeys[i] = new EdDSAPrivateKeySpec(seed, edParams);
+                    A[i] = privKeys[i].getA();
+                }
+            }
+        });
+        Arrays.fill(seeds, (byte) 0);
+
+        final byte[][] Abyte = GroupElement.toByteArrays(A);
+        final KeyPair[] rv = new KeyPair[n];
+        runChunked(n, executor, new Chunk() {
+            void run(int from, int to) {
+                GroupElement[] Aneg = GroupElement.negateAll(Arrays.copyOfRange(A, from, to));
+                for (int i = from; i < to; i++) {
+                    rv[i] = new KeyPair(new EdDSAPublicKey(edParams, A[i], Aneg[i - from], Abyte[i]),
+                                        new EdDSAPrivateKey(privKeys[i], Abyte[i]));
+                }
+            }
+        });
+        return rv;
+    }
+
+    private static abstract class Chunk {
+        abstract void run(int from, int to);
+    }
+
+    private static void runChunked(int n, ExecutorService executor, final Chunk chunk)
+            throws InterruptedException {
+        if (executor == null) {
+            chunk.run(0, n);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < n; start += BULK_CHUNK) {
+            final int from = start;
+            final int to = Math.min(start + BULK_CHUNK, n);
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    chunk.run(from, to);
+                    return null;
+                }
+            });
+        }
+        // Future.get() also makes the tasks' writes visible here
+        for (Future<Void> f : executor.invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("key generation failed", e.getCause());
+            }
+        }
+    }
+
     /**
      * Create an EdDSANamedCurveSpec from the provided curve name. The current
      * implementation fetches the pre-created curve spec from a table.
@@ -0,0 +1,207 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.io.Closeable;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of pre-generated Ed25519 key pairs, for protocols which
+ * need a fresh key pair on a latency-sensitive path, such as ephemeral keys
+ * in handshakes.
+ *<p>
+ * A low-priority daemon thread keeps the pool filled up to its capacity,
+ * generating in batches with KeyPairGenerator.generateKeyPairs(). take()
+ * removes a key pair atomically, so each pair is handed out at most once;
+ * if the pool is empty it generates one in the calling thread instead.
+ *</p><p>
+ * The pooled private keys stay in memory until they are taken. close()
+ * stops the thread and drops them.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class KeyPairPool implements Closeable {
+    private static final int DEFAULT_KEYSIZE = 256;
+    /** Largest number of key pairs generated in one batch. */
+    private static final int BATCH = 16;
+
+    private final int capacity;
+    private final LinkedBlockingQueue<KeyPair> pool;
+    private final KeyPairGenerator generator;
+    private final KeyPairGenerator fallback;
+    private final Thread refiller;
+    private final Object lock = new Object();
+    /** Set while the refill thread waits for room in the pool. */
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong generatingNanos = new AtomicLong();
+
+    /**
+     * Creates a pool drawing seeds from a new SecureRandom, and starts
+     * filling it.
+     *
+     * @param capacity the number of key pairs to keep ready.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    public KeyPairPool(int capacity) {
+        this(capacity, new SecureRandom());
+    }
+
+    /**
+     * Creates a pool and starts filling it.
+     *
+     * @param capacity the number of key pairs to keep ready.
+     * @param random the source of the seeds.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    public KeyPairPool(int capacity, SecureRandom random) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.pool = new LinkedBlockingQueue<KeyPair>(capacity);
+        this.generator = new KeyPairGenerator();
+        this.generator.initialize(DEFAULT_KEYSIZE, random);
+        this.fallback = new KeyPairGenerator();
+        this.fallback.initialize(DEFAULT_KEYSIZE, random);
+        this.refiller = new Thread(new Runnable() {
+            public void run() {
+                refill();
+            }
+        }, "EdDSA KeyPairPool");
+        this.refiller.setDaemon(true);
+        this.refiller.setPriority(Thread.MIN_PRIORITY);
+        this.refiller.start();
+    }
+
+    /**
+     * Takes a key pair out of the pool, or generates one in this thread if
+     * the pool is empty or closed. No key pair is returned twice.
+     *
+     * @return a fresh key pair.
+     */
+    public KeyPair take() {
+        KeyPair rv = pool.poll();
+        if (rv == null) {
+            misses.incrementAndGet();
+            rv = fallback.generateKeyPair();
+        } else {
+            hits.incrementAndGet();
+            // The refill thread sets waiting before it checks for room, and
+            // poll() made room before this read, so no wakeup is lost.
+            if (waiting) {
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        }
+        return rv;
+    }
+
+    private void refill() {
+        while (!closed) {
+            int n = Math.min(pool.remainingCapacity(), BATCH);
+            if (n == 0) {
+                synchronized (lock) {
+                    waiting = true;
+                    try {
+                        while (!closed && pool.remainingCapacity() == 0)
+                            lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    } finally {
+                        waiting = false;
+                    }
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            KeyPair[] batch = generator.generateKeyPairs(n);
+            generatingNanos.addAndGet(System.nanoTime() - start);
+            for (KeyPair kp : batch) {
+                if (closed || !pool.offer(kp))
+                    break;
+                generated.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Stops the refill thread, waiting for its current batch, and drops the
+     * pooled key pairs. take() still works afterwards, generating in the
+     * calling thread.
+     */
+    public void close() {
+        closed = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            refiller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.clear();
+    }
+
+    /**
+     * @return the number of key pairs ready to be taken.
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * @return the number of key pairs the pool is kept filled to.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of take() calls served from the pool.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of take() calls which had to generate a key pair
+     * themselves.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of key pairs the refill thread has added.
+     */
+    public long getGeneratedCount() {
+        return generated.get();
+    }
+
+    /**
+     * @return the key pairs per second the refill thread generates while
+     * it is busy, or 0 before its first batch.
+     */
+    public double getRefillRate() {
+        long nanos = generatingNanos.get();
+        return nanos == 0 ? 0 : generated.get() * 1e9 / nanos;
+    }
+}
@@ -11,6 +11,9 @@
  */
 package net.i2p.crypto.eddsa;
 
+import java.nio.ByteBuffer;
+import java.security.spec.InvalidKeySpecException;
+
 /**
  * Basic utilities for EdDSA.
  * Not for external use, not maintained as a public API.
@@ -100,4 +103,22 @@ public class Utils {
         return hex.toString();
     }
 
+    /**
+     * Gets the total length of the short DER SEQUENCE at the position of
+     * a buffer, without moving the position.
+     * @param buf the buffer.
+     * @return the length of the SEQUENCE including its header.
+     * @throws InvalidKeySpecException if there is no such SEQUENCE, or it
+     * is longer than the remaining bytes.
+     */
+    static int derLength(ByteBuffer buf) throws InvalidKeySpecException {
+        int pos = buf.position();
+        if (buf.remaining() < 2 || buf.get(pos) != 0x30 || buf.get(pos + 1) < 0)
+            throw new InvalidKeySpecException("unsupported key spec");
+        int length = 2 + buf.get(pos + 1);
+        if (length > buf.remaining())
+            throw new InvalidKeySpecException("invalid key spec length");
+        return length;
+    }
+
 }
@@ -0,0 +1,130 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+
+import javax.crypto.KeyAgreementSpi;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * X25519 key agreement, RFC 7748 section 6.1.
+ *<p>
+ * Keys of other providers are accepted if they have the standard X.509 or
+ * PKCS#8 encoding. A shared secret of all zeroes, which results from a
+ * small-order public key, is rejected with an {@link InvalidKeyException}.
+ *</p>
+ * @author str4d
+ *
+ */
+public final class X25519KeyAgreement extends KeyAgreementSpi {
+    private X25519PrivateKey key;
+    private byte[] secret;
+
+    @Override
+    protected void engineInit(Key key, SecureRandom random) throws InvalidKeyException {
+        this.key = toPrivateKey(key);
+        this.secret = null;
+    }
+
+    @Override
+    protected void engineInit(Key key, AlgorithmParameterSpec params, SecureRandom random)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (params != null)
+            throw new InvalidAlgorithmParameterException("X25519 takes no parameters");
+        engineInit(key, random);
+    }
+
+    @Override
+    protected Key engineDoPhase(Key key, boolean lastPhase) throws InvalidKeyException, IllegalStateException {
+        if (this.key == null)
+            throw new IllegalStateException("not initialized");
+        if (this.secret != null)
+            throw new IllegalStateException("phase already done");
+        if (!lastPhase)
+            throw new IllegalStateException("X25519 has only one phase");
+
+        final X25519PublicKey pub = toPublicKey(key);
+        final byte[] s = X25519PrivateKey.LADDER.scalarMultiply(this.key.getK(), pub.getU());
+        // RFC 7748 section 6.1: check that the result is not all zeroes.
+        if (Utils.equal(s, new byte[32]) == 1)
+            throw new InvalidKeyException("public key has small order");
+        this.secret = s;
+        return null;
+    }
+
+    @Override
+    protected byte[] engineGenerateSecret() throws IllegalStateException {
+        if (secret == null)
+            throw new IllegalStateException("phase not done");
+        final byte[] s = secret;
+        // Reset so the object can be used again with the same private key.
+        secret = null;
+        return s;
+    }
+
+    @Override
+    protected int engineGenerateSecret(byte[] sharedSecret, int offset) throws IllegalStateException, ShortBufferException {
+        if (secret == null)
+            throw new IllegalStateException("phase not done");
+        if (sharedSecret.length - offset < secret.length)
+            throw new ShortBufferException("need " + secret.length + " bytes");
+        final byte[] s = engineGenerateSecret();
+        System.arraycopy(s, 0, sharedSecret, offset, s.length);
+        return s.length;
+    }
+
+    @Override
+    protected SecretKey engineGenerateSecret(String algorithm) throws IllegalStateException, NoSuchAlgorithmException, InvalidKeyException {
+        if (algorithm == null)
+            throw new NoSuchAlgorithmException("null algorithm");
+        return new SecretKeySpec(engineGenerateSecret(), algorithm);
+    }
+
+    private static X25519PrivateKey toPrivateKey(Key key) throws InvalidKeyException {
+        if (key instanceof X25519PrivateKey)
+            return (X25519PrivateKey) key;
+        if (key instanceof PrivateKey && "PKCS#8".equals(key.getFormat())) {
+            try {
+                return new X25519PrivateKey(new PKCS8EncodedKeySpec(key.getEncoded()));
+            } catch (InvalidKeySpecException e) {
+                throw new InvalidKeyException(e);
+            }
+        }
+        throw new InvalidKeyException("cannot identify X25519 private key: " + (key == null ? null : key.getClass()));
+    }
+
+    private static X25519PublicKey toPublicKey(Key key) throws InvalidKeyException {
+        if (key instanceof X25519PublicKey)
+            return (X25519PublicKey) key;
+        if (key instanceof PublicKey && "X.509".equals(key.getFormat())) {
+            try {
+                return new X25519PublicKey(new X509EncodedKeySpec(key.getEncoded()));
+            } catch (InvalidKeySpecException e) {
+                throw new InvalidKeyException(e);
+            }
+        }
+        throw new InvalidKeyException("cannot identify X25519 public key: " + (key == null ? null : key.getClass()));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGeneratorSpi;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ *  Key pair generator for X25519. Key size is 255 (256 is accepted as well).
+ */
+public final class X25519KeyPairGenerator extends KeyPairGeneratorSpi {
+    private SecureRandom random;
+
+    public void initialize(int keysize, SecureRandom random) {
+        if (keysize != 255 && keysize != 256)
+            throw new InvalidParameterException("unknown key type.");
+        this.random = random;
+    }
+
+    /**
+     * @param params null, or an {@link ECGenParameterSpec} naming X25519.
+     */
+    @Override
+    public void initialize(AlgorithmParameterSpec params, SecureRandom random) throws InvalidAlgorithmParameterException {
+        if (params != null && !(params instanceof ECGenParameterSpec &&
+                X25519PublicKey.KEY_ALGORITHM.equalsIgnoreCase(((ECGenParameterSpec) params).getName())))
+            throw new InvalidAlgorithmParameterException("parameter object not an X25519 ECGenParameterSpec");
+        this.random = random;
+    }
+
+    public KeyPair generateKeyPair() {
+        if (random == null)
+            random = new SecureRandom();
+
+        byte[] k = new byte[32];
+        random.nextBytes(k);
+
+        X25519PrivateKey privKey = new X25519PrivateKey(k);
+        return new KeyPair(privKey.getPublicKey(), privKey);
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.PrivateKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+
+import net.i2p.crypto.eddsa.math.ed25519.Ed25519MontgomeryLadder;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+/**
+ * An X25519 private key, a 32 byte scalar which is clamped on use.
+ *<p>
+ * Ref: https://tools.ietf.org/html/rfc7748
+ *</p><p>
+ * Encoding ref: https://tools.ietf.org/html/rfc8410
+ *</p>
+ * @author str4d
+ *
+ */
+public class X25519PrivateKey implements PrivateKey {
+    private static final long serialVersionUID = 8246310572930457186L;
+    private static final EdDSANamedCurveSpec ED_25519_SPEC = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    static final Ed25519MontgomeryLadder LADDER = new Ed25519MontgomeryLadder(ED_25519_SPEC.getCurve(), ED_25519_SPEC.getB());
+    private final byte[] k;
+    private final byte[] u;
+
+    /**
+     * @param k the 32 byte scalar, as given (not clamped).
+     * @throws IllegalArgumentException if k is not 32 bytes.
+     */
+    public X25519PrivateKey(byte[] k) {
+        if (k.length != 32)
+            throw new IllegalArgumentException("scalar length is wrong");
+        this.k = k.clone();
+        this.u = LADDER.scalarMultiplyBase(this.k);
+    }
+
+    /**
+     * For callers which already know the public key, e.g. from the Ed25519
+     * key the scalar was taken from.
+     */
+    X25519PrivateKey(byte[] k, byte[] u) {
+        this.k = k.clone();
+        this.u = u;
+    }
+
+    public X25519PrivateKey(PKCS8EncodedKeySpec spec) throws InvalidKeySpecException {
+        this(decode(spec.getEncoded()));
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return X25519PublicKey.KEY_ALGORITHM;
+    }
+
+    @Override
+    public String getFormat() {
+        return "PKCS#8";
+    }
+
+    /**
+     * Returns the private key in its PKCS#8 v1 encoding, see RFC 8410.
+     *<pre>
+     *  id-X25519    OBJECT IDENTIFIER ::= { 1 3 101 110 }
+     *
+     *  CurvePrivateKey ::= OCTET STRING
+     *</pre>
+     *
+     * @return 48 bytes
+     */
+    @Override
+    public byte[] getEncoded() {
+        int totlen = 16 + k.length;
+        byte[] rv = new byte[totlen];
+        int idx = 0;
+        // sequence
+        rv[idx++] = 0x30;
+        rv[idx++] = (byte) (totlen - 2);
+        // version
+        rv[idx++] = 0x02;
+        rv[idx++] = 1;
+        // v1 - no public key included
+        rv[idx++] = 0;
+        // Algorithm Identifier
+        // sequence
+        rv[idx++] = 0x30;
+        rv[idx++] = 5;
+        // OID
+        rv[idx++] = 0x06;
+        rv[idx++] = 3;
+        rv[idx++] = (1 * 40) + 3;
+        rv[idx++] = 101;
+        rv[idx++] = (byte) X25519PublicKey.OID_X25519;
+        // params - absent
+        // PrivateKey
+        rv[idx++] = 0x04;  // octet string
+        rv[idx++] = (byte) (2 + k.length);
+        // CurvePrivateKey
+        rv[idx++] = 0x04;  // octet string
+        rv[idx++] = (byte) k.length;
+        // the key
+        System.arraycopy(k, 0, rv, idx, k.length);
+        return rv;
+    }
+
+    /**
+     * Extracts the private key bytes from the provided encoding.
+     *<p>
+     * This will decode PKCS#8 v1 data conforming to RFC 8410. As for the
+     * EdDSA keys it does not use a general-purpose ASN.1 decoder.
+     *</p>
+     *
+     * @return 32 bytes
+     */
+    private static byte[] decode(byte[] d) throws InvalidKeySpecException {
+        try {
+            int totlen = 48;
+            if (d.length != totlen)
+                throw new InvalidKeySpecException("invalid key spec length");
+            int idx = 0;
+            if (d[idx++] != 0x30 ||
+                    d[idx++] != (totlen - 2) ||
+                    d[idx++] != 0x02 ||
+                    d[idx++] != 1 ||
+                    d[idx++] != 0 ||
+                    d[idx++] != 0x30 ||
+                    d[idx++] != 5 ||
+                    d[idx++] != 0x06 ||
+                    d[idx++] != 3 ||
+                    d[idx++] != (1 * 40) + 3 ||
+                    d[idx++] != 101 ||
+                    d[idx++] != X25519PublicKey.OID_X25519 ||
+                    d[idx++] != 0x04 ||
+                    d[idx++] != 34 ||
+                    d[idx++] != 0x04 ||
+                    d[idx++] != 32) {
+                throw new InvalidKeySpecException("unsupported key spec");
+            }
+            byte[] rv = new byte[32];
+            System.arraycopy(d, idx, rv, 0, 32);
+            return rv;
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new InvalidKeySpecException(ioobe);
+        }
+    }
+
+    /**
+     * @return a copy of the 32 byte scalar, as given (not clamped).
+     */
+    public byte[] getK() {
+        return k.clone();
+    }
+
+    /**
+     * @return the 32 byte $u$-coordinate of the public key.
+     */
+    public byte[] getU() {
+        return u.clone();
+    }
+
+    /**
+     * @return the matching public key.
+     */
+    public X25519PublicKey getPublicKey() {
+        return new X25519PublicKey(u);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(u);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof X25519PrivateKey))
+            return false;
+        X25519PrivateKey pk = (X25519PrivateKey) o;
+        return Utils.equal(k, pk.k) == 1;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+
+/**
+ * An X25519 public key, the $u$-coordinate of a point on Curve25519.
+ *<p>
+ * Ref: https://tools.ietf.org/html/rfc7748
+ *</p><p>
+ * Encoding ref: https://tools.ietf.org/html/rfc8410
+ *</p>
+ * @author str4d
+ *
+ */
+public class X25519PublicKey implements PublicKey {
+    private static final long serialVersionUID = 3719584626502897641L;
+    /**
+     * The reported key algorithm for X25519 keys
+     */
+    public static final String KEY_ALGORITHM = "X25519";
+    // OID 1.3.101.xxx
+    static final int OID_X25519 = 110;
+    private static final int OID_BYTE = 8;
+    private final byte[] u;
+
+    /**
+     * @param u the 32 byte $u$-coordinate.
+     * @throws IllegalArgumentException if u is not 32 bytes.
+     */
+    public X25519PublicKey(byte[] u) {
+        if (u.length != 32)
+            throw new IllegalArgumentException("u-coordinate length is wrong");
+        this.u = u.clone();
+    }
+
+    public X25519PublicKey(X509EncodedKeySpec spec) throws InvalidKeySpecException {
+        this(decode(spec.getEncoded()));
+    }
+
+    /**
+     * Extracts the public key bytes from the provided encoding.
+     *<p>
+     * This will decode data conforming to RFC 8410. As for the EdDSA keys
+     * it does not use a general-purpose ASN.1 decoder.
+     *</p>
+     *
+     * @return 32 bytes
+     */
+    private static byte[] decode(byte[] d) throws InvalidKeySpecException {
+        try {
+            int totlen = 44;
+            if (d.length != totlen)
+                throw new InvalidKeySpecException("invalid key spec length");
+            int idx = 0;
+            if (d[idx++] != 0x30 ||
+                    d[idx++] != (totlen - 2) ||
+                    d[idx++] != 0x30 ||
+                    d[idx++] != 5 ||
+                    d[idx++] != 0x06 ||
+                    d[idx++] != 3 ||
+                    d[idx++] != (1 * 40) + 3 ||
+                    d[idx++] != 101 ||
+                    d[idx++] != OID_X25519 ||
+                    d[idx++] != 0x03 ||
+                    d[idx++] != 33 ||
+                    d[idx++] != 0) {
+                throw new InvalidKeySpecException("unsupported key spec");
+            }
+            byte[] rv = new byte[32];
+            System.arraycopy(d, idx, rv, 0, 32);
+            return rv;
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new InvalidKeySpecException(ioobe);
+        }
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return KEY_ALGORITHM;
+    }
+
+    @Override
+    public String getFormat() {
+        return "X.509";
+    }
+
+    /**
+     * Returns the public key in its SubjectPublicKeyInfo encoding.
+     *<pre>
+     *  id-X25519    OBJECT IDENTIFIER ::= { 1 3 101 110 }
+     *</pre>
+     *
+     * @return 44 bytes
+     */
+    @Override
+    public byte[] getEncoded() {
+        int totlen = 12 + u.length;
+        byte[] rv = new byte[totlen];
+        int idx = 0;
+        // sequence
+        rv[idx++] = 0x30;
+        rv[idx++] = (byte) (totlen - 2);
+        // Algorithm Identifier
+        // sequence
+        rv[idx++] = 0x30;
+        rv[idx++] = 5;
+        // OID
+        rv[idx++] = 0x06;
+        rv[idx++] = 3;
+        rv[idx++] = (1 * 40) + 3;
+        rv[idx++] = 101;
+        rv[idx++] = (byte) OID_X25519;
+        // params - absent
+        // the key
+        rv[idx++] = 0x03; // bit string
+        rv[idx++] = (byte) (1 + u.length);
+        rv[idx++] = 0; // number of trailing unused bits
+        System.arraycopy(u, 0, rv, idx, u.length);
+        return rv;
+    }
+
+    /**
+     * @return a copy of the 32 byte $u$-coordinate.
+     */
+    public byte[] getU() {
+        return u.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(u);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof X25519PublicKey))
+            return false;
+        X25519PublicKey pk = (X25519PublicKey) o;
+        return Arrays.equals(u, pk.u);
+    }
+}
@@ -61,6 +61,17 @@ public class Curve implements Serializable {
         return I;
     }
 
+    /**
+     * See {@link FieldElement#sqrtRatio(FieldElement, FieldElement)}.
+     *
+     * @param u the numerator.
+     * @param v the denominator.
+     * @return the flag and the non-negative root of $u / v$.
+     */
+    public FieldElement.SqrtRatio sqrtRatio(FieldElement u, FieldElement v) {
+        return u.sqrtRatio(v, I);
+    }
+
     public GroupElement getZero(GroupElement.Representation repr) {
         switch (repr) {
         case P2:
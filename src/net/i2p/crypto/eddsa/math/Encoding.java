@@ -11,13 +11,16 @@
  */
 package net.i2p.crypto.eddsa.math;
 
+import java.io.Serializable;
+
 /**
  * Common interface for all $(b-1)$-bit encodings of elements
  * of EdDSA finite fields.
  * @author str4d
  *
  */
-public abstract class Encoding {
+public abstract class Encoding implements Serializable {
+    private static final long serialVersionUID = 2831509284012938572L;
     protected Field f;
 
     public synchronized void setField(Field f) {
@@ -41,6 +44,48 @@ public abstract class Encoding {
      */
     public abstract FieldElement decode(byte[] in);
 
+    /**
+     * Number of ints used by {@link #pack(FieldElement, int[], int)} for one
+     * field element.
+     * <p>
+     * The default packs the $b$-bit encoding; subclasses whose field
+     * elements are made of int limbs override this and the pack methods to
+     * copy the limbs unchanged.
+     * @return the number of ints per field element.
+     */
+    public int getPackedLength() {
+        return (f.getb() + 31) / 32;
+    }
+
+    /**
+     * Stores a FieldElement in a flat int array, e.g. for precomputed tables.
+     * @param x the FieldElement to store
+     * @param dst the array
+     * @param off where to put the first of {@link #getPackedLength()} ints
+     */
+    public void pack(FieldElement x, int[] dst, int off) {
+        final byte[] b = encode(x);
+        for (int i = 0; i < getPackedLength(); i++) {
+            int v = 0;
+            for (int j = 4 * i; j < 4 * i + 4 && j < b.length; j++)
+                v |= (b[j] & 0xff) << (8 * (j & 3));
+            dst[off + i] = v;
+        }
+    }
+
+    /**
+     * Loads a FieldElement stored by {@link #pack(FieldElement, int[], int)}.
+     * @param src the array
+     * @param off where the first of {@link #getPackedLength()} ints is
+     * @return the FieldElement
+     */
+    public FieldElement unpack(int[] src, int off) {
+        final byte[] b = new byte[f.getb() / 8];
+        for (int i = 0; i < b.length; i++)
+            b[i] = (byte) (src[off + (i >> 2)] >> (8 * (i & 3)));
+        return decode(b);
+    }
+
     /**
      * From the Ed25519 paper:<br>
      * $x$ is negative if the $(b-1)$-bit encoding of $x$ is lexicographically larger
@@ -80,6 +80,41 @@ public class Field implements Serializable {
         return qm5d8;
     }
 
+    /**
+     * Inverts all given field elements with a single field inversion
+     * (Montgomery's trick), at the cost of three multiplications per element.
+     * <p>
+     * As for {@link FieldElement#invert()}, zero is mapped to zero; a zero in
+     * the input does not affect the other results.
+     *
+     * @param in the field elements to invert.
+     * @return a new array with the inverses, in the same order.
+     */
+    public FieldElement[] batchInvert(FieldElement[] in) {
+        final int n = in.length;
+        final FieldElement[] out = new FieldElement[n];
+        final FieldElement[] x = new FieldElement[n];
+        final int[] nonZero = new int[n];
+
+        // out[i] = x[0] * ... * x[i-1], with zeroes replaced by one
+        FieldElement acc = ONE;
+        for (int i = 0; i < n; i++) {
+            nonZero[i] = in[i].isNonZero() ? 1 : 0;
+            x[i] = ONE.cmov(in[i], nonZero[i]);
+            out[i] = acc;
+            acc = acc.multiply(x[i]);
+        }
+
+        // acc = 1 / (x[0] * ... * x[n-1])
+        acc = acc.invert();
+        for (int i = n - 1; i >= 0; i--) {
+            final FieldElement inv = acc.multiply(out[i]);
+            acc = acc.multiply(x[i]);
+            out[i] = ZERO.cmov(inv, nonZero[i]);
+        }
+        return out;
+    }
+
     public Encoding getEncoding(){
         return enc;
     }
@@ -38,6 +38,15 @@ public abstract class FieldElement implements Serializable {
 
     public abstract boolean isNonZero();
 
+    /**
+     * Constant time in subclasses that can manage it.
+     *
+     * @return 1 if this is zero, 0 otherwise.
+     */
+    public int isZero() {
+        return isNonZero() ? 0 : 1;
+    }
+
     public boolean isNegative() {
         return f.getEncoding().isNegative(this);
     }
@@ -62,6 +71,20 @@ public abstract class FieldElement implements Serializable {
 
     public abstract FieldElement multiply(FieldElement val);
 
+    /**
+     * Multiplies by a field element stored by
+     * {@link Encoding#pack(FieldElement, int[], int)}, e.g. an entry of a
+     * precomputed table. The default unpacks it first; encodings which pack
+     * the limbs unchanged can read them in place.
+     *
+     * @param src the array
+     * @param off where the first of {@link Encoding#getPackedLength()} ints is
+     * @return this * the stored field element
+     */
+    public FieldElement multiplyPacked(int[] src, int off) {
+        return multiply(f.getEncoding().unpack(src, off));
+    }
+
     public abstract FieldElement square();
 
     public abstract FieldElement squareAndDouble();
@@ -72,5 +95,67 @@ public abstract class FieldElement implements Serializable {
 
     public abstract FieldElement cmov(FieldElement val, final int b);
 
+    /**
+     * Result of {@link FieldElement#sqrtRatio(FieldElement, FieldElement)}.
+     */
+    public static final class SqrtRatio {
+        private final int wasSquare;
+        private final FieldElement root;
+
+        SqrtRatio(int wasSquare, FieldElement root) {
+            this.wasSquare = wasSquare;
+            this.root = root;
+        }
+
+        /**
+         * @return 1 if $u / v$ is square, 0 otherwise.
+         */
+        public int wasSquare() {
+            return wasSquare;
+        }
+
+        /**
+         * @return the non-negative root.
+         */
+        public FieldElement getRoot() {
+            return root;
+        }
+    }
+
+    /**
+     * Computes the non-negative square root of $u / v$, with $u$ this, using
+     * a single exponentiation and no inversion, RFC 9496 section 4.2. The
+     * field must have $q \equiv 5 \pmod 8$.
+     * <ul>
+     * <li>if $u / v$ is square, returns its root with wasSquare = 1;
+     * <li>if $u = 0$, returns 0 with wasSquare = 1;
+     * <li>if $v = 0$ and $u \ne 0$, returns 0 with wasSquare = 0;
+     * <li>otherwise returns $\sqrt{i u / v}$ with wasSquare = 0.
+     * </ul>
+     * Constant time in subclasses whose arithmetic, {@link #isZero()} and
+     * {@link #cmov(FieldElement, int)} are. Use
+     * {@link Curve#sqrtRatio(FieldElement, FieldElement)}, which supplies $i$.
+     *
+     * @param v the denominator.
+     * @param i $\sqrt{-1}$.
+     * @return the flag and the root.
+     */
+    public SqrtRatio sqrtRatio(FieldElement v, FieldElement i) {
+        final FieldElement u = this;
+        final FieldElement v3 = v.square().multiply(v);
+        final FieldElement v7 = v3.square().multiply(v);
+        // r = (u v^3) (u v^7)^((q-5)/8), so that v r^2 is one of u, -u, iu, -iu
+        FieldElement r = u.multiply(v3).multiply(u.multiply(v7).pow22523());
+        final FieldElement check = v.multiply(r.square());
+
+        final int correctSignSqrt = check.subtract(u).isZero();
+        final int flippedSignSqrt = check.add(u).isZero();
+        final int flippedSignSqrtI = check.add(u.multiply(i)).isZero();
+
+        r = r.cmov(r.multiply(i), flippedSignSqrt | flippedSignSqrtI);
+        r = r.cmov(r.negate(), r.isNegative() ? 1 : 0);
+        return new SqrtRatio(correctSignSqrt | flippedSignSqrt, r);
+    }
+
     // Note: concrete subclasses must implement hashCode() and equals()
 }
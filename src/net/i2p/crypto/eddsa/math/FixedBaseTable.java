@@ -0,0 +1,273 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fixed-base comb table for an arbitrary generator $P$.
+ * <p>
+ * This is the same table the base point carries in
+ * {@link GroupElement#precmp}, but it can be built for any point, e.g. a
+ * second Pedersen generator or a protocol-specific point. Once built,
+ * {@link #scalarMultiply(byte[])} computes $a P$ in constant time at the
+ * same cost as a multiplication by the base point.
+ * <p>
+ * Building a table costs roughly as much as 256 point additions and
+ * inversions, so tables obtained through {@link #getInstance(GroupElement)}
+ * are cached. Tables can also be stored in a compact form (affine $x$ and
+ * $y$ for each entry, 16 KiB in total) with {@link #toByteArray()} and
+ * loaded again without any inversions with
+ * {@link #fromByteArray(Curve, byte[])}.
+ *
+ * @author str4d
+ *
+ */
+public final class FixedBaseTable implements Serializable {
+    private static final long serialVersionUID = 4817245120785736910L;
+
+    /**
+     * Number of rows in the table, one per pair of radix-16 digits.
+     */
+    static final int ROWS = 32;
+
+    /**
+     * Number of entries per row, the multiples $1 P,\dots,8 P$.
+     */
+    static final int COLS = 8;
+
+    /**
+     * Maximum number of tables kept by {@link #getInstance(GroupElement)}.
+     */
+    static final int CACHE_SIZE = 16;
+
+    private static final Map<Key, FixedBaseTable> CACHE = new LinkedHashMap<Key, FixedBaseTable>(CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, FixedBaseTable> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final Curve curve;
+    private final GroupElement P;
+    final PrecomputedTable precmp;
+
+    private FixedBaseTable(Curve curve, GroupElement P, PrecomputedTable precmp) {
+        this.curve = curve;
+        this.P = P;
+        this.precmp = precmp;
+    }
+
+    /**
+     * Returns the fixed-base table for the given point, building it if it is
+     * not already cached.
+     * <p>
+     * If the point already carries a precomputed table (as the base point of
+     * a named curve does) that table is reused.
+     *
+     * @param P the generator, in any representation.
+     * @return the table for $P$.
+     */
+    public static FixedBaseTable getInstance(GroupElement P) {
+        final byte[] enc = P.toByteArray();
+        final Key key = new Key(P.curve, enc);
+        synchronized (CACHE) {
+            final FixedBaseTable cached = CACHE.get(key);
+            if (cached != null)
+                return cached;
+        }
+
+        // Built outside the lock, a concurrent caller may do the same work
+        // but both get equivalent tables.
+        // Not every representation converts to P3, go through the encoding.
+        final GroupElement p3 = P.repr == GroupElement.Representation.P3 ? P : P.curve.createPoint(enc, false);
+        final PrecomputedTable precmp = P.precmp != null ? P.precmp : p3.precomputeSingle();
+        final FixedBaseTable table = new FixedBaseTable(P.curve, p3, precmp);
+        synchronized (CACHE) {
+            final FixedBaseTable cached = CACHE.get(key);
+            if (cached != null)
+                return cached;
+            CACHE.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * @return the curve the generator lies on.
+     */
+    public Curve getCurve() {
+        return curve;
+    }
+
+    /**
+     * @return the generator $P$ in P3 representation.
+     */
+    public GroupElement getBasePoint() {
+        return P;
+    }
+
+    /**
+     * $h = a * P$ where $a = a[0]+256*a[1]+\dots+256^{31} a[31]$ and
+     * $P$ is the generator of this table.
+     * <p>
+     * Constant time.
+     * <p>
+     * Preconditions:
+     *   $a[31] \le 127$
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
+     * @return the GroupElement in P3 representation.
+     */
+    public GroupElement scalarMultiply(byte[] a) {
+        return GroupElement.scalarMultiply(precmp, a);
+    }
+
+    /**
+     * Encodes the table in its compact form: for every entry the affine
+     * coordinates $x$ and $y$, each as a field element encoding.
+     *
+     * @return the compact form, $2 \cdot 256$ field element encodings.
+     */
+    public byte[] toByteArray() {
+        final Field f = curve.getField();
+        final int b = f.getb() / 8;
+        final FieldElement half = f.TWO.invert();
+        final byte[] out = new byte[ROWS * COLS * 2 * b];
+        int off = 0;
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < COLS; j++) {
+                final GroupElement e = precmp.get(i, j);
+                // X = y+x, Y = y-x
+                final FieldElement x = e.X.subtract(e.Y).multiply(half);
+                final FieldElement y = e.X.add(e.Y).multiply(half);
+                System.arraycopy(x.toByteArray(), 0, out, off, b);
+                System.arraycopy(y.toByteArray(), 0, out, off + b, b);
+                off += 2 * b;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Loads a table from the compact form written by {@link #toByteArray()}.
+     * <p>
+     * Every entry is checked to lie on the curve, but the table is not
+     * recomputed, so it should come from a trusted source. The loaded table
+     * is not added to the cache used by {@link #getInstance(GroupElement)}.
+     *
+     * @param curve the curve the table was built on.
+     * @param in the compact form.
+     * @return the table.
+     * @throws IllegalArgumentException if the length is wrong or an entry is
+     * not a point on the curve.
+     */
+    public static FixedBaseTable fromByteArray(Curve curve, byte[] in) {
+        final Field f = curve.getField();
+        final int b = f.getb() / 8;
+        if (in.length != ROWS * COLS * 2 * b)
+            throw new IllegalArgumentException("Invalid table length " + in.length);
+
+        final GroupElement[][] precmp = new GroupElement[ROWS][COLS];
+        final byte[] buf = new byte[b];
+        int off = 0;
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < COLS; j++) {
+                System.arraycopy(in, off, buf, 0, b);
+                final FieldElement x = f.fromByteArray(buf);
+                System.arraycopy(in, off + b, buf, 0, b);
+                final FieldElement y = f.fromByteArray(buf);
+                off += 2 * b;
+
+                // -x^2 + y^2 = 1 + d x^2 y^2
+                final FieldElement xx = x.square();
+                final FieldElement yy = y.square();
+                if (!f.ONE.add(curve.getD().multiply(xx).multiply(yy)).add(xx).equals(yy))
+                    throw new IllegalArgumentException("Table entry " + (i * COLS + j) + " is not on the curve");
+
+                precmp[i][j] = GroupElement.precomp(curve, y.add(x), y.subtract(x), x.multiply(y).multiply(curve.get2D()));
+            }
+        }
+
+        // The first entry is 16^0 * 1 * P
+        System.arraycopy(in, 0, buf, 0, b);
+        final FieldElement x = f.fromByteArray(buf);
+        System.arraycopy(in, b, buf, 0, b);
+        final FieldElement y = f.fromByteArray(buf);
+        final GroupElement P = GroupElement.p3(curve, x, y, f.ONE, x.multiply(y), false);
+        return new FixedBaseTable(curve, P, new PrecomputedTable(curve, precmp));
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return new SerializationProxy(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Proxy required");
+    }
+
+    /**
+     * Serialized form of a {@link FixedBaseTable}: the curve and the compact
+     * table encoding.
+     */
+    private static final class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = 2206157297836150137L;
+
+        private final Curve curve;
+        private final byte[] table;
+
+        SerializationProxy(FixedBaseTable t) {
+            this.curve = t.curve;
+            this.table = t.toByteArray();
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            try {
+                return fromByteArray(curve, table);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cache key: the curve and the encoding of the generator.
+     */
+    private static final class Key {
+        private final Curve curve;
+        private final byte[] enc;
+
+        Key(Curve curve, byte[] enc) {
+            this.curve = curve;
+            this.enc = enc;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(enc);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return curve.equals(k.curve) && Arrays.equals(enc, k.enc);
+        }
+    }
+}
@@ -189,7 +189,7 @@ public class GroupElement implements Serializable {
      * <p>
      * Variable is package private only so that tests run.
      */
-    final GroupElement[][] precmp;
+    final PrecomputedTable precmp;
 
     /**
      * Precomputed table for {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])},
@@ -197,7 +197,7 @@ public class GroupElement implements Serializable {
      * <p>
      * Variable is package private only so that tests run.
      */
-    final GroupElement[] dblPrecmp;
+    final PrecomputedTable dblPrecmp;
 
     /**
      * Creates a group element for a curve.
@@ -228,6 +228,22 @@ public class GroupElement implements Serializable {
         this.dblPrecmp = precomputeDouble ? precomputeDouble() : null;
     }
 
+    /**
+     * Creates a group element in P3 representation with a given dblPrecmp.
+     */
+    private GroupElement(
+            final GroupElement p,
+            final PrecomputedTable dblPrecmp) {
+        this.curve = p.curve;
+        this.repr = Representation.P3;
+        this.X = p.X;
+        this.Y = p.Y;
+        this.Z = p.Z;
+        this.T = p.T;
+        this.precmp = null;
+        this.dblPrecmp = dblPrecmp;
+    }
+
     /**
      * Creates a group element for a curve from a given encoded point.
      * <p>
@@ -259,7 +275,8 @@ public class GroupElement implements Serializable {
      * <li>If $v * β = -u$ multiply $β$ with $i=\sqrt{-1}$.
      * <li>Set $x := β$.
      * <li>If $sign(x) \ne$ bit 255 of $s$ then negate $x$.
-     * </ul>
+     * </ul><p>
+     * The first three steps are {@link Curve#sqrtRatio(FieldElement, FieldElement)}.
      *
      * @param curve The curve.
      * @param s The encoded point.
@@ -267,7 +284,7 @@ public class GroupElement implements Serializable {
      */
     // TODO
     public GroupElement(final Curve curve, final byte[] s, boolean precomputeSingleAndDouble) {
-        FieldElement x, y, yy, u, v, v3, vxx, check;
+        FieldElement x, y, yy, u, v;
         y = curve.getField().fromByteArray(s);
         yy = y.square();
 
@@ -277,27 +294,11 @@ public class GroupElement implements Serializable {
         // v = dy^2+1
         v = yy.multiply(curve.getD()).addOne();
 
-        // v3 = v^3
-        v3 = v.square().multiply(v);
-
-        // x = (v3^2)vu, aka x = uv^7
-        x = v3.square().multiply(v).multiply(u);
-
-        //  x = (uv^7)^((q-5)/8)
-        x = x.pow22523();
-
-        // x = uv^3(uv^7)^((q-5)/8)
-        x = v3.multiply(u).multiply(x);
-
-        vxx = x.square().multiply(v);
-        check = vxx.subtract(u);            // vx^2-u
-        if (check.isNonZero()) {
-            check = vxx.add(u);             // vx^2+u
-
-            if (check.isNonZero())
-                throw new IllegalArgumentException("not a valid GroupElement");
-            x = x.multiply(curve.getI());
-        }
+        // x = sqrt(u/v), with the checks of vx^2 = +-u done on the limbs
+        final FieldElement.SqrtRatio sr = curve.sqrtRatio(u, v);
+        if (sr.wasSquare() == 0)
+            throw new IllegalArgumentException("not a valid GroupElement");
+        x = sr.getRoot();
 
         if ((x.isNegative() ? 1 : 0) != Utils.bit(s, curve.getField().getb()-1)) {
             x = x.negate();
@@ -396,6 +397,35 @@ public class GroupElement implements Serializable {
         }
     }
 
+    /**
+     * Encodes several group elements with a single field inversion shared
+     * by all of them, see {@link Field#batchInvert(FieldElement[])}.
+     *
+     * @param points the group elements, all on the same curve.
+     * @return the encoded points, in the same order.
+     */
+    public static byte[][] toByteArrays(final GroupElement[] points) {
+        final byte[][] out = new byte[points.length][];
+        if (points.length == 0)
+            return out;
+        final GroupElement[] p2 = new GroupElement[points.length];
+        final FieldElement[] z = new FieldElement[points.length];
+        for (int i = 0; i < points.length; i++) {
+            p2[i] = points[i].repr == Representation.P2 || points[i].repr == Representation.P3
+                    ? points[i] : points[i].toP2();
+            z[i] = p2[i].Z;
+        }
+        final FieldElement[] recip = points[0].curve.getField().batchInvert(z);
+        for (int i = 0; i < points.length; i++) {
+            final FieldElement x = p2[i].X.multiply(recip[i]);
+            final FieldElement y = p2[i].Y.multiply(recip[i]);
+            final byte[] s = y.toByteArray();
+            s[s.length-1] |= (x.isNegative() ? (byte) 0x80 : 0);
+            out[i] = s;
+        }
+        return out;
+    }
+
     /**
      * Converts the group element to the P2 representation.
      *
@@ -501,11 +531,18 @@ public class GroupElement implements Serializable {
 
     /**
      * Precomputes table for {@link #scalarMultiply(byte[])}.
+     * <p>
+     * The table holds $16^{2i} j P$ for $i = 0,\dots,31$ and $j = 1,\dots,8$,
+     * where $P$ is this point. Nothing in it depends on $P$ being the base
+     * point, so it can be built for any fixed generator.
+     * <p>
+     * Method is package private for {@link FixedBaseTable}.
+     *
+     * @return the precomputed table.
      */
-    private GroupElement[][] precomputeSingle() {
+    PrecomputedTable precomputeSingle() {
         // Precomputation for single scalar multiplication.
         GroupElement[][] precmp = new GroupElement[32][8];
-        // TODO-CR BR: check that this == base point when the method is called.
         GroupElement Bi = this;
         for (int i = 0; i < 32; i++) {
             GroupElement Bij = Bi;
@@ -521,13 +558,13 @@ public class GroupElement implements Serializable {
                 Bi = Bi.add(Bi.toCached()).toP3();
             }
         }
-        return precmp;
+        return new PrecomputedTable(this.curve, precmp);
     }
 
     /**
      * Precomputes table for {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])}.
      */
-    private GroupElement[] precomputeDouble() {
+    private PrecomputedTable precomputeDouble() {
         // Precomputation for double scalar multiplication.
         // P,3P,5P,7P,9P,11P,13P,15P
         GroupElement[] dblPrecmp = new GroupElement[8];
@@ -540,7 +577,52 @@ public class GroupElement implements Serializable {
             // Bi = edwards(B,edwards(B,Bi))
             Bi = this.add(this.add(Bi.toCached()).toP3().toCached()).toP3();
         }
-        return dblPrecmp;
+        return new PrecomputedTable(this.curve, new GroupElement[][] { dblPrecmp });
+    }
+
+    /**
+     * Negates several group elements as {@link #negate()} does, with
+     * dblPrecmp populated. Building each table takes eight field
+     * inversions; here they are all shared, see
+     * {@link Field#batchInvert(FieldElement[])}.
+     *
+     * @param points the group elements, all in P3 representation and on the same curve.
+     * @return the negated group elements, in the same order.
+     */
+    public static GroupElement[] negateAll(final GroupElement[] points) {
+        final int n = points.length;
+        final GroupElement[] out = new GroupElement[n];
+        if (n == 0)
+            return out;
+        final Curve curve = points[0].curve;
+        // P,3P,5P,7P,9P,11P,13P,15P for each negated point P
+        final GroupElement[] multiples = new GroupElement[8 * n];
+        final FieldElement[] z = new FieldElement[8 * n];
+        for (int i = 0; i < n; i++) {
+            if (points[i].repr != Representation.P3)
+                throw new UnsupportedOperationException();
+            final GroupElement p = curve.getZero(Representation.P3).sub(points[i].toCached()).toP3();
+            out[i] = p;
+            GroupElement Bi = p;
+            for (int k = 0; k < 8; k++) {
+                multiples[8 * i + k] = Bi;
+                z[8 * i + k] = Bi.Z;
+                if (k < 7)
+                    Bi = p.add(p.add(Bi.toCached()).toP3().toCached()).toP3();
+            }
+        }
+        final FieldElement[] recip = curve.getField().batchInvert(z);
+        for (int i = 0; i < n; i++) {
+            final GroupElement[] row = new GroupElement[8];
+            for (int k = 0; k < 8; k++) {
+                final GroupElement Bi = multiples[8 * i + k];
+                final FieldElement x = Bi.X.multiply(recip[8 * i + k]);
+                final FieldElement y = Bi.Y.multiply(recip[8 * i + k]);
+                row[k] = precomp(curve, y.add(x), y.subtract(x), x.multiply(y).multiply(curve.get2D()));
+            }
+            out[i] = new GroupElement(out[i], new PrecomputedTable(curve, new GroupElement[][] { row }));
+        }
+        return out;
     }
 
     /**
@@ -580,6 +662,10 @@ public class GroupElement implements Serializable {
         switch (this.repr) {
         case P2:
         case P3: // Ignore T for P3 representation
+            // Limb bounds for Ed25519FieldElement: inputs and squares are
+            // reduced ($1.01*2^{25}$), every output below is a sum of at most
+            // three reduced values and so a valid multiplication input for
+            // toP2()/toP3() without carrying.
             FieldElement XX, YY, B, A, AA, Yn, Zn;
             XX = this.X.square();
             YY = this.Y.square();
@@ -636,10 +722,13 @@ public class GroupElement implements Serializable {
      * T3 = E * H = (B - A) * (B + A);
      * $$
      *
+     * <p>
+     * Method is package private only so that tests run.
+     *
      * @param q the PRECOMP representation of the GroupElement to add.
      * @return the P1P1 representation of the result.
      */
-    private GroupElement madd(GroupElement q) {
+    GroupElement madd(GroupElement q) {
         if (this.repr != Representation.P3)
             throw new UnsupportedOperationException();
         if (q.repr != Representation.PRECOMP)
@@ -652,6 +741,8 @@ public class GroupElement implements Serializable {
         B = YmX.multiply(q.Y); // q->y-x
         C = q.Z.multiply(this.T); // q->2dxy
         D = this.Z.add(this.Z);
+        // Sums of at most three reduced values, no carries needed before
+        // the multiplications in toP2()/toP3(), see dbl().
         return p1p1(this.curve, A.subtract(B), A.add(B), D.add(C), D.subtract(C));
     }
 
@@ -665,10 +756,13 @@ public class GroupElement implements Serializable {
      * Negating $q$ means negating the value of $X2$ and $T2$ (the latter is irrelevant here).
      * The formula is in accordance to {@link #madd the above addition}.
      *
+     * <p>
+     * Method is package private only so that tests run.
+     *
      * @param q the PRECOMP representation of the GroupElement to subtract.
      * @return the P1P1 representation of the result.
      */
-    private GroupElement msub(GroupElement q) {
+    GroupElement msub(GroupElement q) {
         if (this.repr != Representation.P3)
             throw new UnsupportedOperationException();
         if (q.repr != Representation.PRECOMP)
@@ -684,6 +778,40 @@ public class GroupElement implements Serializable {
         return p1p1(this.curve, A.subtract(B), A.add(B), D.subtract(C), D.add(C));
     }
 
+    /**
+     * As {@link #madd(GroupElement)} and {@link #msub(GroupElement)}, with
+     * $q$ an entry of a precomputed table. The entry is read from the limbs
+     * of the table, see {@link FieldElement#multiplyPacked(int[], int)},
+     * instead of being unpacked into a new GroupElement.
+     * <p>
+     * Variable time, only for public indices.
+     *
+     * @param table the table.
+     * @param row the row of $q$.
+     * @param col the column of $q$.
+     * @param negate true to subtract $q$.
+     * @return the P1P1 representation of the result.
+     */
+    GroupElement madd(final PrecomputedTable table, final int row, final int col, final boolean negate) {
+        if (this.repr != Representation.P3)
+            throw new UnsupportedOperationException();
+
+        final int[] q = table.getTable();
+        final int off = table.getOffset(row, col);
+        final int limbs = table.getLimbs();
+        FieldElement YpX, YmX, A, B, C, D;
+        YpX = this.Y.add(this.X);
+        YmX = this.Y.subtract(this.X);
+        // -q = (y-x, y+x, -2dxy)
+        A = YpX.multiplyPacked(q, negate ? off + limbs : off);
+        B = YmX.multiplyPacked(q, negate ? off : off + limbs);
+        C = this.T.multiplyPacked(q, off + 2 * limbs); // q->2dxy
+        D = this.Z.add(this.Z);
+        if (negate)
+            return p1p1(this.curve, A.subtract(B), A.add(B), D.subtract(C), D.add(C));
+        return p1p1(this.curve, A.subtract(B), A.add(B), D.add(C), D.subtract(C));
+    }
+
     /**
      * GroupElement addition using the twisted Edwards addition law with
      * extended coordinates (Hisil2008).
@@ -724,6 +852,7 @@ public class GroupElement implements Serializable {
         C = q.T.multiply(this.T); // q->2dT
         ZZ = this.Z.multiply(q.Z);
         D = ZZ.add(ZZ);
+        // Sums of at most three reduced values, see dbl().
         return p1p1(this.curve, A.subtract(B), A.add(B), D.add(C), D.subtract(C));
     }
 
@@ -829,27 +958,10 @@ public class GroupElement implements Serializable {
      *
      * @param a $= a[0]+256*a[1]+...+256^{31} a[31]$
      * @return 64 bytes, each between -8 and 7
+     * @see ScalarRecoding#toRadix16(byte[], byte[])
      */
     static byte[] toRadix16(final byte[] a) {
-        final byte[] e = new byte[64];
-        int i;
-        // Radix 16 notation
-        for (i = 0; i < 32; i++) {
-            e[2*i+0] = (byte) (a[i] & 15);
-            e[2*i+1] = (byte) ((a[i] >> 4) & 15);
-        }
-        /* each e[i] is between 0 and 15 */
-        /* e[63] is between 0 and 7 */
-        int carry = 0;
-        for (i = 0; i < 63; i++) {
-            e[i] += carry;
-            carry = e[i] + 8;
-            carry >>= 4;
-            e[i] -= carry << 4;
-        }
-        e[63] += carry;
-        /* each e[i] is between -8 and 7 */
-        return e;
+        return ScalarRecoding.toRadix16(a, new byte[64]);
     }
 
     /**
@@ -883,25 +995,7 @@ public class GroupElement implements Serializable {
      * @return the GroupElement
      */
     GroupElement select(final int pos, final int b) {
-        // Is r_i negative?
-        final int bnegative = Utils.negative(b);
-        // |r_i|
-        final int babs = b - (((-bnegative) & b) << 1);
-
-        // 16^i |r_i| B
-        final GroupElement t = this.curve.getZero(Representation.PRECOMP)
-                .cmov(this.precmp[pos][0], Utils.equal(babs, 1))
-                .cmov(this.precmp[pos][1], Utils.equal(babs, 2))
-                .cmov(this.precmp[pos][2], Utils.equal(babs, 3))
-                .cmov(this.precmp[pos][3], Utils.equal(babs, 4))
-                .cmov(this.precmp[pos][4], Utils.equal(babs, 5))
-                .cmov(this.precmp[pos][5], Utils.equal(babs, 6))
-                .cmov(this.precmp[pos][6], Utils.equal(babs, 7))
-                .cmov(this.precmp[pos][7], Utils.equal(babs, 8));
-        // -16^i |r_i| B
-        final GroupElement tminus = precomp(curve, t.Y, t.X, t.Z.negate());
-        // 16^i r_i B
-        return t.cmov(tminus, bnegative);
+        return this.precmp.select(pos, b);
     }
 
     /**
@@ -914,23 +1008,38 @@ public class GroupElement implements Serializable {
      *   $a[31] \le 127$
      * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
      * @return the GroupElement
+     * @see FixedBaseTable
      */
     public GroupElement scalarMultiply(final byte[] a) {
+        return scalarMultiply(this.precmp, a);
+    }
+
+    /**
+     * $h = a * P$ where $P$ is the point the given table was built for.
+     * Constant time.
+     *
+     * @param precmp a table built by {@link #precomputeSingle()}.
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
+     * @return the GroupElement
+     */
+    static GroupElement scalarMultiply(final PrecomputedTable precmp, final byte[] a) {
         GroupElement t;
         int i;
 
         final byte[] e = toRadix16(a);
 
-        GroupElement h = this.curve.getZero(Representation.P3);
+        final int[] acc = precmp.newAccumulator();
+
+        GroupElement h = precmp.getCurve().getZero(Representation.P3);
         for (i = 1; i < 64; i += 2) {
-            t = select(i/2, e[i]);
+            t = precmp.select(i/2, e[i], acc);
             h = h.madd(t).toP3();
         }
 
         h = h.dbl().toP2().dbl().toP2().dbl().toP2().dbl().toP3();
 
         for (i = 0; i < 64; i += 2) {
-            t = select(i/2, e[i]);
+            t = precmp.select(i/2, e[i], acc);
             h = h.madd(t).toP3();
         }
 
@@ -938,51 +1047,69 @@ public class GroupElement implements Serializable {
     }
 
     /**
-     * Calculates a sliding-windows base 2 representation for a given value $a$.
-     * To learn more about it see [6] page 8.
+     * $h = a * P$ where $P$ is this point, which does not need a precomputed
+     * table.
      * <p>
-     * Output: $r$ which satisfies
-     * $a = r0 * 2^0 + r1 * 2^1 + \dots + r255 * 2^{255}$ with $ri$ in $\{-15, -13, -11, -9, -7, -5, -3, -1, 0, 1, 3, 5, 7, 9, 11, 13, 15\}$
+     * Uses a table of $P, 2P, \dots, 8P$ built on the fly and signed
+     * radix-16 digits of $a$, so the cost is 252 doublings and 64 additions.
+     * For a point that is multiplied many times, {@link FixedBaseTable} is
+     * faster.
      * <p>
-     * Method is package private only so that tests run.
-     *
-     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$.
-     * @return The byte array $r$ in the above described form.
+     * Constant time.
+     * <p>
+     * Preconditions:
+     *   $a[31] \le 127$, this in P3 representation.
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
+     * @return the GroupElement in P3 representation.
      */
-    static byte[] slide(final byte[] a) {
-        byte[] r = new byte[256];
-
-        // Put each bit of 'a' into a separate byte, 0 or 1
-        for (int i = 0; i < 256; ++i) {
-            r[i] = (byte) (1 & (a[i >> 3] >> (i & 7)));
+    public GroupElement scalarMultiplyVariableBase(final byte[] a) {
+        final GroupElement p = this.toP3();
+        final GroupElement[] pc = new GroupElement[8];
+        pc[0] = p.toCached();
+        for (int i = 1; i < 8; i++) {
+            pc[i] = p.add(pc[i - 1]).toP3().toCached();
         }
 
-        // Note: r[i] will always be odd.
-        for (int i = 0; i < 256; ++i) {
-            if (r[i] != 0) {
-                for (int b = 1; b <= 6 && i + b < 256; ++b) {
-                    // Accumulate bits if possible
-                    if (r[i + b] != 0) {
-                        if (r[i] + (r[i + b] << b) <= 15) {
-                            r[i] += r[i + b] << b;
-                            r[i + b] = 0;
-                        } else if (r[i] - (r[i + b] << b) >= -15) {
-                            r[i] -= r[i + b] << b;
-                            for (int k = i + b; k < 256; ++k) {
-                                if (r[k] == 0) {
-                                    r[k] = 1;
-                                    break;
-                                }
-                                r[k] = 0;
-                            }
-                        } else
-                            break;
-                    }
-                }
-            }
+        final byte[] e = toRadix16(a);
+
+        GroupElement h = this.curve.getZero(Representation.P3);
+        h = h.add(selectCached(pc, e[63])).toP3();
+        for (int i = 62; i >= 0; i--) {
+            h = h.dbl().toP2().dbl().toP2().dbl().toP2().dbl().toP3();
+            h = h.add(selectCached(pc, e[i])).toP3();
         }
+        return h;
+    }
 
-        return r;
+    /**
+     * Look up $b P$ in a table of cached multiples $P, \dots, 8P$.
+     * <p>
+     * No secret array indices, no secret branching.
+     * Constant time.
+     *
+     * @param pc the table, in CACHED representation.
+     * @param b in $\{-8, \dots, 8\}$
+     * @return $b P$ in CACHED representation.
+     */
+    private GroupElement selectCached(final GroupElement[] pc, final int b) {
+        final int bnegative = Utils.negative(b);
+        final int babs = b - (((-bnegative) & b) << 1);
+
+        final Field f = this.curve.getField();
+        FieldElement ypx = f.ONE;
+        FieldElement ymx = f.ONE;
+        FieldElement z = f.ONE;
+        FieldElement t2d = f.ZERO;
+        for (int i = 0; i < 8; i++) {
+            final int c = Utils.equal(babs, i + 1);
+            ypx = ypx.cmov(pc[i].X, c);
+            ymx = ymx.cmov(pc[i].Y, c);
+            z = z.cmov(pc[i].Z, c);
+            t2d = t2d.cmov(pc[i].T, c);
+        }
+        // -P = (Y - X, Y + X, Z, -2dT)
+        return cached(this.curve, ypx.cmov(ymx, bnegative), ymx.cmov(ypx, bnegative), z,
+                t2d.cmov(t2d.negate(), bnegative));
     }
 
     /**
@@ -997,30 +1124,42 @@ public class GroupElement implements Serializable {
      * @return the GroupElement
      */
     public GroupElement doubleScalarMultiplyVariableTime(final GroupElement A, final byte[] a, final byte[] b) {
+        return doubleScalarMultiplyVariableTime(A, a, b, new byte[256], new byte[256]);
+    }
+
+    /**
+     * As {@link #doubleScalarMultiplyVariableTime(GroupElement, byte[], byte[])},
+     * recoding the scalars into caller-provided buffers so that callers
+     * which verify repeatedly, such as an EdDSAEngine, allocate them once.
+     *
+     * @param A in P3 representation.
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
+     * @param b $= b[0]+256*b[1]+\dots+256^{31} b[31]$
+     * @param aslide at least 256 bytes, overwritten with the wNAF of a.
+     * @param bslide at least 256 bytes, overwritten with the wNAF of b.
+     * @return the GroupElement
+     */
+    public GroupElement doubleScalarMultiplyVariableTime(final GroupElement A, final byte[] a, final byte[] b,
+                                                         final byte[] aslide, final byte[] bslide) {
         // TODO-CR BR: A check that this is the base point is needed.
-        final byte[] aslide = slide(a);
-        final byte[] bslide = slide(b);
+        final int atop = ScalarRecoding.wnaf(a, 5, aslide);
+        final int btop = ScalarRecoding.wnaf(b, 5, bslide);
 
         GroupElement r = this.curve.getZero(Representation.P2);
 
-        int i;
-        for (i = 255; i >= 0; --i) {
-            if (aslide[i] != 0 || bslide[i] != 0) break;
-        }
-
-        for (; i >= 0; --i) {
+        for (int i = Math.max(atop, btop) - 1; i >= 0; --i) {
             GroupElement t = r.dbl();
 
                 if (aslide[i] > 0) {
-                    t = t.toP3().madd(A.dblPrecmp[aslide[i]/2]);
+                    t = t.toP3().madd(A.dblPrecmp, 0, aslide[i]/2, false);
                 } else if(aslide[i] < 0) {
-                    t = t.toP3().msub(A.dblPrecmp[(-aslide[i])/2]);
+                    t = t.toP3().madd(A.dblPrecmp, 0, (-aslide[i])/2, true);
                 }
 
                 if (bslide[i] > 0) {
-                    t = t.toP3().madd(this.dblPrecmp[bslide[i]/2]);
+                    t = t.toP3().madd(this.dblPrecmp, 0, bslide[i]/2, false);
                 } else if(bslide[i] < 0) {
-                    t = t.toP3().msub(this.dblPrecmp[(-bslide[i])/2]);
+                    t = t.toP3().madd(this.dblPrecmp, 0, (-bslide[i])/2, true);
                 }
 
             r = t.toP2();
@@ -1029,6 +1168,18 @@ public class GroupElement implements Serializable {
         return r;
     }
 
+    /**
+     * $r = 8 * this$, clearing the torsion component on curves with
+     * cofactor 8 such as Ed25519.
+     * <p>
+     * $r$ is the identity iff this is a point of small order.
+     *
+     * @return the P1P1 representation of the result.
+     */
+    public GroupElement multiplyByCofactor() {
+        return dbl().toP2().dbl().toP2().dbl();
+    }
+
     /**
      * Verify that a point is on its curve.
      * @return true if the point lies on its curve.
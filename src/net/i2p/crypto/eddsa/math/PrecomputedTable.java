@@ -0,0 +1,187 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import java.io.Serializable;
+
+import net.i2p.crypto.eddsa.Utils;
+
+/**
+ * A table of group elements in PRECOMP representation, stored in a single
+ * int array.
+ * <p>
+ * Each entry is the packed $(y+x, y-x, 2dxy)$ of one point, see
+ * {@link Encoding#pack(FieldElement, int[], int)}, and the entries of a row
+ * are adjacent. A constant-time lookup thus reads one contiguous block and
+ * does the conditional moves on the limbs, instead of visiting some hundred
+ * separate field element objects per row.
+ *
+ * @author str4d
+ *
+ */
+final class PrecomputedTable implements Serializable {
+    private static final long serialVersionUID = 5217043380961254127L;
+
+    private final Curve curve;
+    private final int rows;
+    private final int cols;
+    /** Ints per field element. */
+    private final int limbs;
+    private final int[] table;
+    /** The packed neutral element $(1, 1, 0)$. */
+    private final int[] zero;
+
+    /**
+     * @param curve the curve of the entries.
+     * @param entries the entries, in PRECOMP representation, all rows of the
+     * same length.
+     */
+    PrecomputedTable(final Curve curve, final GroupElement[][] entries) {
+        final Encoding enc = curve.getField().getEncoding();
+        this.curve = curve;
+        this.rows = entries.length;
+        this.cols = entries[0].length;
+        this.limbs = enc.getPackedLength();
+        this.table = new int[rows * cols * 3 * limbs];
+        this.zero = new int[3 * limbs];
+        final Field f = curve.getField();
+        enc.pack(f.ONE, zero, 0);
+        enc.pack(f.ONE, zero, limbs);
+        enc.pack(f.ZERO, zero, 2 * limbs);
+        int off = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                final GroupElement e = entries[i][j];
+                enc.pack(e.X, table, off);
+                enc.pack(e.Y, table, off + limbs);
+                enc.pack(e.Z, table, off + 2 * limbs);
+                off += 3 * limbs;
+            }
+        }
+    }
+
+    Curve getCurve() {
+        return curve;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return the number of ints per field element.
+     */
+    int getLimbs() {
+        return limbs;
+    }
+
+    /**
+     * @return the packed entries, not copied; see getOffset().
+     */
+    int[] getTable() {
+        return table;
+    }
+
+    /**
+     * @param row the row.
+     * @param col the column.
+     * @return where the packed $y+x$ of the entry starts in getTable(); its
+     * $y-x$ and $2dxy$ follow at steps of getLimbs().
+     */
+    int getOffset(final int row, final int col) {
+        return (row * cols + col) * 3 * limbs;
+    }
+
+    /**
+     * Variable time, only for public indices.
+     *
+     * @param row the row.
+     * @param col the column.
+     * @return the entry, in PRECOMP representation.
+     */
+    GroupElement get(final int row, final int col) {
+        final Encoding enc = curve.getField().getEncoding();
+        final int off = getOffset(row, col);
+        return GroupElement.precomp(curve, enc.unpack(table, off),
+                enc.unpack(table, off + limbs), enc.unpack(table, off + 2 * limbs));
+    }
+
+    /**
+     * @return a buffer for {@link #select(int, int, int[])}.
+     */
+    int[] newAccumulator() {
+        return new int[3 * limbs];
+    }
+
+    /**
+     * Look up $b$ times the first entry of a row, where the entries of the
+     * row are the multiples $1 P, \dots, cols P$.
+     * <p>
+     * No secret array indices, no secret branching.
+     * Constant time.
+     *
+     * @param row the row.
+     * @param b in $\{-cols, \dots, cols\}$
+     * @return the entry, negated if $b &lt; 0$, or the neutral element if
+     * $b = 0$, in PRECOMP representation.
+     */
+    GroupElement select(final int row, final int b) {
+        return select(row, b, newAccumulator());
+    }
+
+    /**
+     * As {@link #select(int, int)}, using the given buffer for the limbs.
+     * <p>
+     * The row is scanned once; every entry is merged into the accumulator
+     * under a mask, and the sign is applied by swapping the first two
+     * coordinates under a mask as well. Only the final field elements are
+     * allocated.
+     *
+     * @param row the row.
+     * @param b in $\{-cols, \dots, cols\}$
+     * @param acc a buffer from {@link #newAccumulator()}, overwritten.
+     * @return the entry, negated if $b &lt; 0$, or the neutral element if
+     * $b = 0$, in PRECOMP representation.
+     */
+    GroupElement select(final int row, final int b, final int[] acc) {
+        final Encoding enc = curve.getField().getEncoding();
+        // Is b negative?
+        final int bnegative = Utils.negative(b);
+        // |b|
+        final int babs = b - (((-bnegative) & b) << 1);
+
+        final int stride = 3 * limbs;
+        System.arraycopy(zero, 0, acc, 0, stride);
+        int off = row * cols * stride;
+        for (int j = 0; j < cols; j++) {
+            final int mask = -Utils.equal(babs, j + 1);
+            for (int k = 0; k < stride; k++)
+                acc[k] ^= (acc[k] ^ table[off + k]) & mask;
+            off += stride;
+        }
+
+        // -P = (y-x, y+x, -2dxy)
+        final int swap = -bnegative;
+        for (int k = 0; k < limbs; k++) {
+            final int x = (acc[k] ^ acc[limbs + k]) & swap;
+            acc[k] ^= x;
+            acc[limbs + k] ^= x;
+        }
+        final FieldElement xy2d = enc.unpack(acc, 2 * limbs);
+        return GroupElement.precomp(curve, enc.unpack(acc, 0), enc.unpack(acc, limbs),
+                xy2d.cmov(xy2d.negate(), bnegative));
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import java.io.Serializable;
+
+/**
+ * Constant-time modular inversion with the "safegcd" divsteps of Bernstein
+ * and Yang, for an odd modulus below $2^{256}$.
+ * <p>
+ * Numbers are held as nine signed 30 bit limbs, so all products fit in a
+ * long. The inversion runs 20 batches of 30 divsteps, enough for any 256 bit
+ * input, and then normalizes the result; the control flow and memory access
+ * do not depend on the input.
+ * <p>
+ * Ref: https://gcd.cr.yp.to/safegcd-20190413.pdf and the modinv32 module of
+ * libsecp256k1 (https://github.com/bitcoin-core/secp256k1), which this
+ * follows step by step.
+ *
+ * @author str4d
+ *
+ */
+public final class SafeGcd implements Serializable {
+    private static final long serialVersionUID = 3092651750381628461L;
+    private static final int LIMBS = 9;
+    private static final int M30 = 0x3FFFFFFF;
+
+    private final int[] modulus;
+    /** $modulus^{-1} \bmod 2^{30}$ */
+    private final int modulusInv30;
+
+    /**
+     * @param modulus an odd modulus below $2^{256}$, 32 bytes little-endian.
+     * @throws IllegalArgumentException if the modulus is even or not 32
+     * bytes.
+     */
+    public SafeGcd(byte[] modulus) {
+        if (modulus.length != 32 || (modulus[0] & 1) == 0)
+            throw new IllegalArgumentException("modulus must be odd and 32 bytes");
+        this.modulus = toSigned30(modulus);
+        // Newton iteration, each step doubles the number of correct bits
+        final int m = this.modulus[0];
+        int inv = m;
+        for (int i = 0; i < 4; i++)
+            inv *= 2 - m * inv;
+        this.modulusInv30 = inv & M30;
+    }
+
+    /**
+     * Computes $x^{-1}$ modulo the modulus. Zero is mapped to zero.
+     * <p>
+     * Constant time.
+     *
+     * @param x 32 bytes little-endian, less than the modulus.
+     * @return the inverse, 32 bytes little-endian, less than the modulus.
+     */
+    public byte[] invert(byte[] x) {
+        final int[] d = new int[LIMBS];
+        final int[] e = new int[LIMBS];
+        final int[] f = modulus.clone();
+        final int[] g = toSigned30(x);
+        final int[] t = new int[4];
+        e[0] = 1;
+        // zeta = -(delta + 1/2), delta starts at 1/2
+        int zeta = -1;
+
+        // 590 divsteps suffice for 256 bit inputs
+        for (int i = 0; i < 20; i++) {
+            zeta = divsteps30(zeta, f[0], g[0], t);
+            updateDE(d, e, t);
+            updateFG(f, g, t);
+        }
+        // f is now +1 or -1, and d = +-1/x
+        normalize(d, f[LIMBS - 1]);
+        return toByteArray(d);
+    }
+
+    /**
+     * Runs 30 divsteps on the low bits of f and g.
+     *
+     * @param zeta $-(\delta + 1/2)$
+     * @param f0 the low limb of f, odd.
+     * @param g0 the low limb of g.
+     * @param t receives the transition matrix $(u, v, q, r)$, scaled by
+     * $2^{30}$.
+     * @return the new zeta.
+     */
+    private static int divsteps30(int zeta, final int f0, final int g0, final int[] t) {
+        int u = 1, v = 0, q = 0, r = 1;
+        int f = f0, g = g0;
+        for (int i = 0; i < 30; i++) {
+            // Masks for zeta < 0 and for g odd
+            int mask1 = zeta >> 31;
+            final int mask2 = -(g & 1);
+            // Conditionally negated f, u, v
+            final int x = (f ^ mask1) - mask1;
+            final int y = (u ^ mask1) - mask1;
+            final int z = (v ^ mask1) - mask1;
+            // If g is odd, add them to g, q, r
+            g += x & mask2;
+            q += y & mask2;
+            r += z & mask2;
+            // mask1 is now zeta < 0 and g odd
+            mask1 &= mask2;
+            // zeta becomes -zeta - 2 or zeta - 1
+            zeta = (zeta ^ mask1) - 1;
+            // If so, the old g, q, r become the new f, u, v
+            f += g & mask1;
+            u += q & mask1;
+            v += r & mask1;
+            g >>>= 1;
+            u <<= 1;
+            v <<= 1;
+        }
+        t[0] = u;
+        t[1] = v;
+        t[2] = q;
+        t[3] = r;
+        return zeta;
+    }
+
+    /**
+     * $[d, e] = t [d, e] / 2^{30}$ modulo the modulus, keeping both in
+     * $(-2 modulus, modulus)$.
+     */
+    private void updateDE(final int[] d, final int[] e, final int[] t) {
+        final int u = t[0], v = t[1], q = t[2], r = t[3];
+        // md, me start as zero, plus [u, q] if d is negative, plus [v, r] if
+        // e is negative
+        final int sd = d[LIMBS - 1] >> 31;
+        final int se = e[LIMBS - 1] >> 31;
+        int md = (u & sd) + (v & se);
+        int me = (q & sd) + (r & se);
+        int di = d[0];
+        int ei = e[0];
+        long cd = (long) u * di + (long) v * ei;
+        long ce = (long) q * di + (long) r * ei;
+        // Choose md, me so that the bottom 30 bits of t [d, e] + modulus [md, me]
+        // are zero
+        md -= (modulusInv30 * (int) cd + md) & M30;
+        me -= (modulusInv30 * (int) ce + me) & M30;
+        cd += (long) modulus[0] * md;
+        ce += (long) modulus[0] * me;
+        cd >>= 30;
+        ce >>= 30;
+        for (int i = 1; i < LIMBS; i++) {
+            di = d[i];
+            ei = e[i];
+            cd += (long) u * di + (long) v * ei;
+            ce += (long) q * di + (long) r * ei;
+            cd += (long) modulus[i] * md;
+            ce += (long) modulus[i] * me;
+            d[i - 1] = (int) cd & M30;
+            cd >>= 30;
+            e[i - 1] = (int) ce & M30;
+            ce >>= 30;
+        }
+        d[LIMBS - 1] = (int) cd;
+        e[LIMBS - 1] = (int) ce;
+    }
+
+    /**
+     * $[f, g] = t [f, g] / 2^{30}$, which is exact.
+     */
+    private static void updateFG(final int[] f, final int[] g, final int[] t) {
+        final int u = t[0], v = t[1], q = t[2], r = t[3];
+        int fi = f[0];
+        int gi = g[0];
+        long cf = (long) u * fi + (long) v * gi;
+        long cg = (long) q * fi + (long) r * gi;
+        cf >>= 30;
+        cg >>= 30;
+        for (int i = 1; i < LIMBS; i++) {
+            fi = f[i];
+            gi = g[i];
+            cf += (long) u * fi + (long) v * gi;
+            cg += (long) q * fi + (long) r * gi;
+            f[i - 1] = (int) cf & M30;
+            cf >>= 30;
+            g[i - 1] = (int) cg & M30;
+            cg >>= 30;
+        }
+        f[LIMBS - 1] = (int) cf;
+        g[LIMBS - 1] = (int) cg;
+    }
+
+    /**
+     * Brings r from $(-2 modulus, modulus)$ to $[0, modulus)$, negating it
+     * first if sign is negative.
+     */
+    private void normalize(final int[] r, final int sign) {
+        // Add the modulus if r is negative, then negate if requested
+        int condAdd = r[LIMBS - 1] >> 31;
+        final int condNegate = sign >> 31;
+        for (int i = 0; i < LIMBS; i++) {
+            r[i] += modulus[i] & condAdd;
+            r[i] = (r[i] ^ condNegate) - condNegate;
+        }
+        propagate(r);
+        // Add the modulus again if r is still negative
+        condAdd = r[LIMBS - 1] >> 31;
+        for (int i = 0; i < LIMBS; i++)
+            r[i] += modulus[i] & condAdd;
+        propagate(r);
+    }
+
+    private static void propagate(final int[] r) {
+        for (int i = 0; i < LIMBS - 1; i++) {
+            r[i + 1] += r[i] >> 30;
+            r[i] &= M30;
+        }
+    }
+
+    private static int[] toSigned30(byte[] b) {
+        final int[] r = new int[LIMBS];
+        long acc = 0;
+        int bits = 0;
+        int j = 0;
+        for (int i = 0; i < 32; i++) {
+            acc |= (long) (b[i] & 0xff) << bits;
+            bits += 8;
+            if (bits >= 30) {
+                r[j++] = (int) acc & M30;
+                acc >>>= 30;
+                bits -= 30;
+            }
+        }
+        r[j] = (int) acc;
+        return r;
+    }
+
+    private static byte[] toByteArray(int[] r) {
+        final byte[] b = new byte[32];
+        long acc = 0;
+        int bits = 0;
+        int j = 0;
+        for (int i = 0; i < LIMBS; i++) {
+            acc |= (long) r[i] << bits;
+            bits += 30;
+            while (bits >= 8 && j < 32) {
+                b[j++] = (byte) acc;
+                acc >>>= 8;
+                bits -= 8;
+            }
+        }
+        return b;
+    }
+}
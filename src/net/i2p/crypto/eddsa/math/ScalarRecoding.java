@@ -0,0 +1,128 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+/**
+ * Recodings of 256 bit little-endian scalars into signed digits, as used by
+ * the scalar multiplications in {@link GroupElement}.
+ * <p>
+ * Both recodings run in a single linear pass and write into a buffer
+ * supplied by the caller, so they do not allocate; a caller doing many
+ * multiplications can reuse its buffers.
+ *
+ * @author str4d
+ *
+ */
+public final class ScalarRecoding {
+
+    /**
+     * The smallest supported wNAF width.
+     */
+    public static final int MIN_WIDTH = 2;
+
+    /**
+     * The largest supported wNAF width, so that digits fit in a byte.
+     */
+    public static final int MAX_WIDTH = 8;
+
+    private ScalarRecoding() {
+    }
+
+    /**
+     * Computes the width-$w$ non-adjacent form of $a$.
+     * <p>
+     * Output: $r$ which satisfies
+     * $a = r0 * 2^0 + r1 * 2^1 + \dots + r255 * 2^{255}$ where each $ri$ is
+     * zero or odd with $|ri| &lt; 2^{w-1}$, and of any $w$ consecutive digits
+     * at most one is non-zero. With $w = 5$ the digits are those expected by
+     * the tables of odd multiples $P, 3P, \dots, 15P$ that
+     * {@link GroupElement} precomputes.
+     * <p>
+     * <strong>Not constant time</strong>, only for public scalars.
+     * <p>
+     * Preconditions:
+     *   $a[31] \le 127$.
+     *
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$.
+     * @param w the width, between {@link #MIN_WIDTH} and {@link #MAX_WIDTH}.
+     * @param r the output buffer, at least 256 bytes; the first 256 are
+     * overwritten.
+     * @return one more than the index of the highest non-zero digit, or 0 if
+     * $a = 0$.
+     * @throws IllegalArgumentException if w is out of range.
+     */
+    public static int wnaf(final byte[] a, final int w, final byte[] r) {
+        if (w < MIN_WIDTH || w > MAX_WIDTH)
+            throw new IllegalArgumentException("wNAF width must be between " + MIN_WIDTH + " and " + MAX_WIDTH);
+        final int width = 1 << w;
+        final int windowMask = width - 1;
+
+        for (int i = 0; i < 256; i++)
+            r[i] = 0;
+
+        int top = 0;
+        int carry = 0;
+        int pos = 0;
+        while (pos < 256) {
+            // Bits pos .. pos + 8 of a; w <= 8 so the window fits.
+            final int idx = pos >> 3;
+            int bits = (a[idx] & 0xff) >> (pos & 7);
+            if (idx < 31)
+                bits |= (a[idx + 1] & 0xff) << (8 - (pos & 7));
+
+            final int window = carry + (bits & windowMask);
+            if ((window & 1) == 0) {
+                // Either the bit is 0 or a carry turned it into 0.
+                pos++;
+                continue;
+            }
+
+            if (window < width / 2) {
+                carry = 0;
+                r[pos] = (byte) window;
+            } else {
+                carry = 1;
+                r[pos] = (byte) (window - width);
+            }
+            top = pos + 1;
+            pos += w;
+        }
+        return top;
+    }
+
+    /**
+     * Converts $a$ to signed radix 16.
+     * <p>
+     * Constant time.
+     *
+     * @param a $= a[0]+256*a[1]+\dots+256^{31} a[31]$
+     * @param e the output buffer, at least 64 bytes; the first 64 are
+     * overwritten with digits between -8 and 8.
+     * @return e
+     */
+    public static byte[] toRadix16(final byte[] a, final byte[] e) {
+        int carry = 0;
+        for (int i = 0; i < 32; i++) {
+            // Each digit is in 0..15 before adding the carry in 0..1
+            int d = (a[i] & 15) + carry;
+            carry = (d + 8) >> 4;
+            e[2*i+0] = (byte) (d - (carry << 4));
+
+            d = ((a[i] >> 4) & 15) + carry;
+            carry = (d + 8) >> 4;
+            e[2*i+1] = (byte) (d - (carry << 4));
+        }
+        // The top digit absorbs the last carry instead of propagating it.
+        e[63] += carry << 4;
+        return e;
+    }
+}
@@ -44,16 +44,105 @@ public class Ed25519FieldElement extends FieldElement {
         this.t = t;
     }
 
-    private static final byte[] ZERO = new byte[32];
+    private static final int[] ZERO = new int[10];
+
+    /**
+     * Inversion modulo $p = 2^{255} - 19$.
+     */
+    private static final SafeGcd INVERTER = new SafeGcd(Utils.hexToBytes("edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f"));
 
     /**
      * Gets a value indicating whether or not the field element is non-zero.
+     * <p>
+     * Works on the limbs, see {@link #isZero()}.
      *
      * @return 1 if it is non-zero, 0 otherwise.
      */
     public boolean isNonZero() {
-        final byte[] s = toByteArray();
-        return Utils.equal(s, ZERO) == 0;
+        return isZero(t, ZERO) == 0;
+    }
+
+    /**
+     * Works on the limbs, without encoding to bytes or allocating.
+     * <p>
+     * Constant time.
+     *
+     * @return 1 if it is zero, 0 otherwise.
+     */
+    public int isZero() {
+        return isZero(t, ZERO);
+    }
+
+    /**
+     * Decides whether $f - g \equiv 0 \mod p$.
+     * <p>
+     * The difference is carried once, which brings it within the bounds
+     * expected by the reduction of
+     * {@link Ed25519LittleEndianEncoding#encode(FieldElement)}, then reduced
+     * the same way; it is zero mod $p$ iff all reduced limbs are zero. All
+     * intermediate values are locals, nothing is allocated.
+     * <p>
+     * Constant time.
+     *
+     * @param f limbs as produced by any of the arithmetic operations.
+     * @param g limbs as produced by any of the arithmetic operations.
+     * @return 1 if $f$ and $g$ represent the same element, 0 otherwise.
+     */
+    static int isZero(final int[] f, final int[] g) {
+        long h0 = (long) f[0] - g[0];
+        long h1 = (long) f[1] - g[1];
+        long h2 = (long) f[2] - g[2];
+        long h3 = (long) f[3] - g[3];
+        long h4 = (long) f[4] - g[4];
+        long h5 = (long) f[5] - g[5];
+        long h6 = (long) f[6] - g[6];
+        long h7 = (long) f[7] - g[7];
+        long h8 = (long) f[8] - g[8];
+        long h9 = (long) f[9] - g[9];
+        long c;
+
+        // |h_i| <= 2^25 resp. 2^24 afterwards, h0 a little more.
+        c = (h0 + (long) (1 << 25)) >> 26; h1 += c; h0 -= c << 26;
+        c = (h1 + (long) (1 << 24)) >> 25; h2 += c; h1 -= c << 25;
+        c = (h2 + (long) (1 << 25)) >> 26; h3 += c; h2 -= c << 26;
+        c = (h3 + (long) (1 << 24)) >> 25; h4 += c; h3 -= c << 25;
+        c = (h4 + (long) (1 << 25)) >> 26; h5 += c; h4 -= c << 26;
+        c = (h5 + (long) (1 << 24)) >> 25; h6 += c; h5 -= c << 25;
+        c = (h6 + (long) (1 << 25)) >> 26; h7 += c; h6 -= c << 26;
+        c = (h7 + (long) (1 << 24)) >> 25; h8 += c; h7 -= c << 25;
+        c = (h8 + (long) (1 << 25)) >> 26; h9 += c; h8 -= c << 26;
+        c = (h9 + (long) (1 << 24)) >> 25; h0 += c * 19; h9 -= c << 25;
+
+        // q = [2^-255 * (h + 19 * 2^-25 * h9 + 1/2)], then h - q * p
+        int r0 = (int) h0, r1 = (int) h1, r2 = (int) h2, r3 = (int) h3, r4 = (int) h4;
+        int r5 = (int) h5, r6 = (int) h6, r7 = (int) h7, r8 = (int) h8, r9 = (int) h9;
+        int q = (19 * r9 + (1 << 24)) >> 25;
+        q = (r0 + q) >> 26;
+        q = (r1 + q) >> 25;
+        q = (r2 + q) >> 26;
+        q = (r3 + q) >> 25;
+        q = (r4 + q) >> 26;
+        q = (r5 + q) >> 25;
+        q = (r6 + q) >> 26;
+        q = (r7 + q) >> 25;
+        q = (r8 + q) >> 26;
+        q = (r9 + q) >> 25;
+        r0 += 19 * q;
+        int carry;
+        carry = r0 >> 26; r1 += carry; r0 -= carry << 26;
+        carry = r1 >> 25; r2 += carry; r1 -= carry << 25;
+        carry = r2 >> 26; r3 += carry; r2 -= carry << 26;
+        carry = r3 >> 25; r4 += carry; r3 -= carry << 25;
+        carry = r4 >> 26; r5 += carry; r4 -= carry << 26;
+        carry = r5 >> 25; r6 += carry; r5 -= carry << 25;
+        carry = r6 >> 26; r7 += carry; r6 -= carry << 26;
+        carry = r7 >> 25; r8 += carry; r7 -= carry << 25;
+        carry = r8 >> 26; r9 += carry; r8 -= carry << 26;
+        carry = r9 >> 25;              r9 -= carry << 25;
+
+        // The reduced limbs are non-negative
+        final int x = r0 | r1 | r2 | r3 | r4 | r5 | r6 | r7 | r8 | r9;
+        return (x - 1) >>> 31;
     }
 
     /**
@@ -69,7 +158,12 @@ public class Ed25519FieldElement extends FieldElement {
      * Postconditions:
      * </p><ul>
      * <li>$|h|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25},$ etc.
-     * </ul>
+     * </ul><p>
+     * No carries are done. {@link #multiply(FieldElement)} and the squarings
+     * accept limbs up to $1.65*2^{26},1.65*2^{25},\dots$, so a sum or
+     * difference of up to three reduced values, e.g. products, can be passed
+     * to them without carrying first. The point formulas in
+     * {@link net.i2p.crypto.eddsa.math.GroupElement} rely on this.
      *
      * @param val The field element to add.
      * @return The field element this + val.
@@ -98,7 +192,8 @@ public class Ed25519FieldElement extends FieldElement {
      * Postconditions:
      * </p><ul>
      * <li>$|h|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25},$ etc.
-     * </ul>
+     * </ul><p>
+     * No carries are done, see {@link #add(FieldElement)}.
      *
      * @param val The field element to subtract.
      * @return The field element this - val.
@@ -175,94 +270,110 @@ public class Ed25519FieldElement extends FieldElement {
      * @return The (reasonably reduced) field element this * val.
      */
     public FieldElement multiply(FieldElement val) {
-        int[] g = ((Ed25519FieldElement)val).t;
-        int g1_19 = 19 * g[1]; /* 1.959375*2^29 */
-        int g2_19 = 19 * g[2]; /* 1.959375*2^30; still ok */
-        int g3_19 = 19 * g[3];
-        int g4_19 = 19 * g[4];
-        int g5_19 = 19 * g[5];
-        int g6_19 = 19 * g[6];
-        int g7_19 = 19 * g[7];
-        int g8_19 = 19 * g[8];
-        int g9_19 = 19 * g[9];
+        return multiply(((Ed25519FieldElement)val).t, 0);
+    }
+
+    /**
+     * Multiplies by the limbs stored by
+     * {@link Ed25519LittleEndianEncoding#pack(FieldElement, int[], int)},
+     * without copying them.
+     */
+    @Override
+    public FieldElement multiplyPacked(int[] src, int off) {
+        return multiply(src, off);
+    }
+
+    /**
+     * $h = f * g$ with the ten limbs of $g$ at g[off], as multiply(FieldElement).
+     */
+    private FieldElement multiply(final int[] g, final int off) {
+        int g1_19 = 19 * g[off + 1]; /* 1.959375*2^29 */
+        int g2_19 = 19 * g[off + 2]; /* 1.959375*2^30; still ok */
+        int g3_19 = 19 * g[off + 3];
+        int g4_19 = 19 * g[off + 4];
+        int g5_19 = 19 * g[off + 5];
+        int g6_19 = 19 * g[off + 6];
+        int g7_19 = 19 * g[off + 7];
+        int g8_19 = 19 * g[off + 8];
+        int g9_19 = 19 * g[off + 9];
         int f1_2 = 2 * t[1];
         int f3_2 = 2 * t[3];
         int f5_2 = 2 * t[5];
         int f7_2 = 2 * t[7];
         int f9_2 = 2 * t[9];
-        long f0g0    = t[0] * (long) g[0];
-        long f0g1    = t[0] * (long) g[1];
-        long f0g2    = t[0] * (long) g[2];
-        long f0g3    = t[0] * (long) g[3];
-        long f0g4    = t[0] * (long) g[4];
-        long f0g5    = t[0] * (long) g[5];
-        long f0g6    = t[0] * (long) g[6];
-        long f0g7    = t[0] * (long) g[7];
-        long f0g8    = t[0] * (long) g[8];
-        long f0g9    = t[0] * (long) g[9];
-        long f1g0    = t[1] * (long) g[0];
-        long f1g1_2  = f1_2 * (long) g[1];
-        long f1g2    = t[1] * (long) g[2];
-        long f1g3_2  = f1_2 * (long) g[3];
-        long f1g4    = t[1] * (long) g[4];
-        long f1g5_2  = f1_2 * (long) g[5];
-        long f1g6    = t[1] * (long) g[6];
-        long f1g7_2  = f1_2 * (long) g[7];
-        long f1g8    = t[1] * (long) g[8];
+        long f0g0    = t[0] * (long) g[off + 0];
+        long f0g1    = t[0] * (long) g[off + 1];
+        long f0g2    = t[0] * (long) g[off + 2];
+        long f0g3    = t[0] * (long) g[off + 3];
+        long f0g4    = t[0] * (long) g[off + 4];
+        long f0g5    = t[0] * (long) g[off + 5];
+        long f0g6    = t[0] * (long) g[off + 6];
+        long f0g7    = t[0] * (long) g[off + 7];
+        long f0g8    = t[0] * (long) g[off + 8];
+        long f0g9    = t[0] * (long) g[off + 9];
+        long f1g0    = t[1] * (long) g[off + 0];
+        long f1g1_2  = f1_2 * (long) g[off + 1];
+        long f1g2    = t[1] * (long) g[off + 2];
+        long f1g3_2  = f1_2 * (long) g[off + 3];
+        long f1g4    = t[1] * (long) g[off + 4];
+        long f1g5_2  = f1_2 * (long) g[off + 5];
+        long f1g6    = t[1] * (long) g[off + 6];
+        long f1g7_2  = f1_2 * (long) g[off + 7];
+        long f1g8    = t[1] * (long) g[off + 8];
         long f1g9_38 = f1_2 * (long) g9_19;
-        long f2g0    = t[2] * (long) g[0];
-        long f2g1    = t[2] * (long) g[1];
-        long f2g2    = t[2] * (long) g[2];
-        long f2g3    = t[2] * (long) g[3];
-        long f2g4    = t[2] * (long) g[4];
-        long f2g5    = t[2] * (long) g[5];
-        long f2g6    = t[2] * (long) g[6];
-        long f2g7    = t[2] * (long) g[7];
+        long f2g0    = t[2] * (long) g[off + 0];
+        long f2g1    = t[2] * (long) g[off + 1];
+        long f2g2    = t[2] * (long) g[off + 2];
+        long f2g3    = t[2] * (long) g[off + 3];
+        long f2g4    = t[2] * (long) g[off + 4];
+        long f2g5    = t[2] * (long) g[off + 5];
+        long f2g6    = t[2] * (long) g[off + 6];
+        long f2g7    = t[2] * (long) g[off + 7];
         long f2g8_19 = t[2] * (long) g8_19;
         long f2g9_19 = t[2] * (long) g9_19;
-        long f3g0    = t[3] * (long) g[0];
-        long f3g1_2  = f3_2 * (long) g[1];
-        long f3g2    = t[3] * (long) g[2];
-        long f3g3_2  = f3_2 * (long) g[3];
-        long f3g4    = t[3] * (long) g[4];
-        long f3g5_2  = f3_2 * (long) g[5];
-        long f3g6    = t[3] * (long) g[6];
+        long f3g0    = t[3] * (long) g[off + 0];
+        long f3g1_2  = f3_2 * (long) g[off + 1];
+        long f3g2    = t[3] * (long) g[off + 2];
+        long f3g3_2  = f3_2 * (long) g[off + 3];
+        long f3g4    = t[3] * (long) g[off + 4];
+        long f3g5_2  = f3_2 * (long) g[off + 5];
+        long f3g6    = t[3] * (long) g[off + 6];
         long f3g7_38 = f3_2 * (long) g7_19;
         long f3g8_19 = t[3] * (long) g8_19;
         long f3g9_38 = f3_2 * (long) g9_19;
-        long f4g0    = t[4] * (long) g[0];
-        long f4g1    = t[4] * (long) g[1];
-        long f4g2    = t[4] * (long) g[2];
-        long f4g3    = t[4] * (long) g[3];
-        long f4g4    = t[4] * (long) g[4];
-        long f4g5    = t[4] * (long) g[5];
+        long f4g0    = t[4] * (long) g[off + 0];
+        long f4g1    = t[4] * (long) g[off + 1];
+        long f4g2    = t[4] * (long) g[off + 2];
+        long f4g3    = t[4] * (long) g[off + 3];
+        long f4g4    = t[4] * (long) g[off + 4];
+        long f4g5    = t[4] * (long) g[off + 5];
         long f4g6_19 = t[4] * (long) g6_19;
         long f4g7_19 = t[4] * (long) g7_19;
         long f4g8_19 = t[4] * (long) g8_19;
         long f4g9_19 = t[4] * (long) g9_19;
-        long f5g0    = t[5] * (long) g[0];
-        long f5g1_2  = f5_2 * (long) g[1];
-        long f5g2    = t[5] * (long) g[2];
-        long f5g3_2  = f5_2 * (long) g[3];
-        long f5g4    = t[5] * (long) g[4];
+        long f5g0    = t[5] * (long) g[off + 0];
+        long f5g1_2  = f5_2 * (long) g[off + 1];
+        long f5g2    = t[5] * (long) g[off + 2];
+        long f5g3_2  = f5_2 * (long) g[off + 3];
+        long f5g4    = t[5] * (long) g[off + 4];
         long f5g5_38 = f5_2 * (long) g5_19;
         long f5g6_19 = t[5] * (long) g6_19;
         long f5g7_38 = f5_2 * (long) g7_19;
         long f5g8_19 = t[5] * (long) g8_19;
         long f5g9_38 = f5_2 * (long) g9_19;
-        long f6g0    = t[6] * (long) g[0];
-        long f6g1    = t[6] * (long) g[1];
-        long f6g2    = t[6] * (long) g[2];
-        long f6g3    = t[6] * (long) g[3];
+        long f6g0    = t[6] * (long) g[off + 0];
+        long f6g1    = t[6] * (long) g[off + 1];
+        long f6g2    = t[6] * (long) g[off + 2];
+        long f6g3    = t[6] * (long) g[off + 3];
         long f6g4_19 = t[6] * (long) g4_19;
         long f6g5_19 = t[6] * (long) g5_19;
         long f6g6_19 = t[6] * (long) g6_19;
         long f6g7_19 = t[6] * (long) g7_19;
         long f6g8_19 = t[6] * (long) g8_19;
         long f6g9_19 = t[6] * (long) g9_19;
-        long f7g0    = t[7] * (long) g[0];
-        long f7g1_2  = f7_2 * (long) g[1];
-        long f7g2    = t[7] * (long) g[2];
+        long f7g0    = t[7] * (long) g[off + 0];
+        long f7g1_2  = f7_2 * (long) g[off + 1];
+        long f7g2    = t[7] * (long) g[off + 2];
         long f7g3_38 = f7_2 * (long) g3_19;
         long f7g4_19 = t[7] * (long) g4_19;
         long f7g5_38 = f7_2 * (long) g5_19;
@@ -270,8 +381,8 @@ public class Ed25519FieldElement extends FieldElement {
         long f7g7_38 = f7_2 * (long) g7_19;
         long f7g8_19 = t[7] * (long) g8_19;
         long f7g9_38 = f7_2 * (long) g9_19;
-        long f8g0    = t[8] * (long) g[0];
-        long f8g1    = t[8] * (long) g[1];
+        long f8g0    = t[8] * (long) g[off + 0];
+        long f8g1    = t[8] * (long) g[off + 1];
         long f8g2_19 = t[8] * (long) g2_19;
         long f8g3_19 = t[8] * (long) g3_19;
         long f8g4_19 = t[8] * (long) g4_19;
@@ -280,7 +391,7 @@ public class Ed25519FieldElement extends FieldElement {
         long f8g7_19 = t[8] * (long) g7_19;
         long f8g8_19 = t[8] * (long) g8_19;
         long f8g9_19 = t[8] * (long) g9_19;
-        long f9g0    = t[9] * (long) g[0];
+        long f9g0    = t[9] * (long) g[off + 0];
         long f9g1_38 = f9_2 * (long) g1_19;
         long f9g2_19 = t[9] * (long) g2_19;
         long f9g3_38 = f9_2 * (long) g3_19;
@@ -705,15 +816,100 @@ public class Ed25519FieldElement extends FieldElement {
         return new Ed25519FieldElement(f, h);
     }
 
+    /**
+     * $h = f * 121666$
+     * <p>
+     * $121666 = (A + 2) / 4$ where $A = 486662$ is the Montgomery curve
+     * constant, this is the only multiplication by a constant in the
+     * Montgomery ladder step.
+     * <p>
+     * Can overlap $h$ with $f$.
+     * <p>
+     * Preconditions:
+     * </p><ul>
+     * <li>$|f|$ bounded by $1.1*2^{26},1.1*2^{25},1.1*2^{26},1.1*2^{25},$ etc.
+     * </ul><p>
+     * Postconditions:
+     * </p><ul>
+     * <li>$|h|$ bounded by $1.1*2^{25},1.1*2^{24},1.1*2^{25},1.1*2^{24},$ etc.
+     * </ul>
+     *
+     * @return The (reasonably reduced) product of this field element and 121666.
+     */
+    public FieldElement multiply121666() {
+        long h0 = t[0] * (long) 121666;
+        long h1 = t[1] * (long) 121666;
+        long h2 = t[2] * (long) 121666;
+        long h3 = t[3] * (long) 121666;
+        long h4 = t[4] * (long) 121666;
+        long h5 = t[5] * (long) 121666;
+        long h6 = t[6] * (long) 121666;
+        long h7 = t[7] * (long) 121666;
+        long h8 = t[8] * (long) 121666;
+        long h9 = t[9] * (long) 121666;
+        long carry0;
+        long carry1;
+        long carry2;
+        long carry3;
+        long carry4;
+        long carry5;
+        long carry6;
+        long carry7;
+        long carry8;
+        long carry9;
+
+        carry9 = (h9 + (long) (1<<24)) >> 25; h0 += carry9 * 19; h9 -= carry9 << 25;
+        carry1 = (h1 + (long) (1<<24)) >> 25; h2 += carry1; h1 -= carry1 << 25;
+        carry3 = (h3 + (long) (1<<24)) >> 25; h4 += carry3; h3 -= carry3 << 25;
+        carry5 = (h5 + (long) (1<<24)) >> 25; h6 += carry5; h5 -= carry5 << 25;
+        carry7 = (h7 + (long) (1<<24)) >> 25; h8 += carry7; h7 -= carry7 << 25;
+
+        carry0 = (h0 + (long) (1<<25)) >> 26; h1 += carry0; h0 -= carry0 << 26;
+        carry2 = (h2 + (long) (1<<25)) >> 26; h3 += carry2; h2 -= carry2 << 26;
+        carry4 = (h4 + (long) (1<<25)) >> 26; h5 += carry4; h4 -= carry4 << 26;
+        carry6 = (h6 + (long) (1<<25)) >> 26; h7 += carry6; h6 -= carry6 << 26;
+        carry8 = (h8 + (long) (1<<25)) >> 26; h9 += carry8; h8 -= carry8 << 26;
+
+        int[] h = new int[10];
+        h[0] = (int) h0;
+        h[1] = (int) h1;
+        h[2] = (int) h2;
+        h[3] = (int) h3;
+        h[4] = (int) h4;
+        h[5] = (int) h5;
+        h[6] = (int) h6;
+        h[7] = (int) h7;
+        h[8] = (int) h8;
+        h[9] = (int) h9;
+        return new Ed25519FieldElement(f, h);
+    }
+
+    /**
+     * Invert this field element.
+     * <p>
+     * The inverse is found with the constant-time divsteps of Bernstein and
+     * Yang, see {@link SafeGcd}, which on HotSpot takes between a third and a
+     * quarter of the time of the exponentiation in {@link #invertFermat()}.
+     * Zero is mapped to zero.
+     *
+     * @return The inverse of this field element.
+     */
+    public FieldElement invert() {
+        return f.getEncoding().decode(INVERTER.invert(toByteArray()));
+    }
+
     /**
      * Invert this field element.
      * <p>
      * The inverse is found via Fermat's little theorem:<br>
      * $a^p \cong a \mod p$ and therefore $a^{(p-2)} \cong a^{-1} \mod p$
+     * <p>
+     * Gives the same result as {@link #invert()}, and is kept as a reference
+     * for it.
      *
      * @return The inverse of this field element.
      */
-    public FieldElement invert() {
+    public FieldElement invertFermat() {
         FieldElement t0, t1, t2, t3;
 
         // 2 == 2 * 1
@@ -970,15 +1166,23 @@ public class Ed25519FieldElement extends FieldElement {
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(t);
+        // Equal elements can have different limbs
+        return Arrays.hashCode(Ed25519LittleEndianEncoding.reduce(t));
     }
 
+    /**
+     * Compares the limbs, see {@link #isZero(int[], int[])}; shared
+     * constants such as those of the curve are recognized by identity
+     * first. Does not allocate.
+     */
     @Override
     public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
         if (!(obj instanceof Ed25519FieldElement))
             return false;
         Ed25519FieldElement fe = (Ed25519FieldElement) obj;
-        return 1==Utils.equal(toByteArray(), fe.toByteArray());
+        return 1==isZero(t, fe.t);
     }
 
     @Override
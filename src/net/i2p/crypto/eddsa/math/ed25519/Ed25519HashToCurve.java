@@ -0,0 +1,257 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.Field;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+/**
+ * Hashing to edwards25519, suites edwards25519_XMD:SHA-512_ELL2_RO_ and
+ * edwards25519_XMD:SHA-512_ELL2_NU_.
+ * <p>
+ * Unlike multiplying the base point by a hashed scalar, the discrete
+ * logarithm of the resulting points is unknown, so they can be used as
+ * independent generators, e.g. in VRFs, PAKEs or Pedersen commitments.
+ * <p>
+ * The Elligator 2 map follows RFC 9380 appendix G.2, with the square root
+ * of both candidates derived from one
+ * {@link Curve#sqrtRatio(FieldElement, FieldElement)}. It runs in constant
+ * time with respect to the hashed data.
+ * <p>
+ * This class is a supported public API, and its package is exported by the
+ * OSGi bundle. {@link GroupElement} is in the unexported math package, so
+ * bundles outside this one should use {@link #hashToCurveBatch(byte[][], byte[])},
+ * which returns encoded points.
+ * <p>
+ * Ref: https://www.rfc-editor.org/rfc/rfc9380
+ *
+ * @author str4d
+ *
+ */
+public final class Ed25519HashToCurve {
+    /**
+     * Suite ID of {@link #hashToCurve(byte[], byte[])}.
+     */
+    public static final String SUITE_RO = "edwards25519_XMD:SHA-512_ELL2_RO_";
+
+    /**
+     * Suite ID of {@link #encodeToCurve(byte[], byte[])}.
+     */
+    public static final String SUITE_NU = "edwards25519_XMD:SHA-512_ELL2_NU_";
+
+    private static final EdDSANamedCurveSpec ED_25519_SPEC = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    private static final Curve curve = ED_25519_SPEC.getCurve();
+    private static final Field f = curve.getField();
+
+    /** The Montgomery curve coefficient $J = 486662$. */
+    private static final FieldElement J = f.fromByteArray(Utils.hexToBytes("066d070000000000000000000000000000000000000000000000000000000000"));
+    /** $\sqrt{-486664}$ with sgn0 = 0, maps curve25519 to edwards25519. */
+    private static final FieldElement C1 = f.fromByteArray(Utils.hexToBytes("067e45ffaa046ecc821a7d4bd1d3a1c57e4ffc03dc087bd2bb06a060f4ed260f"));
+    /** $1 - \sqrt{-1}$, whose square is $-2 \sqrt{-1}$. */
+    private static final FieldElement ONE_MINUS_SQRT_M1 = f.ONE.subtract(curve.getI());
+    /** $2^{192}$ */
+    private static final FieldElement TWO_192 = f.fromByteArray(Utils.hexToBytes("0000000000000000000000000000000000000000000000000100000000000000"));
+
+    /** Input block size of SHA-512. */
+    private static final int S_IN_BYTES = 128;
+    /** Output size of SHA-512. */
+    private static final int B_IN_BYTES = 64;
+    /** Bytes per field element, $\lceil (255 + 128) / 8 \rceil$. */
+    private static final int L = 48;
+    /** Prefix for hashing a DST longer than 255 bytes. */
+    private static final byte[] OVERSIZE_DST_PREFIX = "H2C-OVERSIZE-DST-".getBytes(Charset.forName("US-ASCII"));
+
+    private Ed25519HashToCurve() {
+    }
+
+    /**
+     * Hashes a message to a point, with a distribution indistinguishable
+     * from uniformly random points. RFC 9380 section 3, hash_to_curve.
+     *
+     * @param msg the message.
+     * @param dst the domain separation tag.
+     * @return the point in P3 representation.
+     */
+    public static GroupElement hashToCurve(byte[] msg, byte[] dst) {
+        final FieldElement[] u = hashToField(msg, dst, 2);
+        final GroupElement q0 = mapToCurve(u[0]);
+        final GroupElement q1 = mapToCurve(u[1]);
+        return clearCofactor(q0.add(q1.toCached()).toP3());
+    }
+
+    /**
+     * Encodes a message to a point. Cheaper than
+     * {@link #hashToCurve(byte[], byte[])}, but only about half of the
+     * points can be reached and the output is distinguishable from random.
+     * RFC 9380 section 3, encode_to_curve.
+     *
+     * @param msg the message.
+     * @param dst the domain separation tag.
+     * @return the point in P3 representation.
+     */
+    public static GroupElement encodeToCurve(byte[] msg, byte[] dst) {
+        return clearCofactor(mapToCurve(hashToField(msg, dst, 1)[0]));
+    }
+
+    /**
+     * Hashes many messages with {@link #hashToCurve(byte[], byte[])} and
+     * returns the encoded points. The affine conversion of all points
+     * shares a single field inversion.
+     *
+     * @param msgs the messages.
+     * @param dst the domain separation tag.
+     * @return the 32 byte point encodings, in the same order.
+     */
+    public static byte[][] hashToCurveBatch(byte[][] msgs, byte[] dst) {
+        final GroupElement[] points = new GroupElement[msgs.length];
+        for (int i = 0; i < msgs.length; i++)
+            points[i] = hashToCurve(msgs[i], dst);
+        return GroupElement.toByteArrays(points);
+    }
+
+    /**
+     * Hashes a message to field elements, RFC 9380 section 5.2.
+     *
+     * @param msg the message.
+     * @param dst the domain separation tag.
+     * @param count the number of field elements.
+     * @return the field elements.
+     */
+    static FieldElement[] hashToField(byte[] msg, byte[] dst, int count) {
+        final byte[] uniform = expandMessageXmd(msg, dst, count * L);
+        final FieldElement[] u = new FieldElement[count];
+        for (int i = 0; i < count; i++) {
+            // Split the big-endian chunk into two 192 bit halves, so that
+            // the reduction is done by field arithmetic.
+            final byte[] lo = new byte[32];
+            final byte[] hi = new byte[32];
+            for (int j = 0; j < 24; j++) {
+                lo[j] = uniform[i * L + L - 1 - j];
+                hi[j] = uniform[i * L + 23 - j];
+            }
+            u[i] = f.fromByteArray(lo).add(f.fromByteArray(hi).multiply(TWO_192));
+        }
+        return u;
+    }
+
+    /**
+     * expand_message_xmd with SHA-512, RFC 9380 section 5.3.1. A tag longer
+     * than 255 bytes is hashed first, as in section 5.3.3.
+     *
+     * @param msg the message.
+     * @param dst the domain separation tag.
+     * @param len the output length, at most 16320 bytes.
+     * @return len uniform bytes.
+     * @throws IllegalArgumentException if len is too large.
+     */
+    public static byte[] expandMessageXmd(byte[] msg, byte[] dst, int len) {
+        final int ell = (len + B_IN_BYTES - 1) / B_IN_BYTES;
+        if (ell > 255 || len < 0 || len > 65535)
+            throw new IllegalArgumentException("Requested output length is too large");
+        final MessageDigest h = sha512();
+        if (dst.length > 255) {
+            h.update(OVERSIZE_DST_PREFIX);
+            dst = h.digest(dst);
+        }
+
+        h.update(new byte[S_IN_BYTES]);
+        h.update(msg);
+        h.update((byte) (len >> 8));
+        h.update((byte) len);
+        h.update((byte) 0);
+        h.update(dst);
+        h.update((byte) dst.length);
+        final byte[] b0 = h.digest();
+
+        final byte[] out = new byte[len];
+        byte[] bi = new byte[B_IN_BYTES];
+        for (int i = 1; i <= ell; i++) {
+            for (int j = 0; j < B_IN_BYTES; j++)
+                bi[j] ^= b0[j];
+            h.update(bi);
+            h.update((byte) i);
+            h.update(dst);
+            h.update((byte) dst.length);
+            bi = h.digest();
+            System.arraycopy(bi, 0, out, (i - 1) * B_IN_BYTES, Math.min(B_IN_BYTES, len - (i - 1) * B_IN_BYTES));
+        }
+        return out;
+    }
+
+    /**
+     * Maps a field element to a point, RFC 9380 appendix G.2.1 followed by
+     * the rational map of appendix G.2.2. Constant time.
+     *
+     * @param u the field element.
+     * @return the point in P3 representation, not cleared of the cofactor.
+     */
+    static GroupElement mapToCurve(FieldElement u) {
+        // Elligator 2 on curve25519, giving (xMn / xd, yM / 1).
+        FieldElement tv1 = u.square();
+        tv1 = tv1.add(tv1);
+        final FieldElement xd = tv1.addOne();
+        final FieldElement x1n = J.negate();
+        final FieldElement tv2 = xd.square();
+        final FieldElement gxd = tv2.multiply(xd);
+        final FieldElement gx1 = J.multiply(tv1).multiply(x1n).add(tv2).multiply(x1n);
+        // If gx1 / gxd is not square, the root r has r^2 = i gx1 / gxd, and
+        // gx2 / gxd = 2 u^2 gx1 / gxd = (r u (1 - i))^2.
+        final FieldElement.SqrtRatio sr = curve.sqrtRatio(gx1, gxd);
+        final FieldElement y1 = sr.getRoot();
+        final FieldElement x2n = x1n.multiply(tv1);
+        final FieldElement y2 = y1.multiply(u).multiply(ONE_MINUS_SQRT_M1);
+
+        final int e3 = sr.wasSquare();
+        final FieldElement xMn = x2n.cmov(x1n, e3);
+        FieldElement yM = y2.cmov(y1, e3);
+        final int e4 = RistrettoElement.ctIsNegative(yM);
+        yM = yM.cmov(yM.negate(), e3 ^ e4);
+
+        // Rational map to edwards25519, yMd = 1.
+        FieldElement xn = xMn.multiply(C1);
+        FieldElement xde = xd.multiply(yM);
+        FieldElement yn = xMn.subtract(xd);
+        FieldElement yd = xMn.add(xd);
+        final int e = xde.multiply(yd).isZero();
+        xn = xn.cmov(f.ZERO, e);
+        xde = xde.cmov(f.ONE, e);
+        yn = yn.cmov(f.ONE, e);
+        yd = yd.cmov(f.ONE, e);
+
+        return GroupElement.p3(curve, xn.multiply(yd), yn.multiply(xde),
+                xde.multiply(yd), xn.multiply(yn), false);
+    }
+
+    /**
+     * @return $8 P$
+     */
+    private static GroupElement clearCofactor(GroupElement P) {
+        return P.multiplyByCofactor().toP3();
+    }
+
+    private static MessageDigest sha512() {
+        try {
+            return MessageDigest.getInstance("SHA-512");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-512 not available", e);
+        }
+    }
+}
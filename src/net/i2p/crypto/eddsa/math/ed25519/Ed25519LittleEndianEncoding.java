@@ -19,6 +19,8 @@ import net.i2p.crypto.eddsa.math.*;
  * Reviewed/commented by Bloody Rookie (nemproject@gmx.de)
  */
 public class Ed25519LittleEndianEncoding extends Encoding {
+    private static final long serialVersionUID = 6102357193849210746L;
+
     /**
      * Encodes a given field element in its 32 byte representation. This is done in two steps:
      * <ol>
@@ -76,7 +78,65 @@ public class Ed25519LittleEndianEncoding extends Encoding {
      * Inserting the expression for $x$ into $(1)$ we get the desired expression for $q$.
      */
     public byte[] encode(FieldElement x) {
-        int[] h = ((Ed25519FieldElement)x).t;
+        final int[] h = reduce(((Ed25519FieldElement)x).t);
+        final int h0 = h[0];
+        final int h1 = h[1];
+        final int h2 = h[2];
+        final int h3 = h[3];
+        final int h4 = h[4];
+        final int h5 = h[5];
+        final int h6 = h[6];
+        final int h7 = h[7];
+        final int h8 = h[8];
+        final int h9 = h[9];
+
+        // Step 2 (straight forward conversion):
+        byte[] s = new byte[32];
+        s[0] = (byte) h0;
+        s[1] = (byte) (h0 >> 8);
+        s[2] = (byte) (h0 >> 16);
+        s[3] = (byte) ((h0 >> 24) | (h1 << 2));
+        s[4] = (byte) (h1 >> 6);
+        s[5] = (byte) (h1 >> 14);
+        s[6] = (byte) ((h1 >> 22) | (h2 << 3));
+        s[7] = (byte) (h2 >> 5);
+        s[8] = (byte) (h2 >> 13);
+        s[9] = (byte) ((h2 >> 21) | (h3 << 5));
+        s[10] = (byte) (h3 >> 3);
+        s[11] = (byte) (h3 >> 11);
+        s[12] = (byte) ((h3 >> 19) | (h4 << 6));
+        s[13] = (byte) (h4 >> 2);
+        s[14] = (byte) (h4 >> 10);
+        s[15] = (byte) (h4 >> 18);
+        s[16] = (byte) h5;
+        s[17] = (byte) (h5 >> 8);
+        s[18] = (byte) (h5 >> 16);
+        s[19] = (byte) ((h5 >> 24) | (h6 << 1));
+        s[20] = (byte) (h6 >> 7);
+        s[21] = (byte) (h6 >> 15);
+        s[22] = (byte) ((h6 >> 23) | (h7 << 3));
+        s[23] = (byte) (h7 >> 5);
+        s[24] = (byte) (h7 >> 13);
+        s[25] = (byte) ((h7 >> 21) | (h8 << 4));
+        s[26] = (byte) (h8 >> 4);
+        s[27] = (byte) (h8 >> 12);
+        s[28] = (byte) ((h8 >> 20) | (h9 << 6));
+        s[29] = (byte) (h9 >> 2);
+        s[30] = (byte) (h9 >> 10);
+        s[31] = (byte) (h9 >> 18);
+        return s;
+    }
+
+    /**
+     * Step 1 of {@link #encode(FieldElement)}: the unique limbs of $h \bmod p$
+     * with $0 \le h_i &lt; 2^{26}$ resp. $2^{25}$.
+     * <p>
+     * Constant time.
+     *
+     * @param h the limbs of a field element.
+     * @return new array with the canonical limbs.
+     */
+    static int[] reduce(final int[] h) {
         int h0 = h[0];
         int h1 = h[1];
         int h2 = h[2];
@@ -128,41 +188,7 @@ public class Ed25519LittleEndianEncoding extends Encoding {
         carry8 = h8 >> 26; h9 += carry8; h8 -= carry8 << 26;
         carry9 = h9 >> 25;               h9 -= carry9 << 25;
 
-        // Step 2 (straight forward conversion):
-        byte[] s = new byte[32];
-        s[0] = (byte) h0;
-        s[1] = (byte) (h0 >> 8);
-        s[2] = (byte) (h0 >> 16);
-        s[3] = (byte) ((h0 >> 24) | (h1 << 2));
-        s[4] = (byte) (h1 >> 6);
-        s[5] = (byte) (h1 >> 14);
-        s[6] = (byte) ((h1 >> 22) | (h2 << 3));
-        s[7] = (byte) (h2 >> 5);
-        s[8] = (byte) (h2 >> 13);
-        s[9] = (byte) ((h2 >> 21) | (h3 << 5));
-        s[10] = (byte) (h3 >> 3);
-        s[11] = (byte) (h3 >> 11);
-        s[12] = (byte) ((h3 >> 19) | (h4 << 6));
-        s[13] = (byte) (h4 >> 2);
-        s[14] = (byte) (h4 >> 10);
-        s[15] = (byte) (h4 >> 18);
-        s[16] = (byte) h5;
-        s[17] = (byte) (h5 >> 8);
-        s[18] = (byte) (h5 >> 16);
-        s[19] = (byte) ((h5 >> 24) | (h6 << 1));
-        s[20] = (byte) (h6 >> 7);
-        s[21] = (byte) (h6 >> 15);
-        s[22] = (byte) ((h6 >> 23) | (h7 << 3));
-        s[23] = (byte) (h7 >> 5);
-        s[24] = (byte) (h7 >> 13);
-        s[25] = (byte) ((h7 >> 21) | (h8 << 4));
-        s[26] = (byte) (h8 >> 4);
-        s[27] = (byte) (h8 >> 12);
-        s[28] = (byte) ((h8 >> 20) | (h9 << 6));
-        s[29] = (byte) (h9 >> 2);
-        s[30] = (byte) (h9 >> 10);
-        s[31] = (byte) (h9 >> 18);
-        return s;
+        return new int[] { h0, h1, h2, h3, h4, h5, h6, h7, h8, h9 };
     }
 
     static int load_3(byte[] in, int offset) {
@@ -253,4 +279,23 @@ public class Ed25519LittleEndianEncoding extends Encoding {
         return (s[0] & 1) != 0;
     }
 
+    /**
+     * The ten limbs of an {@link Ed25519FieldElement}.
+     */
+    @Override
+    public int getPackedLength() {
+        return 10;
+    }
+
+    @Override
+    public void pack(FieldElement x, int[] dst, int off) {
+        System.arraycopy(((Ed25519FieldElement) x).t, 0, dst, off, 10);
+    }
+
+    @Override
+    public FieldElement unpack(int[] src, int off) {
+        final int[] t = new int[10];
+        System.arraycopy(src, off, t, 0, 10);
+        return new Ed25519FieldElement(f, t);
+    }
 }
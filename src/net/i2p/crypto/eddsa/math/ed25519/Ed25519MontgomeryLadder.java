@@ -0,0 +1,165 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.Field;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+
+/**
+ * X25519 scalar multiplication on the Montgomery form of Curve25519,
+ * $v^2 = u^3 + 486662 u^2 + u$, as specified in RFC 7748.
+ * <p>
+ * The ladder works on the $u$-coordinate only and shares the field
+ * arithmetic with Ed25519. Multiplication of the base point $u = 9$ is done
+ * with the Ed25519 fixed-base table instead, followed by the birational map
+ * $u = (1 + y) / (1 - y)$.
+ * <p>
+ * Ref: https://tools.ietf.org/html/rfc7748
+ *
+ * @author str4d
+ *
+ */
+public class Ed25519MontgomeryLadder {
+    private final Field f;
+    private final GroupElement B;
+
+    /**
+     * @param curve the Ed25519 curve.
+     * @param B the Ed25519 base point, with its precomputed table.
+     */
+    public Ed25519MontgomeryLadder(Curve curve, GroupElement B) {
+        this.f = curve.getField();
+        this.B = B;
+    }
+
+    /**
+     * Clamps a scalar as required by RFC 7748 section 5.
+     *
+     * @param k the 32 byte scalar.
+     * @return a clamped copy of k.
+     */
+    public static byte[] clamp(byte[] k) {
+        byte[] e = new byte[32];
+        System.arraycopy(k, 0, e, 0, 32);
+        e[0] &= 248;
+        e[31] &= 127;
+        e[31] |= 64;
+        return e;
+    }
+
+    /**
+     * Computes X25519(k, u).
+     * <p>
+     * Constant time in k. The most significant bit of u is ignored and
+     * non-canonical values of u are reduced, as required by RFC 7748.
+     *
+     * @param k the 32 byte scalar, clamped by this method.
+     * @param u the 32 byte $u$-coordinate.
+     * @return the 32 byte $u$-coordinate of $k u$.
+     */
+    public byte[] scalarMultiply(byte[] k, byte[] u) {
+        final byte[] e = clamp(k);
+        final FieldElement x1 = f.fromByteArray(u);
+        FieldElement x2 = f.ONE;
+        FieldElement z2 = f.ZERO;
+        FieldElement x3 = x1;
+        FieldElement z3 = f.ONE;
+        int swap = 0;
+
+        for (int pos = 254; pos >= 0; --pos) {
+            final int b = (e[pos >>> 3] >>> (pos & 7)) & 1;
+            swap ^= b;
+            // cswap(swap, x2, x3)
+            FieldElement t = x2;
+            x2 = x2.cmov(x3, swap);
+            x3 = x3.cmov(t, swap);
+            // cswap(swap, z2, z3)
+            t = z2;
+            z2 = z2.cmov(z3, swap);
+            z3 = z3.cmov(t, swap);
+            swap = b;
+
+            final FieldElement tmp0 = x3.subtract(z3);
+            final FieldElement tmp1 = x2.subtract(z2);
+            final FieldElement a = x2.add(z2);
+            final FieldElement c = x3.add(z3);
+            final FieldElement da = tmp0.multiply(a);
+            final FieldElement cb = c.multiply(tmp1);
+            final FieldElement aa = a.square();
+            final FieldElement bb = tmp1.square();
+            final FieldElement E = aa.subtract(bb);
+            x3 = da.add(cb).square();
+            z3 = x1.multiply(da.subtract(cb).square());
+            x2 = aa.multiply(bb);
+            // AA + a24 * E with a24 = 121665, i.e. BB + 121666 * E
+            z2 = E.multiply(bb.add(((Ed25519FieldElement) E).multiply121666()));
+        }
+
+        x2 = x2.cmov(x3, swap);
+        z2 = z2.cmov(z3, swap);
+
+        // Returns 0 if z2 == 0, as invert() maps 0 to 0.
+        return x2.multiply(z2.invert()).toByteArray();
+    }
+
+    /**
+     * Computes X25519(k, 9).
+     * <p>
+     * Uses the Ed25519 fixed-base table, which is several times faster
+     * than running the ladder. Constant time in k.
+     *
+     * @param k the 32 byte scalar, clamped by this method.
+     * @return the 32 byte $u$-coordinate of the public key.
+     */
+    public byte[] scalarMultiplyBase(byte[] k) {
+        return toMontgomery(B.scalarMultiply(clamp(k)));
+    }
+
+    /**
+     * Maps an Ed25519 point to the $u$-coordinate of the equivalent
+     * Curve25519 point, $u = (1 + y) / (1 - y)$.
+     * <p>
+     * The neutral element ($y = 1$) maps to $u = 0$.
+     *
+     * @param A the point, in P2 or P3 representation.
+     * @return the 32 byte $u$-coordinate.
+     */
+    public static byte[] toMontgomery(GroupElement A) {
+        // u = (1 + y) / (1 - y) = (Z + Y) / (Z - Y)
+        return A.getZ().add(A.getY()).multiply(A.getZ().subtract(A.getY()).invert()).toByteArray();
+    }
+
+    /**
+     * Maps Ed25519 points to the $u$-coordinates of the equivalent
+     * Curve25519 points with a single field inversion.
+     *
+     * @param A the points, in P2 or P3 representation, all on the same curve.
+     * @return the 32 byte $u$-coordinates, in the same order.
+     * @see #toMontgomery(GroupElement)
+     */
+    public static byte[][] toMontgomery(GroupElement[] A) {
+        final byte[][] u = new byte[A.length][];
+        if (A.length == 0)
+            return u;
+        final FieldElement[] d = new FieldElement[A.length];
+        for (int i = 0; i < A.length; i++) {
+            d[i] = A[i].getZ().subtract(A[i].getY());
+        }
+        final FieldElement[] dinv = A[0].getCurve().getField().batchInvert(d);
+        for (int i = 0; i < A.length; i++) {
+            u[i] = A[i].getZ().add(A[i].getY()).multiply(dinv[i]).toByteArray();
+        }
+        return u;
+    }
+}
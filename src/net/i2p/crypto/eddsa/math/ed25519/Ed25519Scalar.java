@@ -0,0 +1,435 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import java.util.Arrays;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.SafeGcd;
+
+/**
+ * An integer modulo the Ed25519 group order
+ * $q = 2^{252} + 27742317777372353535851937790883648493$.
+ * <p>
+ * The value is kept as twelve 21 bit limbs in long form, the representation
+ * {@link Ed25519ScalarOps} uses internally, so that protocols doing several
+ * scalar operations in a row only encode and decode at the ends. Instances
+ * are immutable and always fully reduced.
+ * <p>
+ * All operations except {@link #equals(Object)} on a differently typed
+ * object run in constant time.
+ *
+ * @author str4d
+ *
+ */
+public final class Ed25519Scalar {
+    private static final int LIMBS = 12;
+    private static final int MASK = 0x1FFFFF;
+
+    /**
+     * The group order $q$ in 21 bit limbs.
+     */
+    private static final long[] Q = limbs(Utils.hexToBytes("edd3f55c1a631258d69cf7a2def9de1400000000000000000000000000000010"), LIMBS);
+
+    /**
+     * Inversion modulo $q$.
+     */
+    private static final SafeGcd INVERTER = new SafeGcd(Utils.hexToBytes("edd3f55c1a631258d69cf7a2def9de1400000000000000000000000000000010"));
+
+    public static final Ed25519Scalar ZERO = new Ed25519Scalar(new long[LIMBS]);
+    public static final Ed25519Scalar ONE = fromBytesModOrder(Utils.hexToBytes("0100000000000000000000000000000000000000000000000000000000000000"));
+
+    /**
+     * Fully reduced limbs, $s[0]+2^{21}*s[1]+\dots+2^{231}*s[11]$.
+     */
+    private final long[] s;
+
+    private Ed25519Scalar(long[] s) {
+        this.s = s;
+    }
+
+    /**
+     * Reduces a 32 byte little-endian integer modulo $q$.
+     *
+     * @param b the 32 byte integer.
+     * @return the scalar.
+     */
+    public static Ed25519Scalar fromBytesModOrder(byte[] b) {
+        if (b.length != 32)
+            throw new IllegalArgumentException("Invalid scalar length");
+        final long[] t = new long[2 * LIMBS];
+        System.arraycopy(limbs(b, LIMBS), 0, t, 0, LIMBS);
+        return new Ed25519Scalar(reduce(t));
+    }
+
+    /**
+     * Reduces a 64 byte little-endian integer modulo $q$, e.g. a SHA-512
+     * hash as used by EdDSA.
+     *
+     * @param b the 64 byte integer.
+     * @return the scalar.
+     */
+    public static Ed25519Scalar fromBytesModOrderWide(byte[] b) {
+        if (b.length != 64)
+            throw new IllegalArgumentException("Invalid scalar length");
+        return new Ed25519Scalar(reduce(limbs(b, 2 * LIMBS)));
+    }
+
+    /**
+     * Decodes a canonical scalar.
+     *
+     * @param b the 32 byte encoding.
+     * @return the scalar.
+     * @throws IllegalArgumentException if b is not less than $q$.
+     */
+    public static Ed25519Scalar fromCanonicalBytes(byte[] b) {
+        final Ed25519Scalar r = fromBytesModOrder(b);
+        if (Utils.equal(r.toByteArray(), b) == 0)
+            throw new IllegalArgumentException("Scalar is not canonical");
+        return r;
+    }
+
+    /**
+     * @param b a 32 byte little-endian integer.
+     * @return true if b is less than $q$.
+     */
+    public static boolean isCanonical(byte[] b) {
+        return b.length == 32 && Utils.equal(fromBytesModOrder(b).toByteArray(), b) == 1;
+    }
+
+    /**
+     * @return the 32 byte little-endian encoding.
+     */
+    public byte[] toByteArray() {
+        final byte[] out = new byte[32];
+        long acc = 0;
+        int bits = 0;
+        int j = 0;
+        for (int i = 0; i < LIMBS; i++) {
+            acc |= s[i] << bits;
+            bits += 21;
+            while (bits >= 8 && j < 32) {
+                out[j++] = (byte) acc;
+                acc >>>= 8;
+                bits -= 8;
+            }
+        }
+        while (j < 32) {
+            out[j++] = (byte) acc;
+            acc >>>= 8;
+        }
+        return out;
+    }
+
+    /**
+     * @return $1$ if this is zero, $0$ otherwise.
+     */
+    public int isZero() {
+        long acc = 0;
+        for (int i = 0; i < LIMBS; i++)
+            acc |= s[i];
+        return (int) (((acc | -acc) >>> 63) ^ 1);
+    }
+
+    /**
+     * @return this + val
+     */
+    public Ed25519Scalar add(Ed25519Scalar val) {
+        final long[] t = new long[2 * LIMBS];
+        for (int i = 0; i < LIMBS; i++)
+            t[i] = s[i] + val.s[i];
+        return new Ed25519Scalar(reduce(t));
+    }
+
+    /**
+     * @return this - val
+     */
+    public Ed25519Scalar subtract(Ed25519Scalar val) {
+        final long[] t = new long[2 * LIMBS];
+        for (int i = 0; i < LIMBS; i++)
+            t[i] = s[i] - val.s[i] + Q[i];
+        return new Ed25519Scalar(reduce(t));
+    }
+
+    /**
+     * @return -this
+     */
+    public Ed25519Scalar negate() {
+        return ZERO.subtract(this);
+    }
+
+    /**
+     * @return this * val
+     */
+    public Ed25519Scalar multiply(Ed25519Scalar val) {
+        return new Ed25519Scalar(reduce(carryProduct(mul(s, val.s))));
+    }
+
+    /**
+     * Combined multiply plus add, as in
+     * {@link Ed25519ScalarOps#multiplyAndAdd(byte[], byte[], byte[])}.
+     *
+     * @return this * b + c
+     */
+    public Ed25519Scalar multiplyAndAdd(Ed25519Scalar b, Ed25519Scalar c) {
+        final long[] t = mul(s, b.s);
+        for (int i = 0; i < LIMBS; i++)
+            t[i] += c.s[i];
+        return new Ed25519Scalar(reduce(carryProduct(t)));
+    }
+
+    /**
+     * @return this * this
+     */
+    public Ed25519Scalar square() {
+        return multiply(this);
+    }
+
+    /**
+     * @return $this^{2^n} * val$
+     */
+    private Ed25519Scalar squareMultiply(int n, Ed25519Scalar val) {
+        Ed25519Scalar y = this;
+        for (int i = 0; i < n; i++)
+            y = y.square();
+        return y.multiply(val);
+    }
+
+    /**
+     * Computes the inverse with the constant-time divsteps of Bernstein and
+     * Yang, see {@link SafeGcd}. Zero is mapped to zero.
+     *
+     * @return 1 / this
+     */
+    public Ed25519Scalar invert() {
+        return new Ed25519Scalar(limbs(INVERTER.invert(toByteArray()), LIMBS));
+    }
+
+    /**
+     * Computes the inverse $this^{q-2}$ with a fixed addition chain of 253
+     * squarings and 34 multiplications. Zero is mapped to zero.
+     * <p>
+     * Gives the same result as {@link #invert()}, and is kept as a reference
+     * for it.
+     *
+     * @return 1 / this
+     */
+    public Ed25519Scalar invertFermat() {
+        final Ed25519Scalar _1 = this;
+        final Ed25519Scalar _10 = _1.square();
+        final Ed25519Scalar _11 = _10.multiply(_1);
+        final Ed25519Scalar _101 = _10.multiply(_11);
+        final Ed25519Scalar _111 = _10.multiply(_101);
+        final Ed25519Scalar _1001 = _10.multiply(_111);
+        final Ed25519Scalar _1011 = _10.multiply(_1001);
+        final Ed25519Scalar _1101 = _10.multiply(_1011);
+        final Ed25519Scalar _1111 = _10.multiply(_1101);
+
+        // Sliding window of width 4 over q - 2
+        Ed25519Scalar y = _1;
+        y = y.squareMultiply(130, _101);
+        y = y.squareMultiply(6, _1101);
+        y = y.squareMultiply(3, _111);
+        y = y.squareMultiply(5, _1111);
+        y = y.squareMultiply(4, _1001);
+        y = y.squareMultiply(4, _1101);
+        y = y.squareMultiply(3, _111);
+        y = y.squareMultiply(4, _101);
+        y = y.squareMultiply(7, _1011);
+        y = y.squareMultiply(4, _1101);
+        y = y.squareMultiply(3, _111);
+        y = y.squareMultiply(5, _111);
+        y = y.squareMultiply(6, _1101);
+        y = y.squareMultiply(3, _11);
+        y = y.squareMultiply(6, _1011);
+        y = y.squareMultiply(10, _1001);
+        y = y.squareMultiply(4, _11);
+        y = y.squareMultiply(5, _11);
+        y = y.squareMultiply(7, _1101);
+        y = y.squareMultiply(6, _1011);
+        y = y.squareMultiply(4, _1001);
+        y = y.squareMultiply(3, _111);
+        y = y.squareMultiply(5, _1011);
+        y = y.squareMultiply(3, _101);
+        y = y.squareMultiply(6, _1111);
+        y = y.squareMultiply(3, _101);
+        y = y.squareMultiply(3, _11);
+        return y;
+    }
+
+    /**
+     * Inverts all given scalars with a single inversion (Montgomery's
+     * trick), at the cost of three multiplications per scalar. As for
+     * {@link #invert()}, zero is mapped to zero; a zero in the input does
+     * not affect the other results.
+     *
+     * @param in the scalars to invert.
+     * @return a new array with the inverses, in the same order.
+     */
+    public static Ed25519Scalar[] batchInvert(Ed25519Scalar[] in) {
+        final int n = in.length;
+        final Ed25519Scalar[] out = new Ed25519Scalar[n];
+        final Ed25519Scalar[] x = new Ed25519Scalar[n];
+        final int[] zero = new int[n];
+
+        // out[i] = x[0] * ... * x[i-1], with zeroes replaced by one
+        Ed25519Scalar acc = ONE;
+        for (int i = 0; i < n; i++) {
+            zero[i] = in[i].isZero();
+            x[i] = in[i].cmov(ONE, zero[i]);
+            out[i] = acc;
+            acc = acc.multiply(x[i]);
+        }
+
+        // acc = 1 / (x[0] * ... * x[n-1])
+        acc = acc.invert();
+        for (int i = n - 1; i >= 0; i--) {
+            final Ed25519Scalar inv = acc.multiply(out[i]);
+            acc = acc.multiply(x[i]);
+            out[i] = inv.cmov(ZERO, zero[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Constant-time conditional move.
+     *
+     * @param val the other scalar.
+     * @param b must be 0 or 1, otherwise results are undefined.
+     * @return a copy of this if $b == 0$, or a copy of val if $b == 1$.
+     */
+    public Ed25519Scalar cmov(Ed25519Scalar val, int b) {
+        final long m = -b;
+        final long[] r = new long[LIMBS];
+        for (int i = 0; i < LIMBS; i++)
+            r[i] = s[i] ^ ((s[i] ^ val.s[i]) & m);
+        return new Ed25519Scalar(r);
+    }
+
+    /**
+     * Splits a little-endian integer into n limbs of 21 bits, the last limb
+     * taking all remaining bits.
+     */
+    private static long[] limbs(byte[] b, int n) {
+        final long[] r = new long[n];
+        for (int i = 0; i < n; i++) {
+            final int bit = 21 * i;
+            long v = 0;
+            for (int k = 0, j = bit >> 3; k < 4 && j < b.length; k++, j++)
+                v |= (long) (b[j] & 0xff) << (8 * k);
+            r[i] = v >>> (bit & 7);
+            if (i < n - 1)
+                r[i] &= MASK;
+            else
+                for (int j = (bit >> 3) + 4; j < b.length; j++)
+                    r[i] |= (long) (b[j] & 0xff) << (8 * (j - (bit >> 3)) - (bit & 7));
+        }
+        return r;
+    }
+
+    /**
+     * Schoolbook product of two 12 limb values into 24 limbs, the last one
+     * zero.
+     */
+    private static long[] mul(long[] a, long[] b) {
+        final long[] t = new long[2 * LIMBS];
+        for (int i = 0; i < LIMBS; i++)
+            for (int j = 0; j < LIMBS; j++)
+                t[i + j] += a[i] * b[j];
+        return t;
+    }
+
+    /**
+     * Brings the limbs of a product back to about 21 bits before reduction.
+     */
+    private static long[] carryProduct(long[] t) {
+        for (int i = 0; i <= 22; i += 2)
+            carryRound(t, i);
+        for (int i = 1; i <= 21; i += 2)
+            carryRound(t, i);
+        return t;
+    }
+
+    /**
+     * Reduces a 24 limb value modulo $q$, with the steps of
+     * {@link Ed25519ScalarOps#reduce(byte[])}.
+     *
+     * @param t 24 limbs of about 21 bits, may be negative; overwritten.
+     * @return the 12 fully reduced limbs.
+     */
+    private static long[] reduce(long[] t) {
+        for (int i = 23; i >= 18; i--)
+            fold(t, i);
+        for (int i = 6; i <= 16; i += 2)
+            carryRound(t, i);
+        for (int i = 7; i <= 15; i += 2)
+            carryRound(t, i);
+        for (int i = 17; i >= 12; i--)
+            fold(t, i);
+        for (int i = 0; i <= 10; i += 2)
+            carryRound(t, i);
+        for (int i = 1; i <= 11; i += 2)
+            carryRound(t, i);
+        fold(t, 12);
+        for (int i = 0; i <= 11; i++)
+            carryFloor(t, i);
+        fold(t, 12);
+        for (int i = 0; i <= 10; i++)
+            carryFloor(t, i);
+        return Arrays.copyOf(t, LIMBS);
+    }
+
+    /**
+     * Replaces $t[i] 2^{21 i}$ by an equivalent value modulo $q$ in the
+     * limbs $i - 12, \dots, i - 7$, using
+     * $2^{252} \equiv -27742317777372353535851937790883648493$.
+     */
+    private static void fold(long[] t, int i) {
+        t[i - 12] += t[i] * 666643;
+        t[i - 11] += t[i] * 470296;
+        t[i - 10] += t[i] * 654183;
+        t[i - 9] -= t[i] * 997805;
+        t[i - 8] += t[i] * 136657;
+        t[i - 7] -= t[i] * 683901;
+        t[i] = 0;
+    }
+
+    private static void carryRound(long[] t, int i) {
+        final long carry = (t[i] + (1 << 20)) >> 21;
+        t[i + 1] += carry;
+        t[i] -= carry << 21;
+    }
+
+    private static void carryFloor(long[] t, int i) {
+        final long carry = t[i] >> 21;
+        t[i + 1] += carry;
+        t[i] -= carry << 21;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(s);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Ed25519Scalar))
+            return false;
+        Ed25519Scalar other = (Ed25519Scalar) obj;
+        return Utils.equal(toByteArray(), other.toByteArray()) == 1;
+    }
+
+    @Override
+    public String toString() {
+        return "[Ed25519Scalar val=" + Utils.bytesToHex(toByteArray()) + "]";
+    }
+}
@@ -11,6 +11,8 @@
  */
 package net.i2p.crypto.eddsa.math.ed25519;
 
+import java.io.Serializable;
+
 import net.i2p.crypto.eddsa.math.ScalarOps;
 import static net.i2p.crypto.eddsa.math.ed25519.Ed25519LittleEndianEncoding.load_3;
 import static net.i2p.crypto.eddsa.math.ed25519.Ed25519LittleEndianEncoding.load_4;
@@ -23,7 +25,8 @@ import static net.i2p.crypto.eddsa.math.ed25519.Ed25519LittleEndianEncoding.load
  * <p>
  * Reviewed/commented by Bloody Rookie (nemproject@gmx.de)
  */
-public class Ed25519ScalarOps implements ScalarOps {
+public class Ed25519ScalarOps implements ScalarOps, Serializable {
+    private static final long serialVersionUID = 2648172340875918252L;
 
     /**
      * Reduction modulo the group order $q$.
@@ -0,0 +1,397 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.Curve;
+import net.i2p.crypto.eddsa.math.Field;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.FixedBaseTable;
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+
+/**
+ * An element of the ristretto255 prime-order group, represented by an
+ * Ed25519 point.
+ * <p>
+ * Each element corresponds to a coset of the 4-torsion subgroup; encoding
+ * picks a canonical representative so that equal elements have equal
+ * encodings, and decoding only accepts canonical encodings. Protocols built
+ * on this class need no cofactor handling.
+ * <p>
+ * Group operations are those of {@link GroupElement}: multiplication by the
+ * generator uses the Ed25519 fixed-base table, and multiplications by other
+ * elements use {@link GroupElement#scalarMultiplyVariableBase(byte[])} or
+ * {@link FixedBaseTable}.
+ * <p>
+ * Scalars are 32 byte little-endian values reduced modulo the group order.
+ * <p>
+ * This class is a supported public API, and its package is exported by the
+ * OSGi bundle. The methods which take or return a {@link GroupElement} or
+ * {@link FixedBaseTable} use types of the unexported math package; they are
+ * not for external use and not maintained as a public API.
+ * <p>
+ * Ref: https://www.rfc-editor.org/rfc/rfc9496
+ *
+ * @author str4d
+ *
+ */
+public final class RistrettoElement {
+    private static final EdDSANamedCurveSpec ED_25519_SPEC = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    private static final Curve curve = ED_25519_SPEC.getCurve();
+    private static final Field f = curve.getField();
+
+    static final FieldElement SQRT_M1 = curve.getI();
+    static final FieldElement SQRT_AD_MINUS_ONE = f.fromByteArray(Utils.hexToBytes("1b2e7b49a0f6977ebd54781b0c8e9daffdd1f531c9fc3c0fac48832bbf316937"));
+    static final FieldElement INVSQRT_A_MINUS_D = f.fromByteArray(Utils.hexToBytes("ea405d80aafdc899be72415a17162f9d40d801fe917bc216a2fcafcf05896c78"));
+    static final FieldElement ONE_MINUS_D_SQ = f.fromByteArray(Utils.hexToBytes("76c15f94c1097ce20f355ecd38a1812ce4df70beddab9499d7e0b3b2a8729002"));
+    static final FieldElement D_MINUS_ONE_SQ = f.fromByteArray(Utils.hexToBytes("204ded44aa5aad3199191eb02c4a9ed2eb4e9b522fd3dc4c41226cf67ab36859"));
+
+    /**
+     * The neutral element.
+     */
+    public static final RistrettoElement IDENTITY = new RistrettoElement(curve.getZero(GroupElement.Representation.P3));
+
+    /**
+     * The generator, which is the Ed25519 base point.
+     */
+    public static final RistrettoElement GENERATOR = new RistrettoElement(ED_25519_SPEC.getB());
+
+    private final GroupElement P;
+
+    /**
+     * @param P an Ed25519 point in P3 representation whose coset is in the
+     * image of {@link #decode(byte[])}.
+     */
+    RistrettoElement(GroupElement P) {
+        this.P = P;
+    }
+
+    /**
+     * @return 1 if a and b represent the same field element, 0 otherwise.
+     */
+    static int ctEqual(FieldElement a, FieldElement b) {
+        return a.subtract(b).isZero();
+    }
+
+    /**
+     * @return 1 if a is negative, 0 otherwise.
+     */
+    static int ctIsNegative(FieldElement a) {
+        return a.isNegative() ? 1 : 0;
+    }
+
+    /**
+     * @return $|a|$, i.e. $-a$ if a is negative, else a.
+     */
+    static FieldElement abs(FieldElement a) {
+        return a.cmov(a.negate(), ctIsNegative(a));
+    }
+
+    /**
+     * Decodes a ristretto255 element, RFC 9496 section 4.3.1.
+     *
+     * @param s the 32 byte encoding.
+     * @return the element.
+     * @throws IllegalArgumentException if s is not a canonical encoding of
+     * an element.
+     */
+    public static RistrettoElement decode(byte[] s) {
+        if (s.length != 32)
+            throw new IllegalArgumentException("Invalid encoding length");
+        final FieldElement sf = f.fromByteArray(s);
+        // s must be canonical and non-negative
+        final int canonical = Utils.equal(sf.toByteArray(), s);
+        final int negative = ctIsNegative(sf);
+
+        final FieldElement ss = sf.square();
+        final FieldElement u1 = f.ONE.subtract(ss);
+        final FieldElement u2 = f.ONE.add(ss);
+        final FieldElement u2Sqr = u2.square();
+        // v = -(D u1^2) - u2^2
+        final FieldElement v = curve.getD().multiply(u1.square()).negate().subtract(u2Sqr);
+
+        final FieldElement.SqrtRatio invsqrt = curve.sqrtRatio(f.ONE, v.multiply(u2Sqr));
+        final FieldElement denX = invsqrt.getRoot().multiply(u2);
+        final FieldElement denY = invsqrt.getRoot().multiply(denX).multiply(v);
+
+        final FieldElement x = abs(sf.add(sf).multiply(denX));
+        final FieldElement y = u1.multiply(denY);
+        final FieldElement t = x.multiply(y);
+
+        final int yZero = y.isZero();
+        if ((canonical & (1 - negative) & invsqrt.wasSquare() & (1 - ctIsNegative(t)) & (1 - yZero)) == 0)
+            throw new IllegalArgumentException("Invalid ristretto255 encoding");
+        return new RistrettoElement(GroupElement.p3(curve, x, y, f.ONE, t, false));
+    }
+
+    /**
+     * Encodes this element, RFC 9496 section 4.3.2.
+     *
+     * @return the 32 byte canonical encoding.
+     */
+    public byte[] encode() {
+        final FieldElement x0 = P.getX();
+        final FieldElement y0 = P.getY();
+        final FieldElement z0 = P.getZ();
+        final FieldElement t0 = P.getT();
+
+        final FieldElement u1 = z0.add(y0).multiply(z0.subtract(y0));
+        final FieldElement u2 = x0.multiply(y0);
+        final FieldElement.SqrtRatio invsqrt = curve.sqrtRatio(f.ONE, u1.multiply(u2.square()));
+        final FieldElement den1 = invsqrt.getRoot().multiply(u1);
+        final FieldElement den2 = invsqrt.getRoot().multiply(u2);
+        final FieldElement zInv = den1.multiply(den2).multiply(t0);
+
+        final FieldElement ix0 = x0.multiply(SQRT_M1);
+        final FieldElement iy0 = y0.multiply(SQRT_M1);
+        final FieldElement enchantedDenominator = den1.multiply(INVSQRT_A_MINUS_D);
+        final int rotate = ctIsNegative(t0.multiply(zInv));
+
+        final FieldElement x = x0.cmov(iy0, rotate);
+        FieldElement y = y0.cmov(ix0, rotate);
+        final FieldElement denInv = den2.cmov(enchantedDenominator, rotate);
+
+        y = y.cmov(y.negate(), ctIsNegative(x.multiply(zInv)));
+        return abs(denInv.multiply(z0.subtract(y))).toByteArray();
+    }
+
+    /**
+     * Computes the encodings of $2 P_i$ for all given elements $P_i$ with a
+     * single field inversion. This is faster than calling
+     * {@link #encode()} on each doubled element, which needs one
+     * exponentiation per element.
+     * <p>
+     * Protocols can use this by working with halved elements, as e.g.
+     * batched key generation does.
+     * <p>
+     * Ref: curve25519-dalek, RistrettoPoint::double_and_compress_batch()
+     *
+     * @param points the elements.
+     * @return the encodings of the doubled elements, in the same order.
+     */
+    public static byte[][] doubleAndEncodeBatch(RistrettoElement[] points) {
+        final int n = points.length;
+        final FieldElement[] e = new FieldElement[n];
+        final FieldElement[] fv = new FieldElement[n];
+        final FieldElement[] g = new FieldElement[n];
+        final FieldElement[] h = new FieldElement[n];
+        final FieldElement[] eg = new FieldElement[n];
+        final FieldElement[] fh = new FieldElement[n];
+        final FieldElement[] efgh = new FieldElement[n];
+        for (int i = 0; i < n; i++) {
+            final GroupElement P = points[i].P;
+            final FieldElement xx = P.getX().square();
+            final FieldElement yy = P.getY().square();
+            final FieldElement zz = P.getZ().square();
+            final FieldElement dtt = P.getT().square().multiply(curve.getD());
+            e[i] = P.getX().multiply(P.getY().add(P.getY()));
+            fv[i] = zz.add(dtt);
+            g[i] = yy.add(xx);
+            h[i] = zz.subtract(dtt);
+            eg[i] = e[i].multiply(g[i]);
+            fh[i] = fv[i].multiply(h[i]);
+            efgh[i] = eg[i].multiply(fh[i]);
+        }
+
+        final FieldElement[] invs = f.batchInvert(efgh);
+
+        final byte[][] out = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            final FieldElement zInv = eg[i].multiply(invs[i]);
+            final FieldElement tInv = fh[i].multiply(invs[i]);
+
+            final int negcheck1 = ctIsNegative(eg[i].multiply(zInv));
+            final FieldElement ei = e[i].cmov(g[i], negcheck1);
+            FieldElement gi = g[i].cmov(e[i].negate(), negcheck1);
+            final FieldElement hi = h[i].cmov(fv[i].multiply(SQRT_M1), negcheck1);
+            final FieldElement magic = INVSQRT_A_MINUS_D.cmov(SQRT_M1, negcheck1);
+
+            final int negcheck2 = ctIsNegative(hi.multiply(ei).multiply(zInv));
+            gi = gi.cmov(gi.negate(), negcheck2);
+
+            out[i] = abs(hi.subtract(gi).multiply(magic.multiply(gi.multiply(tInv)))).toByteArray();
+        }
+        return out;
+    }
+
+    /**
+     * The ristretto255 map from a field element to an element,
+     * RFC 9496 section 4.3.4.
+     */
+    static GroupElement map(FieldElement t) {
+        final FieldElement d = curve.getD();
+        final FieldElement r = SQRT_M1.multiply(t.square());
+        final FieldElement u = r.add(f.ONE).multiply(ONE_MINUS_D_SQ);
+        final FieldElement v = f.ONE.negate().subtract(r.multiply(d)).multiply(r.add(d));
+
+        final FieldElement.SqrtRatio sr = curve.sqrtRatio(u, v);
+        final FieldElement sPrime = abs(sr.getRoot().multiply(t)).negate();
+        final FieldElement s = sPrime.cmov(sr.getRoot(), sr.wasSquare());
+        final FieldElement c = r.cmov(f.ONE.negate(), sr.wasSquare());
+
+        final FieldElement N = c.multiply(r.subtract(f.ONE)).multiply(D_MINUS_ONE_SQ).subtract(v);
+        final FieldElement ss = s.square();
+        final FieldElement w0 = s.add(s).multiply(v);
+        final FieldElement w1 = N.multiply(SQRT_AD_MINUS_ONE);
+        final FieldElement w2 = f.ONE.subtract(ss);
+        final FieldElement w3 = f.ONE.add(ss);
+        return GroupElement.p3(curve, w0.multiply(w3), w2.multiply(w1), w1.multiply(w3), w0.multiply(w2), false);
+    }
+
+    /**
+     * Derives an element from 64 uniformly random bytes, RFC 9496
+     * section 4.3.4. Compatible with libsodium's
+     * crypto_core_ristretto255_from_hash().
+     * <p>
+     * The discrete logarithm of the result is unknown. Constant time.
+     *
+     * @param b 64 bytes, e.g. the output of SHA-512.
+     * @return the element.
+     */
+    public static RistrettoElement fromUniformBytes(byte[] b) {
+        if (b.length != 64)
+            throw new IllegalArgumentException("Need 64 bytes");
+        // The decoding masks out the most significant bit.
+        final GroupElement P1 = map(f.fromByteArray(Arrays.copyOfRange(b, 0, 32)));
+        final GroupElement P2 = map(f.fromByteArray(Arrays.copyOfRange(b, 32, 64)));
+        return new RistrettoElement(P1.add(P2.toCached()).toP3());
+    }
+
+    /**
+     * Hashes data to an element as fromUniformBytes(SHA-512(data)).
+     *
+     * @param data the data to hash.
+     * @return the element.
+     */
+    public static RistrettoElement hashToGroup(byte[] data) {
+        try {
+            return fromUniformBytes(MessageDigest.getInstance("SHA-512").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-512 not available", e);
+        }
+    }
+
+    /**
+     * Computes $a G$ for the generator $G$ using the Ed25519 fixed-base
+     * table. Constant time.
+     *
+     * @param a the reduced scalar.
+     * @return the element.
+     */
+    public static RistrettoElement multiplyGenerator(byte[] a) {
+        return new RistrettoElement(ED_25519_SPEC.getB().scalarMultiply(a));
+    }
+
+    /**
+     * Computes $a P + b G$ for this element $P$ and the generator $G$.
+     * <p>
+     * <strong>Not constant time</strong>, only for public scalars, e.g.
+     * in signature verification.
+     *
+     * @param a the reduced scalar for this element.
+     * @param b the reduced scalar for the generator.
+     * @return the element.
+     */
+    public RistrettoElement doubleMultiplyVariableTime(byte[] a, byte[] b) {
+        final GroupElement r = ED_25519_SPEC.getB().doubleScalarMultiplyVariableTime(
+                GroupElement.p3(curve, P.getX(), P.getY(), P.getZ(), P.getT(), true), a, b);
+        // P2 to P3: (XZ : YZ : Z^2 : XY)
+        return new RistrettoElement(GroupElement.p3(curve, r.getX().multiply(r.getZ()), r.getY().multiply(r.getZ()),
+                r.getZ().square(), r.getX().multiply(r.getY()), false));
+    }
+
+    /**
+     * Computes $a P$ for this element $P$. Constant time.
+     * <p>
+     * For an element that is multiplied many times, use
+     * {@link #getFixedBaseTable()}.
+     *
+     * @param a the reduced scalar.
+     * @return the element.
+     */
+    public RistrettoElement multiply(byte[] a) {
+        return new RistrettoElement(P.scalarMultiplyVariableBase(a));
+    }
+
+    /**
+     * @return the fixed-base table for this element, see
+     * {@link FixedBaseTable#getInstance(GroupElement)}.
+     */
+    public FixedBaseTable getFixedBaseTable() {
+        return FixedBaseTable.getInstance(P);
+    }
+
+    /**
+     * Wraps a fixed-base table result.
+     *
+     * @param table a table obtained from {@link #getFixedBaseTable()}.
+     * @param a the reduced scalar.
+     * @return $a P$ for the element $P$ of the table.
+     */
+    public static RistrettoElement multiply(FixedBaseTable table, byte[] a) {
+        return new RistrettoElement(table.scalarMultiply(a));
+    }
+
+    public RistrettoElement add(RistrettoElement q) {
+        return new RistrettoElement(P.add(q.P.toCached()).toP3());
+    }
+
+    public RistrettoElement subtract(RistrettoElement q) {
+        return new RistrettoElement(P.sub(q.P.toCached()).toP3());
+    }
+
+    public RistrettoElement negate() {
+        return new RistrettoElement(GroupElement.p3(curve, P.getX().negate(), P.getY(), P.getZ(), P.getT().negate(), false));
+    }
+
+    public RistrettoElement dbl() {
+        return new RistrettoElement(P.dbl().toP3());
+    }
+
+    /**
+     * @return the Ed25519 point representing this element, in P3
+     * representation. Points of the same coset represent the same element.
+     */
+    public GroupElement getElement() {
+        return P;
+    }
+
+    /**
+     * Constant-time equality, RFC 9496 section 4.3.3:
+     * $x_1 y_2 = y_1 x_2$ or $y_1 y_2 = x_1 x_2$.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RistrettoElement))
+            return false;
+        final GroupElement Q = ((RistrettoElement) obj).P;
+        final int c1 = ctEqual(P.getX().multiply(Q.getY()), P.getY().multiply(Q.getX()));
+        final int c2 = ctEqual(P.getY().multiply(Q.getY()), P.getX().multiply(Q.getX()));
+        return (c1 | c2) == 1;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(encode());
+    }
+
+    @Override
+    public String toString() {
+        return "[RistrettoElement val=" + Utils.bytesToHex(encode()) + "]";
+    }
+}
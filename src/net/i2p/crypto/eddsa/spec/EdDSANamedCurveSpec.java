@@ -11,6 +11,10 @@
  */
 package net.i2p.crypto.eddsa.spec;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+
 import net.i2p.crypto.eddsa.math.Curve;
 import net.i2p.crypto.eddsa.math.GroupElement;
 import net.i2p.crypto.eddsa.math.ScalarOps;
@@ -32,4 +36,44 @@ public class EdDSANamedCurveSpec extends EdDSAParameterSpec {
     public String getName() {
         return name;
     }
+
+    /**
+     * The instances in {@link EdDSANamedCurveTable} are serialized by name
+     * only, instead of with the curve and its precomputed tables.
+     *
+     * @return a serialized form holding the name, or this.
+     */
+    private Object writeReplace() {
+        return EdDSANamedCurveTable.getByName(name) == this ? new SerializedName(name) : this;
+    }
+
+    /**
+     * Deserializes to the instance from {@link EdDSANamedCurveTable} if
+     * that has the same name and parameters, so that keys read from a
+     * stream share it and its precomputed tables, and comparing their
+     * parameters takes the identity shortcut of
+     * {@link EdDSAParameterSpec#equals(Object)}.
+     *
+     * @return the interned instance, or this.
+     */
+    private Object readResolve() {
+        final EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(name);
+        return spec != null && spec.getName().equals(name) && spec.equals(this) ? spec : this;
+    }
+
+    private static final class SerializedName implements Serializable {
+        private static final long serialVersionUID = -2311587962271364208L;
+        private final String name;
+
+        SerializedName(String name) {
+            this.name = name;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            final EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(name);
+            if (spec == null)
+                throw new InvalidObjectException("unknown curve " + name);
+            return spec;
+        }
+    }
 }
@@ -26,7 +26,11 @@ public class EdDSAPrivateKeySpec implements KeySpec {
     private final byte[] seed;
     private final byte[] h;
     private final byte[] a;
-    private final GroupElement A;
+    private volatile GroupElement A;
+    /**
+     *  The trusted encoding of A, or null if A was computed.
+     */
+    private final byte[] Abyte;
     private final EdDSAParameterSpec spec;
 
     /**
@@ -35,11 +39,31 @@ public class EdDSAPrivateKeySpec implements KeySpec {
      *  @throws IllegalArgumentException if seed length is wrong or hash algorithm is unsupported
      */
     public EdDSAPrivateKeySpec(byte[] seed, EdDSAParameterSpec spec) {
+        this(seed, null, spec);
+    }
+
+    /**
+     *  Initialize from the seed and a stored public key, e.g. from a
+     *  PKCS#8 v2 encoding, which is trusted to belong to the seed.
+     *  This defers the scalar multiplication for A; A is only decoded
+     *  from Abyte when getA() is first called. An EdDSAPrivateKey made
+     *  from this spec checks Abyte against the seed once, before its
+     *  first signature, and refuses to sign if it does not match.
+     *
+     *  @param seed the private key
+     *  @param Abyte the encoded public key, or null to compute it from the seed
+     *  @param spec the parameter specification for this key
+     *  @throws IllegalArgumentException if seed or Abyte length is wrong or hash algorithm is unsupported
+     */
+    public EdDSAPrivateKeySpec(byte[] seed, byte[] Abyte, EdDSAParameterSpec spec) {
         if (seed.length != spec.getCurve().getField().getb()/8)
             throw new IllegalArgumentException("seed length is wrong");
+        if (Abyte != null && Abyte.length != spec.getCurve().getField().getb()/8)
+            throw new IllegalArgumentException("public key length is wrong");
 
         this.spec = spec;
         this.seed = seed;
+        this.Abyte = Abyte;
 
         try {
             MessageDigest hash = MessageDigest.getInstance(spec.getHashAlgorithm());
@@ -59,7 +83,8 @@ public class EdDSAPrivateKeySpec implements KeySpec {
             h[(b/8)-1] |= 64;
             a = Arrays.copyOfRange(h, 0, b/8);
 
-            A = spec.getB().scalarMultiply(a);
+            if (Abyte == null)
+                A = spec.getB().scalarMultiply(a);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException("Unsupported hash algorithm");
         }
@@ -80,6 +105,7 @@ public class EdDSAPrivateKeySpec implements KeySpec {
 
 	this.seed = null;
 	this.h = h;
+	this.Abyte = null;
 	this.spec = spec;
 	int b = spec.getCurve().getField().getb();
 
@@ -96,6 +122,7 @@ public class EdDSAPrivateKeySpec implements KeySpec {
         this.h = h;
         this.a = a;
         this.A = A;
+        this.Abyte = null;
         this.spec = spec;
     }
 
@@ -122,9 +149,31 @@ public class EdDSAPrivateKeySpec implements KeySpec {
 
     /**
      *  @return the public key
+     *  @throws IllegalArgumentException if a trusted encoding of it is not a valid point
      */
     public GroupElement getA() {
-        return A;
+        GroupElement rv = A;
+        if (rv == null) {
+            rv = new GroupElement(spec.getCurve(), Abyte);
+            A = rv;
+        }
+        return rv;
+    }
+
+    /**
+     *  @return the encoded public key
+     */
+    public byte[] getAbyte() {
+        return Abyte != null ? Abyte : A.toByteArray();
+    }
+
+    /**
+     *  @return true if the public key was given to
+     *          {@link #EdDSAPrivateKeySpec(byte[], byte[], EdDSAParameterSpec)}
+     *          rather than computed from the private key
+     */
+    public boolean isPublicKeyTrusted() {
+        return Abyte != null;
     }
 
     public EdDSAParameterSpec getParams() {
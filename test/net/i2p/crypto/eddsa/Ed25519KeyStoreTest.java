@@ -0,0 +1,138 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author str4d
+ *
+ */
+public class Ed25519KeyStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<KeyPair> generate(int n) {
+        KeyPairGenerator g = new KeyPairGenerator();
+        List<KeyPair> rv = new ArrayList<KeyPair>();
+        for (int i = 0; i < n; i++)
+            rv.add(g.generateKeyPair());
+        return rv;
+    }
+
+    @Test
+    public void testPublicKeyStore() throws Exception {
+        List<KeyPair> pairs = generate(50);
+        List<EdDSAPublicKey> keys = new ArrayList<EdDSAPublicKey>();
+        for (KeyPair p : pairs)
+            keys.add((EdDSAPublicKey) p.getPublic());
+        File f = folder.newFile("public.ks");
+        Ed25519KeyStore.writePublicKeys(f, keys);
+        assertThat(f.length(), is(12L + 50 * 32));
+
+        Ed25519KeyStore ks = Ed25519KeyStore.open(f);
+        assertThat(ks.size(), is(50));
+        assertThat(ks.hasPrivateKeys(), is(false));
+        for (EdDSAPublicKey key : keys) {
+            int i = ks.indexOf(key.getAbyte());
+            assertThat(i, is(greaterThanOrEqualTo(0)));
+            assertThat(ks.getPublicKey(i), is(equalTo(key)));
+            assertThat(ks.findPublicKey(key.getAbyte()), is(equalTo(key)));
+        }
+        // Sorted by public key
+        for (int i = 1; i < ks.size(); i++)
+            assertThat(new BigInteger(1, ks.getAbyte(i - 1)).compareTo(new BigInteger(1, ks.getAbyte(i))), is(lessThan(0)));
+        assertThat(ks.findPublicKey(new byte[32]), is(nullValue()));
+    }
+
+    @Test
+    public void testPrivateKeyStore() throws Exception {
+        List<KeyPair> pairs = generate(20);
+        List<EdDSAPrivateKey> keys = new ArrayList<EdDSAPrivateKey>();
+        for (KeyPair p : pairs)
+            keys.add((EdDSAPrivateKey) p.getPrivate());
+        File f = folder.newFile("private.ks");
+        Ed25519KeyStore.writePrivateKeys(f, keys);
+
+        Ed25519KeyStore ks = Ed25519KeyStore.open(f);
+        assertThat(ks.size(), is(20));
+        assertThat(ks.hasPrivateKeys(), is(true));
+        for (KeyPair p : pairs) {
+            EdDSAPublicKey pub = (EdDSAPublicKey) p.getPublic();
+            EdDSAPrivateKey key = ks.findPrivateKey(pub.getAbyte());
+            assertThat(key, is(equalTo(p.getPrivate())));
+            assertThat(key.getAbyte(), is(equalTo(pub.getAbyte())));
+            assertThat(key.checkPublicKey(), is(true));
+            assertThat(ks.getPrivateKey(ks.indexOf(pub.getAbyte()), true), is(equalTo(p.getPrivate())));
+            assertThat(ks.findPublicKey(pub.getAbyte()), is(equalTo((Object) pub)));
+        }
+    }
+
+    @Test
+    public void testTamperedPrivateKeyIsChecked() throws Exception {
+        List<EdDSAPrivateKey> keys = new ArrayList<EdDSAPrivateKey>();
+        keys.add((EdDSAPrivateKey) generate(1).get(0).getPrivate());
+        File f = folder.newFile("private.ks");
+        Ed25519KeyStore.writePrivateKeys(f, keys);
+        RandomAccessFile raf = new RandomAccessFile(f, "rw");
+        raf.seek(12);
+        raf.write(EdDSAPrivateKeyTest.OTHER_PUBKEY);
+        raf.close();
+
+        Ed25519KeyStore ks = Ed25519KeyStore.open(f);
+        EdDSAPrivateKeyTest.assertRefusesToSign(ks.getPrivateKey(0));
+        try {
+            ks.getPrivateKey(0, true);
+            fail("tampered public key was accepted");
+        } catch (IllegalStateException expected) {}
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateKeysAreRejected() throws Exception {
+        EdDSAPublicKey key = (EdDSAPublicKey) generate(1).get(0).getPublic();
+        Ed25519KeyStore.writePublicKeys(folder.newFile("dup.ks"), Arrays.asList(key, key));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPublicKeyStoreHasNoPrivateKeys() throws Exception {
+        File f = folder.newFile("public.ks");
+        Ed25519KeyStore.writePublicKeys(f, new ArrayList<EdDSAPublicKey>());
+        Ed25519KeyStore.open(f).findPrivateKey(new byte[32]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFileIsRejected() throws Exception {
+        List<EdDSAPublicKey> keys = new ArrayList<EdDSAPublicKey>();
+        keys.add((EdDSAPublicKey) generate(1).get(0).getPublic());
+        File f = folder.newFile("public.ks");
+        Ed25519KeyStore.writePublicKeys(f, keys);
+        FileOutputStream out = new FileOutputStream(f, true);
+        out.write(0);
+        out.close();
+        Ed25519KeyStore.open(f);
+    }
+}
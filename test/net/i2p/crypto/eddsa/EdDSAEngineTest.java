@@ -16,6 +16,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.nio.charset.Charset;
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -23,6 +24,8 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.cert.X509Certificate;
 
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.MathUtils;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
 import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
@@ -82,6 +85,31 @@ public class EdDSAEngineTest {
         }
     }
 
+    @Test
+    public void testVerifyCompactKey() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PublicKey vKey = new EdDSAPublicKey(TEST_PK, spec);
+        for (int i = 0; i < 2; i++) {
+            sgr.initVerify(vKey);
+            sgr.update(TEST_MSG);
+            assertThat("verify failed", sgr.verify(TEST_MSG_SIG), is(true));
+        }
+
+        // A y for which there is no x
+        byte[] invalid = new byte[32];
+        for (invalid[0] = 2; ; invalid[0]++) {
+            try {
+                new GroupElement(spec.getCurve(), invalid);
+            } catch (IllegalArgumentException expected) {
+                break;
+            }
+        }
+        sgr.initVerify(new EdDSAPublicKey(invalid, spec));
+        sgr.update(TEST_MSG);
+        assertThat("invalid key verified", sgr.verify(TEST_MSG_SIG), is(false));
+    }
+
     /**
      * Checks that a wrong-length signature throws an IAE.
      */
@@ -235,4 +263,94 @@ public class EdDSAEngineTest {
                     sgr.verify(testCase.sig), is(true));
         }
     }
+
+    @Test
+    public void testVerifyX509PublicKeyInfoNotOnCurve() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName("Ed25519");
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        PublicKey x509Key = X509Key.parse(new DerValue(EdDSAPublicKeyTest.TEST_PUBKEY_NOT_ON_CURVE));
+        exception.expect(InvalidKeyException.class);
+        sgr.initVerify(x509Key);
+    }
+
+    @Test
+    public void testVerifyCofactoredMode() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        Signature sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        for (Ed25519TestVectors.TestTuple testCase : Ed25519TestVectors.testCases) {
+            EdDSAPublicKeySpec pubKey = new EdDSAPublicKeySpec(testCase.pk, spec);
+            PublicKey vKey = new EdDSAPublicKey(pubKey);
+            sgr.initVerify(vKey);
+            sgr.setParameter(EdDSAEngine.COFACTORED_VERIFY_MODE);
+
+            sgr.update(testCase.message);
+
+            assertThat("Test case " + testCase.caseNum + " failed",
+                    sgr.verify(testCase.sig), is(true));
+        }
+
+        byte[] sig = TEST_MSG_SIG.clone();
+        sig[40] ^= 1;
+        EdDSAEngine engine = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        engine.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+        engine.setParameter(EdDSAEngine.COFACTORED_VERIFY_MODE);
+        assertThat(engine.verifyOneShot(TEST_MSG, sig), is(false));
+        assertThat(engine.verifyOneShot(TEST_MSG, TEST_MSG_SIG), is(true));
+    }
+
+    /**
+     * Signs TEST_MSG with the key of TEST_SEED and the given R = rB + T.
+     */
+    private static byte[] signWithR(EdDSAParameterSpec spec, byte[] r, byte[] Rbyte) throws Exception {
+        EdDSAPrivateKey sKey = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(TEST_SEED, spec));
+        MessageDigest digest = MessageDigest.getInstance(spec.getHashAlgorithm());
+        digest.update(Rbyte);
+        digest.update(TEST_PK);
+        byte[] k = spec.getScalarOps().reduce(digest.digest(TEST_MSG));
+        byte[] S = MathUtils.multiplyAndAddModGroupOrder(k, sKey.geta(), r);
+        byte[] sig = new byte[64];
+        System.arraycopy(Rbyte, 0, sig, 0, 32);
+        System.arraycopy(S, 0, sig, 32, 32);
+        return sig;
+    }
+
+    @Test
+    public void testCofactoredModeAcceptsSmallOrderComponentInR() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        // (0, -1), of order 2
+        GroupElement T = new GroupElement(spec.getCurve(), Utils.hexToBytes("ecffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f"));
+        byte[] r = MathUtils.reduceModGroupOrder(MathUtils.getRandomByteArray(64));
+        byte[] Rbyte = spec.getB().scalarMultiply(r).add(T.toCached()).toByteArray();
+        byte[] sig = signWithR(spec, r, Rbyte);
+
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+        assertThat(sgr.verifyOneShot(TEST_MSG, sig), is(false));
+        sgr.setParameter(EdDSAEngine.COFACTORED_VERIFY_MODE);
+        assertThat(sgr.verifyOneShot(TEST_MSG, sig), is(true));
+        assertThat(sgr.verifyOneShot(TEST_MSG, sig), is(true));
+
+        // The next initVerify() restores the default check
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+        assertThat(sgr.verifyOneShot(TEST_MSG, sig), is(false));
+    }
+
+    @Test
+    public void testCofactoredModeRejectsNonCanonicalR() throws Exception {
+        EdDSAParameterSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance(spec.getHashAlgorithm()));
+        sgr.initVerify(new EdDSAPublicKey(new EdDSAPublicKeySpec(TEST_PK, spec)));
+        sgr.setParameter(EdDSAEngine.COFACTORED_VERIFY_MODE);
+        byte[] zero = new byte[32];
+
+        // R = identity
+        byte[] R = Utils.hexToBytes("0100000000000000000000000000000000000000000000000000000000000000");
+        assertThat(sgr.verifyOneShot(TEST_MSG, signWithR(spec, zero, R)), is(true));
+        // -0 is not canonical
+        R[31] |= (byte) 0x80;
+        assertThat(sgr.verifyOneShot(TEST_MSG, signWithR(spec, zero, R)), is(false));
+        // y = 1 + p is not canonical
+        R = Utils.hexToBytes("eeffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f");
+        assertThat(sgr.verifyOneShot(TEST_MSG, signWithR(spec, zero, R)), is(false));
+    }
 }
@@ -14,9 +14,19 @@ package net.i2p.crypto.eddsa;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SignatureException;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
 
 import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
 
 import org.junit.Test;
@@ -34,6 +44,30 @@ public class EdDSAPrivateKeyTest {
 
     static final byte[] TEST_PRIVKEY_NULL_PARAMS = Utils.hexToBytes("3030020100300706032b6570050004220420d4ee72dbf913584ad5b6d8f1f769f8ad3afe7c28cbf1d4fbe097a88f44755842");
     static final byte[] TEST_PRIVKEY_OLD = Utils.hexToBytes("302f020100300806032b65640a01010420d4ee72dbf913584ad5b6d8f1f769f8ad3afe7c28cbf1d4fbe097a88f44755842");
+    /**
+     * The same key as PKCS#8 v2 with the public key from RFC 8410 section 10.3
+     */
+    static final byte[] TEST_PRIVKEY_V2 = Utils.hexToBytes("3051020101300506032b657004220420d4ee72dbf913584ad5b6d8f1f769f8ad3afe7c28cbf1d4fbe097a88f44755842812100" +
+                                                          "19bf44096984cdfe8541bac167dc3b96c85086aa30b6b6cb0c5c38ad703166e1");
+    /**
+     * The public key of the RFC 8032 test 2 key, which does not belong to
+     * TEST_PRIVKEY
+     */
+    static final byte[] OTHER_PUBKEY = Utils.hexToBytes("3d4017c3e843895a92b70aa74d1b7ebc9c982ccf2ec4968cc0cd55f12af4660c");
+
+    /**
+     * Signs with a key and expects a SignatureException, as for a trusted
+     * public key which does not belong to the private key.
+     */
+    static void assertRefusesToSign(EdDSAPrivateKey key) throws Exception {
+        EdDSAEngine sgr = new EdDSAEngine(MessageDigest.getInstance("SHA-512"));
+        sgr.initSign(key);
+        sgr.update(new byte[] { 1, 2, 3 });
+        try {
+            sgr.sign();
+            fail("signed with a mismatched public key");
+        } catch (SignatureException expected) {}
+    }
 
     @Test
     public void testDecodeAndEncode() throws Exception {
@@ -91,4 +125,161 @@ public class EdDSAPrivateKeyTest {
         // Check
         assertThat(keyOut.getEncoded(), is(equalTo(TEST_PRIVKEY)));
     }
+
+    /**
+     * Expected values from libsodium's crypto_sign_ed25519_sk_to_curve25519()
+     * and crypto_sign_ed25519_pk_to_curve25519().
+     */
+    static final byte[] TEST_PRIVKEY_X25519 = Utils.hexToBytes("3074b2485f77f8a42e3b5fd9f9d99df959ba29a3c9e07615fd9d52a345268361");
+    static final byte[] TEST_PUBKEY_X25519 = Utils.hexToBytes("f8f22924b83f7cd9eee554c65642cfa44925283cb0d41f44ba2c95d1f189ab74");
+
+    @Test
+    public void testToX25519PrivateKey() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+        X25519PrivateKey xkey = key.toX25519PrivateKey();
+        assertThat(xkey.getK(), is(equalTo(TEST_PRIVKEY_X25519)));
+        assertThat(xkey.getU(), is(equalTo(TEST_PUBKEY_X25519)));
+        assertThat(new X25519PrivateKey(TEST_PRIVKEY_X25519).getU(), is(equalTo(TEST_PUBKEY_X25519)));
+        assertThat(key.toX25519PrivateKey(), is(sameInstance(xkey)));
+    }
+
+    @Test
+    public void testGetEncodedReturnsCopyOfCachedEncoding() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+        byte[] first = key.getEncoded();
+        first[first.length - 1] ^= 1;
+        assertThat(key.getEncoded(), is(equalTo(TEST_PRIVKEY)));
+        assertThat(key.getEncoded(), is(not(sameInstance(key.getEncoded()))));
+    }
+
+    static byte[] serialize(Object o) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(o);
+        oos.close();
+        return baos.toByteArray();
+    }
+
+    static Object deserialize(byte[] b) throws Exception {
+        return new ObjectInputStream(new ByteArrayInputStream(b)).readObject();
+    }
+
+    @Test
+    public void testDeserializedKeySharesNamedSpec() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+        EdDSAPrivateKey keyIn = (EdDSAPrivateKey) deserialize(serialize(key));
+
+        assertThat(keyIn.getParams(), is(sameInstance((Object) EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519))));
+        assertThat(keyIn, is(equalTo(key)));
+        assertThat(keyIn.getEncoded(), is(equalTo(TEST_PRIVKEY)));
+    }
+
+    @Test
+    public void testSerializedFormIsCompact() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+        byte[] ser = serialize(key);
+        assertThat(ser.length, is(lessThan(512)));
+        EdDSAPrivateKey keyIn = (EdDSAPrivateKey) deserialize(ser);
+        assertThat(keyIn, is(equalTo(key)));
+        assertThat(keyIn.getAbyte(), is(equalTo(key.getAbyte())));
+        assertThat(keyIn.geta(), is(equalTo(key.geta())));
+
+        // Keys without a seed are written with H
+        EdDSAPrivateKey hKey = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(key.getParams(), key.getH().clone()));
+        EdDSAPrivateKey hKeyIn = (EdDSAPrivateKey) deserialize(serialize(hKey));
+        assertThat(hKeyIn.getSeed(), is(nullValue()));
+        assertThat(hKeyIn.getH(), is(equalTo(key.getH())));
+        assertThat(hKeyIn.getAbyte(), is(equalTo(key.getAbyte())));
+    }
+
+    @Test
+    public void testTamperedSerializedPublicKeyIsCheckedBeforeSigning() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+        byte[] ser = serialize(key);
+        byte[] Abyte = key.getAbyte();
+        int i = 0;
+        while (!Arrays.equals(Arrays.copyOfRange(ser, i, i + Abyte.length), Abyte))
+            i++;
+        System.arraycopy(OTHER_PUBKEY, 0, ser, i, OTHER_PUBKEY.length);
+
+        EdDSAPrivateKey keyIn = (EdDSAPrivateKey) deserialize(ser);
+        assertThat(keyIn.getAbyte(), is(equalTo(OTHER_PUBKEY)));
+        assertRefusesToSign(keyIn);
+    }
+
+    @Test
+    public void testDecodeAndEncodeV2() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY_V2));
+        EdDSAPrivateKey keyV1 = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+
+        assertThat(key, is(equalTo(keyV1)));
+        assertThat(key.getAbyte(), is(equalTo(keyV1.getAbyte())));
+        assertThat(key.getEncoded(), is(equalTo(TEST_PRIVKEY)));
+        assertThat(key.getEncoded(true), is(equalTo(TEST_PRIVKEY_V2)));
+        assertThat(keyV1.getEncoded(true), is(equalTo(TEST_PRIVKEY_V2)));
+        assertThat(keyV1.getEncoded(false), is(equalTo(TEST_PRIVKEY)));
+    }
+
+    @Test
+    public void testTrustedDecodeUsesStoredPublicKey() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY_V2), true);
+        EdDSAPrivateKey keyV1 = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY), true);
+
+        assertThat(key.getAbyte(), is(equalTo(keyV1.getAbyte())));
+        assertThat(key.getA(), is(equalTo(keyV1.getA())));
+        assertThat(key.checkPublicKey(), is(true));
+        assertThat(keyV1.checkPublicKey(), is(true));
+        assertThat(key.getEncoded(true), is(equalTo(TEST_PRIVKEY_V2)));
+    }
+
+    @Test
+    public void testMismatchedPublicKey() throws Exception {
+        byte[] d = TEST_PRIVKEY_V2.clone();
+        System.arraycopy(OTHER_PUBKEY, 0, d, d.length - 32, 32);
+        try {
+            new EdDSAPrivateKey(new PKCS8EncodedKeySpec(d));
+            fail("mismatched public key was accepted");
+        } catch (InvalidKeySpecException expected) {}
+
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(d), true);
+        assertThat(key.checkPublicKey(), is(false));
+    }
+
+    @Test
+    public void testMismatchedTrustedPublicKeyIsCheckedBeforeSigning() throws Exception {
+        byte[] d = TEST_PRIVKEY_V2.clone();
+        System.arraycopy(OTHER_PUBKEY, 0, d, d.length - 32, 32);
+        assertRefusesToSign(new EdDSAPrivateKey(new PKCS8EncodedKeySpec(d), true));
+        assertRefusesToSign(EdDSAPrivateKey.decode(d, 0, d.length, true));
+
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new EdDSAPrivateKeySpec(
+                new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY)).getSeed(), OTHER_PUBKEY,
+                EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519)));
+        assertRefusesToSign(key);
+        // The result is cached, so the key keeps refusing
+        assertRefusesToSign(key);
+    }
+
+    @Test
+    public void testDecodeAndEncodeInPlace() throws Exception {
+        EdDSAPrivateKey key = new EdDSAPrivateKey(new PKCS8EncodedKeySpec(TEST_PRIVKEY));
+        byte[] buf = new byte[5 + TEST_PRIVKEY.length];
+        assertThat(key.getEncoded(buf, 5), is(TEST_PRIVKEY.length));
+        assertThat(EdDSAPrivateKey.decode(buf, 5, TEST_PRIVKEY.length), is(equalTo(key)));
+
+        ByteBuffer bb = ByteBuffer.allocateDirect(200);
+        assertThat(key.getEncoded(bb), is(TEST_PRIVKEY.length));
+        bb.put(TEST_PRIVKEY_V2);
+        bb.flip();
+        assertThat(EdDSAPrivateKey.decode(bb), is(equalTo(key)));
+        assertThat(EdDSAPrivateKey.decode(bb), is(equalTo(key)));
+        assertThat(bb.hasRemaining(), is(false));
+
+        bb = ByteBuffer.wrap(TEST_PRIVKEY, 0, TEST_PRIVKEY.length - 1);
+        try {
+            EdDSAPrivateKey.decode(bb);
+            fail("truncated key was accepted");
+        } catch (InvalidKeySpecException expected) {}
+        assertThat(bb.position(), is(0));
+    }
 }
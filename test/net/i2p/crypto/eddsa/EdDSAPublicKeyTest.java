@@ -14,9 +14,14 @@ package net.i2p.crypto.eddsa;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 
 import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import net.i2p.crypto.eddsa.spec.EdDSAPrivateKeySpec;
 import net.i2p.crypto.eddsa.spec.EdDSAPublicKeySpec;
 
 import org.junit.Test;
@@ -35,6 +40,11 @@ public class EdDSAPublicKeyTest {
     static final byte[] TEST_PUBKEY_NULL_PARAMS = Utils.hexToBytes("302c300706032b6570050003210019bf44096984cdfe8541bac167dc3b96c85086aa30b6b6cb0c5c38ad703166e1");
     static final byte[] TEST_PUBKEY_OLD = Utils.hexToBytes("302d300806032b65640a010103210019bf44096984cdfe8541bac167dc3b96c85086aa30b6b6cb0c5c38ad703166e1");
 
+    /**
+     * A well-formed encoding of y = 2, which has no x on the curve
+     */
+    static final byte[] TEST_PUBKEY_NOT_ON_CURVE = Utils.hexToBytes("302a300506032b65700321000200000000000000000000000000000000000000000000000000000000000000");
+
     @Test
     public void testDecodeAndEncode() throws Exception {
         // Decode
@@ -82,4 +92,144 @@ public class EdDSAPublicKeyTest {
         // Check
         assertThat(keyOut.getEncoded(), is(equalTo(TEST_PUBKEY)));
     }
+
+    /**
+     * Expected value from libsodium's crypto_sign_ed25519_pk_to_curve25519().
+     */
+    static final byte[] TEST_PUBKEY_X25519 = Utils.hexToBytes("f8f22924b83f7cd9eee554c65642cfa44925283cb0d41f44ba2c95d1f189ab74");
+
+    @Test
+    public void testToX25519PublicKey() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY));
+        X25519PublicKey xkey = key.toX25519PublicKey();
+        assertThat(xkey.getU(), is(equalTo(TEST_PUBKEY_X25519)));
+        assertThat(key.toX25519PublicKey(), is(sameInstance(xkey)));
+    }
+
+    @Test
+    public void testToX25519PublicKeys() throws Exception {
+        EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        EdDSAPublicKey[] keys = new EdDSAPublicKey[10];
+        for (int i = 0; i < keys.length; i++) {
+            byte[] seed = new byte[32];
+            seed[0] = (byte) i;
+            keys[i] = new EdDSAPublicKey(new EdDSAPublicKeySpec(new EdDSAPrivateKeySpec(seed, spec).getA(), spec));
+        }
+        X25519PublicKey single = keys[3].toX25519PublicKey();
+
+        X25519PublicKey[] xkeys = EdDSAPublicKey.toX25519PublicKeys(keys);
+        assertThat(xkeys[3], is(sameInstance(single)));
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(xkeys[i], is(sameInstance(keys[i].toX25519PublicKey())));
+            assertThat(xkeys[i], is(equalTo(new EdDSAPublicKey(new EdDSAPublicKeySpec(keys[i].getA(), spec)).toX25519PublicKey())));
+        }
+    }
+
+    @Test
+    public void testCompactKey() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY));
+        EdDSAPublicKey compact = new EdDSAPublicKey(key.getAbyte(), key.getParams());
+
+        assertThat(compact.isCompact(), is(true));
+        assertThat(key.isCompact(), is(false));
+        assertThat(compact, is(equalTo(key)));
+        assertThat(compact.hashCode(), is(key.hashCode()));
+        assertThat(compact.getEncoded(), is(equalTo(TEST_PUBKEY)));
+        assertThat(compact.getA(), is(equalTo(key.getA())));
+        assertThat(compact.getNegativeA(), is(equalTo(key.getNegativeA())));
+        assertThat(compact.getNegativeA(), is(sameInstance(compact.getNegativeA())));
+        assertThat(compact.toX25519PublicKey().getU(), is(equalTo(key.toX25519PublicKey().getU())));
+    }
+
+    @Test
+    public void testGetEncodedReturnsCopyOfCachedEncoding() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY));
+        byte[] first = key.getEncoded();
+        first[first.length - 1] ^= 1;
+        assertThat(key.getEncoded(), is(equalTo(TEST_PUBKEY)));
+        assertThat(key.getEncoded(), is(not(sameInstance(key.getEncoded()))));
+    }
+
+    @Test
+    public void testCompactKeyCacheSize() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY));
+        EdDSAPublicKey compact = new EdDSAPublicKey(key.getAbyte(), key.getParams());
+        try {
+            EdDSAPublicKey.setCompactKeyCacheSize(0);
+            assertThat(compact.getNegativeA(), is(equalTo(key.getNegativeA())));
+            assertThat(compact.getNegativeA(), is(not(sameInstance(compact.getNegativeA()))));
+            EdDSAPublicKey.setCompactKeyCacheSize(5000);
+            assertThat(compact.getNegativeA(), is(sameInstance(compact.getNegativeA())));
+        } finally {
+            EdDSAPublicKey.setCompactKeyCacheSize(1024);
+        }
+    }
+
+    @Test
+    public void testSerializedFormIsCompact() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY));
+        byte[] ser = EdDSAPrivateKeyTest.serialize(key);
+        assertThat(ser.length, is(lessThan(512)));
+        EdDSAPublicKey keyIn = (EdDSAPublicKey) EdDSAPrivateKeyTest.deserialize(ser);
+        assertThat(keyIn, is(equalTo(key)));
+        assertThat(keyIn.isCompact(), is(false));
+        assertThat(keyIn.getParams(), is(sameInstance(key.getParams())));
+        assertThat(keyIn.getNegativeA(), is(equalTo(key.getNegativeA())));
+
+        EdDSAPublicKey compact = new EdDSAPublicKey(key.getAbyte(), key.getParams());
+        EdDSAPublicKey compactIn = (EdDSAPublicKey) EdDSAPrivateKeyTest.deserialize(EdDSAPrivateKeyTest.serialize(compact));
+        assertThat(compactIn, is(equalTo(key)));
+        assertThat(compactIn.isCompact(), is(true));
+    }
+
+    @Test
+    public void testDecodeAndEncodeInPlace() throws Exception {
+        EdDSAPublicKey key = new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY));
+        byte[] buf = new byte[3 + 2 * TEST_PUBKEY.length];
+        assertThat(key.getEncoded(buf, 3), is(TEST_PUBKEY.length));
+        assertThat(key.getEncoded(buf, 3 + TEST_PUBKEY.length), is(TEST_PUBKEY.length));
+        assertThat(EdDSAPublicKey.decode(buf, 3, TEST_PUBKEY.length), is(equalTo(key)));
+        try {
+            EdDSAPublicKey.decode(buf, 3, TEST_PUBKEY.length + 1);
+            fail("wrong length was accepted");
+        } catch (InvalidKeySpecException expected) {}
+
+        for (ByteBuffer bb : new ByteBuffer[] { ByteBuffer.allocate(100), ByteBuffer.allocateDirect(100) }) {
+            bb.put((byte) 1);
+            assertThat(key.getEncoded(bb), is(TEST_PUBKEY.length));
+            bb.put(TEST_PUBKEY_NULL_PARAMS);
+            bb.flip();
+            bb.get();
+            assertThat(EdDSAPublicKey.decode(bb), is(equalTo(key)));
+            assertThat(EdDSAPublicKey.decode(bb), is(equalTo(key)));
+            assertThat(bb.hasRemaining(), is(false));
+            try {
+                EdDSAPublicKey.decode(bb);
+                fail("empty buffer was accepted");
+            } catch (InvalidKeySpecException expected) {}
+        }
+    }
+
+    @Test
+    public void testDecodeRejectsPointNotOnCurve() throws Exception {
+        try {
+            new EdDSAPublicKey(new X509EncodedKeySpec(TEST_PUBKEY_NOT_ON_CURVE));
+            fail("point not on the curve was accepted");
+        } catch (InvalidKeySpecException expected) {}
+        byte[] buf = new byte[1 + TEST_PUBKEY_NOT_ON_CURVE.length];
+        System.arraycopy(TEST_PUBKEY_NOT_ON_CURVE, 0, buf, 1, TEST_PUBKEY_NOT_ON_CURVE.length);
+        try {
+            EdDSAPublicKey.decode(buf, 1, TEST_PUBKEY_NOT_ON_CURVE.length);
+            fail("point not on the curve was accepted");
+        } catch (InvalidKeySpecException expected) {}
+
+        for (ByteBuffer bb : new ByteBuffer[] { ByteBuffer.wrap(buf), ByteBuffer.allocateDirect(buf.length).put(buf) }) {
+            bb.position(1);
+            try {
+                EdDSAPublicKey.decode(bb);
+                fail("point not on the curve was accepted");
+            } catch (InvalidKeySpecException expected) {}
+            assertThat(bb.position(), is(1));
+        }
+    }
 }
@@ -0,0 +1,84 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class KeyFactoryTest {
+
+    @Test
+    public void testBulkImportKeepsOrderAndReportsFailures() throws Exception {
+        KeyPairGenerator g = new KeyPairGenerator();
+        List<KeyPair> pairs = new ArrayList<KeyPair>();
+        List<byte[]> pubs = new ArrayList<byte[]>();
+        List<byte[]> privs = new ArrayList<byte[]>();
+        for (int i = 0; i < 300; i++) {
+            KeyPair kp = g.generateKeyPair();
+            pairs.add(kp);
+            EdDSAPublicKey pub = (EdDSAPublicKey) kp.getPublic();
+            EdDSAPrivateKey priv = (EdDSAPrivateKey) kp.getPrivate();
+            pubs.add(i % 2 == 0 ? pub.getAbyte() : pub.getEncoded());
+            privs.add(i % 3 == 0 ? priv.getSeed() : priv.getEncoded(i % 3 == 1));
+        }
+        pubs.set(7, new byte[5]);
+        pubs.set(200, null);
+        // y = 2 is not on the curve
+        byte[] offCurve = new byte[32];
+        offCurve[0] = 2;
+        pubs.set(201, offCurve);
+        privs.set(100, new byte[48]);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (ExecutorService e : new ExecutorService[] { null, executor }) {
+                KeyFactory.BulkResult<EdDSAPublicKey> pubResult = new KeyFactory().generatePublicKeys(pubs, e);
+                KeyFactory.BulkResult<EdDSAPrivateKey> privResult = new KeyFactory().generatePrivateKeys(privs, e);
+
+                assertThat(pubResult.size(), is(300));
+                assertThat(pubResult.getFailureCount(), is(3));
+                assertThat(privResult.getFailureCount(), is(1));
+                for (int i = 0; i < 300; i++) {
+                    if (i == 7 || i == 200 || i == 201) {
+                        assertThat(pubResult.getKey(i), is(nullValue()));
+                        assertThat(pubResult.getError(i), is(notNullValue()));
+                    } else {
+                        EdDSAPublicKey expected = (EdDSAPublicKey) pairs.get(i).getPublic();
+                        assertThat(pubResult.getKey(i), is(equalTo(expected)));
+                        assertThat(pubResult.getKey(i).getNegativeA(), is(equalTo(expected.getNegativeA())));
+                        assertThat(pubResult.getError(i), is(nullValue()));
+                    }
+                    if (i == 100) {
+                        assertThat(privResult.getKey(i), is(nullValue()));
+                        assertThat(privResult.getError(i), is(notNullValue()));
+                    } else {
+                        assertThat(privResult.getKeys().get(i), is(equalTo(pairs.get(i).getPrivate())));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
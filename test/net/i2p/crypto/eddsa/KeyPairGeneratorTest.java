@@ -0,0 +1,60 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.security.KeyPair;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class KeyPairGeneratorTest {
+
+    @Test
+    public void testGenerateKeyPairs() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (ExecutorService e : new ExecutorService[] { null, executor }) {
+                KeyPair[] pairs = new KeyPairGenerator().generateKeyPairs(150, e);
+                assertThat(pairs.length, is(150));
+                Set<EdDSAPublicKey> seen = new HashSet<EdDSAPublicKey>();
+                for (KeyPair kp : pairs) {
+                    EdDSAPublicKey pub = (EdDSAPublicKey) kp.getPublic();
+                    EdDSAPrivateKey priv = (EdDSAPrivateKey) kp.getPrivate();
+                    assertThat(priv.checkPublicKey(), is(true));
+                    assertThat(pub.getAbyte(), is(equalTo(priv.getAbyte())));
+                    assertThat(pub.getAbyte(), is(equalTo(pub.getA().toByteArray())));
+                    assertThat(pub.getNegativeA(), is(equalTo(pub.getA().negate())));
+                    assertThat(seen.add(pub), is(true));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(new KeyPairGenerator().generateKeyPairs(0).length, is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGenerateKeyPairsRejectsTooManyKeys() throws Exception {
+        // 2^26 seeds of 32 bytes would overflow the seed array length
+        new KeyPairGenerator().generateKeyPairs(1 << 26);
+    }
+}
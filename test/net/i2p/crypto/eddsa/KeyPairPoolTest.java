@@ -0,0 +1,85 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.security.KeyPair;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * @author str4d
+ *
+ */
+public class KeyPairPoolTest {
+
+    private static void awaitFull(KeyPairPool pool) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (pool.size() < pool.getCapacity() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertThat(pool.size(), is(pool.getCapacity()));
+    }
+
+    @Test
+    public void testPoolRefillsAndHandsOutEachPairOnce() throws Exception {
+        KeyPairPool pool = new KeyPairPool(20);
+        try {
+            awaitFull(pool);
+            assertThat(pool.getRefillRate(), is(greaterThan(0.0)));
+
+            Set<EdDSAPublicKey> seen = new HashSet<EdDSAPublicKey>();
+            for (int i = 0; i < 20; i++) {
+                KeyPair kp = pool.take();
+                assertThat(((EdDSAPrivateKey) kp.getPrivate()).checkPublicKey(), is(true));
+                assertThat(kp.getPublic(), is(equalTo((Object) new EdDSAPublicKey(
+                        ((EdDSAPrivateKey) kp.getPrivate()).getAbyte(), ((EdDSAPrivateKey) kp.getPrivate()).getParams()))));
+                assertThat(seen.add((EdDSAPublicKey) kp.getPublic()), is(true));
+            }
+            assertThat(pool.getHitCount() + pool.getMissCount(), is(20L));
+
+            // Topped up again after being drained
+            awaitFull(pool);
+            assertThat(pool.getGeneratedCount(), is(greaterThanOrEqualTo(40L)));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testRefillWakesUpAfterEveryTake() throws Exception {
+        KeyPairPool pool = new KeyPairPool(1);
+        try {
+            for (int i = 0; i < 50; i++) {
+                awaitFull(pool);
+                pool.take();
+            }
+            assertThat(pool.getHitCount(), is(50L));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testTakeFallsBackWhenEmpty() throws Exception {
+        KeyPairPool pool = new KeyPairPool(1);
+        pool.close();
+        assertThat(pool.size(), is(0));
+        KeyPair kp = pool.take();
+        assertThat(((EdDSAPrivateKey) kp.getPrivate()).checkPublicKey(), is(true));
+        assertThat(pool.getMissCount(), is(1L));
+        assertThat(pool.getHitCount(), is(0L));
+    }
+}
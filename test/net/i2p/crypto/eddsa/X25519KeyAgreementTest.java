@@ -0,0 +1,121 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa;
+
+import java.security.InvalidKeyException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+
+import javax.crypto.KeyAgreement;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test vectors from RFC 7748 section 6.1 and RFC 8410.
+ * @author str4d
+ *
+ */
+public class X25519KeyAgreementTest {
+    static final byte[] ALICE_PRIV = Utils.hexToBytes("77076d0a7318a57d3c16c17251b26645df4c2f87ebc0992ab177fba51db92c2a");
+    static final byte[] ALICE_PUB = Utils.hexToBytes("8520f0098930a754748b7ddcb43ef75a0dbf3a0d26381af4eba4a98eaa9b4e6a");
+    static final byte[] BOB_PRIV = Utils.hexToBytes("5dab087e624a8a4b79e17f8b83800ee66f3bb1292618b6fd1c2f8b27ff88e0eb");
+    static final byte[] BOB_PUB = Utils.hexToBytes("de9edb7d7b7dc1b4d35b61c2ece435373f8343c85b78674dadfc7e146f882b4f");
+    static final byte[] SHARED = Utils.hexToBytes("4a5d9d5ba4ce2de1728e3bf480350f25e07e21c947d19e3376f09b3c1e161742");
+
+    static final byte[] ALICE_PUB_ENC = Utils.hexToBytes("302a300506032b656e0321008520f0098930a754748b7ddcb43ef75a0dbf3a0d26381af4eba4a98eaa9b4e6a");
+    static final byte[] ALICE_PRIV_ENC = Utils.hexToBytes("302e020100300506032b656e0422042077076d0a7318a57d3c16c17251b26645df4c2f87ebc0992ab177fba51db92c2a");
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUp() {
+        Security.addProvider(new EdDSASecurityProvider());
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        Security.removeProvider(EdDSASecurityProvider.PROVIDER_NAME);
+    }
+
+    @Test
+    public void testSharedSecret() throws Exception {
+        KeyAgreement ka = KeyAgreement.getInstance("X25519", EdDSASecurityProvider.PROVIDER_NAME);
+
+        ka.init(new X25519PrivateKey(ALICE_PRIV));
+        ka.doPhase(new X25519PublicKey(BOB_PUB), true);
+        assertThat(ka.generateSecret(), is(equalTo(SHARED)));
+
+        ka.init(new X25519PrivateKey(BOB_PRIV));
+        ka.doPhase(new X25519PublicKey(ALICE_PUB), true);
+        byte[] out = new byte[40];
+        assertThat(ka.generateSecret(out, 8), is(32));
+        byte[] s = new byte[32];
+        System.arraycopy(out, 8, s, 0, 32);
+        assertThat(s, is(equalTo(SHARED)));
+    }
+
+    @Test
+    public void canBeReusedAfterGenerateSecret() throws Exception {
+        KeyAgreement ka = KeyAgreement.getInstance("X25519", EdDSASecurityProvider.PROVIDER_NAME);
+        ka.init(new X25519PrivateKey(ALICE_PRIV));
+        ka.doPhase(new X25519PublicKey(BOB_PUB), true);
+        ka.generateSecret();
+        ka.doPhase(new X25519PublicKey(BOB_PUB), true);
+        assertThat(ka.generateSecret("TlsPremasterSecret").getEncoded(), is(equalTo(SHARED)));
+    }
+
+    @Test
+    public void rejectsSmallOrderPublicKey() throws Exception {
+        KeyAgreement ka = KeyAgreement.getInstance("X25519", EdDSASecurityProvider.PROVIDER_NAME);
+        ka.init(new X25519PrivateKey(ALICE_PRIV));
+        exception.expect(InvalidKeyException.class);
+        ka.doPhase(new X25519PublicKey(new byte[32]), true);
+    }
+
+    @Test
+    public void generatedKeysAgree() throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("X25519", EdDSASecurityProvider.PROVIDER_NAME);
+        KeyPair a = kpg.generateKeyPair();
+        KeyPair b = kpg.generateKeyPair();
+
+        KeyAgreement ka = KeyAgreement.getInstance("X25519", EdDSASecurityProvider.PROVIDER_NAME);
+        ka.init(a.getPrivate());
+        ka.doPhase(b.getPublic(), true);
+        byte[] s1 = ka.generateSecret();
+        ka.init(b.getPrivate());
+        ka.doPhase(a.getPublic(), true);
+        byte[] s2 = ka.generateSecret();
+        assertThat(s1, is(equalTo(s2)));
+    }
+
+    @Test
+    public void testEncoding() throws Exception {
+        X25519PrivateKey priv = new X25519PrivateKey(ALICE_PRIV);
+        assertThat(priv.getEncoded(), is(equalTo(ALICE_PRIV_ENC)));
+        assertThat(priv.getPublicKey().getEncoded(), is(equalTo(ALICE_PUB_ENC)));
+        assertThat(priv.getPublicKey().getU(), is(equalTo(ALICE_PUB)));
+
+        assertThat(new X25519PrivateKey(new PKCS8EncodedKeySpec(ALICE_PRIV_ENC)), is(equalTo(priv)));
+        assertThat(new X25519PublicKey(new X509EncodedKeySpec(ALICE_PUB_ENC)), is(equalTo(priv.getPublicKey())));
+    }
+}
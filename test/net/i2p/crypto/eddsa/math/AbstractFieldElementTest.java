@@ -12,6 +12,7 @@
 package net.i2p.crypto.eddsa.math;
 
 import net.i2p.crypto.eddsa.math.*;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import org.hamcrest.core.*;
 import org.junit.*;
 
@@ -50,6 +51,22 @@ public abstract class AbstractFieldElementTest {
         Assert.assertThat(f.isNonZero(), IsEqual.equalTo(true));
     }
 
+    @Test
+    public void isZeroMatchesIsNonZero() {
+        Assert.assertThat(getZeroFieldElement().isZero(), IsEqual.equalTo(1));
+        Assert.assertThat(getNonZeroFieldElement().isZero(), IsEqual.equalTo(0));
+        for (int i=0; i<100; i++) {
+            // Arrange:
+            final FieldElement f1 = getRandomFieldElement();
+            final FieldElement f2 = getField().fromByteArray(f1.toByteArray());
+
+            // Act + Assert:
+            Assert.assertThat(f1.subtract(f2).isZero(), IsEqual.equalTo(1));
+            Assert.assertThat(f1.add(f2).subtract(f2).subtract(f2).isZero(), IsEqual.equalTo(1));
+            Assert.assertThat(f1.subtract(f2).addOne().isZero(), IsEqual.equalTo(0));
+        }
+    }
+
     // endregion
 
     // region mod q arithmetic
@@ -172,6 +189,31 @@ public abstract class AbstractFieldElementTest {
         }
     }
 
+    @Test
+    public void batchInvertReturnsCorrectResult() {
+        // Arrange:
+        final FieldElement[] f1 = new FieldElement[50];
+        for (int i=0; i<f1.length; i++) {
+            f1[i] = (i % 7 == 3) ? getZeroFieldElement() : getRandomFieldElement();
+        }
+
+        // Act:
+        final FieldElement[] f2 = getField().batchInvert(f1);
+
+        // Assert:
+        Assert.assertThat(f2.length, IsEqual.equalTo(f1.length));
+        for (int i=0; i<f1.length; i++) {
+            final BigInteger b1 = toBigInteger(f1[i]).mod(getQ());
+            final BigInteger b2 = toBigInteger(f2[i]).mod(getQ());
+            if (b1.signum() == 0) {
+                Assert.assertThat(b2, IsEqual.equalTo(BigInteger.ZERO));
+            } else {
+                Assert.assertThat(b2, IsEqual.equalTo(b1.modInverse(getQ())));
+            }
+        }
+        Assert.assertThat(getField().batchInvert(new FieldElement[0]).length, IsEqual.equalTo(0));
+    }
+
     @Test
     public void pow22523ReturnsCorrectResult() {
         for (int i=0; i<1000; i++) {
@@ -190,6 +232,87 @@ public abstract class AbstractFieldElementTest {
 
     // endregion
 
+    // region sqrtRatio
+
+    /**
+     * @return $\sqrt{-1}$ of the Ed25519 curve, in the field under test.
+     */
+    private FieldElement getSqrtM1() {
+        return getField().fromByteArray(EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519).getCurve().getI().toByteArray());
+    }
+
+    @Test
+    public void sqrtM1SquaresToMinusOne() {
+        Assert.assertThat(getSqrtM1().square(), IsEqual.equalTo(getField().ONE.negate()));
+    }
+
+    @Test
+    public void sqrtRatioHandlesZeroAndKnownValues() {
+        final Field f = getField();
+        final FieldElement i = getSqrtM1();
+
+        FieldElement.SqrtRatio r = f.ZERO.sqrtRatio(f.ZERO, i);
+        Assert.assertThat(r.wasSquare(), IsEqual.equalTo(1));
+        Assert.assertThat(r.getRoot(), IsEqual.equalTo(f.ZERO));
+        r = f.ONE.sqrtRatio(f.ZERO, i);
+        Assert.assertThat(r.wasSquare(), IsEqual.equalTo(0));
+        Assert.assertThat(r.getRoot(), IsEqual.equalTo(f.ZERO));
+        // 2 is not a square mod q, so sqrt(i * 2 / 1)
+        r = f.TWO.sqrtRatio(f.ONE, i);
+        Assert.assertThat(r.wasSquare(), IsEqual.equalTo(0));
+        Assert.assertThat(r.getRoot().square(), IsEqual.equalTo(f.TWO.multiply(i)));
+        Assert.assertThat(r.getRoot().isNegative(), IsEqual.equalTo(false));
+        r = f.FOUR.sqrtRatio(f.ONE, i);
+        Assert.assertThat(r.wasSquare(), IsEqual.equalTo(1));
+        Assert.assertThat(r.getRoot(), IsEqual.equalTo(f.TWO));
+    }
+
+    @Test
+    public void sqrtRatioReturnsCorrectResult() {
+        for (int i=0; i<100; i++) {
+            // Arrange:
+            final FieldElement u = getRandomFieldElement();
+            final FieldElement v = getRandomFieldElement();
+            final BigInteger ratio = toBigInteger(u).multiply(toBigInteger(v).modInverse(getQ())).mod(getQ());
+            final boolean square = ratio.modPow(getQ().subtract(BigInteger.ONE).shiftRight(1), getQ()).equals(BigInteger.ONE);
+
+            // Act:
+            final FieldElement.SqrtRatio r = u.sqrtRatio(v, getSqrtM1());
+
+            // Assert:
+            Assert.assertThat(r.wasSquare(), IsEqual.equalTo(square ? 1 : 0));
+            Assert.assertThat(r.getRoot().isNegative(), IsEqual.equalTo(false));
+            final FieldElement expected = square ? u : u.multiply(getSqrtM1());
+            Assert.assertThat(v.multiply(r.getRoot().square()), IsEqual.equalTo(expected));
+        }
+    }
+
+    // endregion
+
+    // region pack
+
+    @Test
+    public void unpackReturnsPackedFieldElement() {
+        final Encoding enc = getField().getEncoding();
+        final int n = enc.getPackedLength();
+        final int[] table = new int[3 * n];
+        for (int i=0; i<100; i++) {
+            // Arrange:
+            final FieldElement f1 = getRandomFieldElement();
+            final FieldElement f2 = getRandomFieldElement();
+
+            // Act:
+            enc.pack(f1, table, n);
+            enc.pack(f2, table, 2 * n);
+
+            // Assert:
+            Assert.assertThat(enc.unpack(table, n), IsEqual.equalTo(f1));
+            Assert.assertThat(enc.unpack(table, 2 * n), IsEqual.equalTo(f2));
+        }
+    }
+
+    // endregion
+
     // region cmov
 
     @Test
@@ -0,0 +1,150 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import net.i2p.crypto.eddsa.spec.*;
+import org.hamcrest.core.IsEqual;
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.io.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author str4d
+ *
+ */
+public class FixedBaseTableTest {
+    static final EdDSANamedCurveSpec ed25519 = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    static final Curve curve = ed25519.getCurve();
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * Test method for {@link FixedBaseTable#getInstance(GroupElement)}.
+     */
+    @Test
+    public void getInstanceReusesBasePointTable() {
+        final FixedBaseTable t = FixedBaseTable.getInstance(ed25519.getB());
+        assertThat(t.precmp, is(sameInstance(ed25519.getB().precmp)));
+        assertThat(t.getBasePoint(), is(equalTo(ed25519.getB())));
+    }
+
+    /**
+     * Test method for {@link FixedBaseTable#getInstance(GroupElement)}.
+     */
+    @Test
+    public void getInstanceCachesTables() {
+        final GroupElement P = MathUtils.getRandomGroupElement();
+        final FixedBaseTable t1 = FixedBaseTable.getInstance(P);
+        final FixedBaseTable t2 = FixedBaseTable.getInstance(P.toP2());
+        assertThat(t2, is(sameInstance(t1)));
+    }
+
+    @Test
+    public void tableMatchesPrecomputedPoint() {
+        final GroupElement P = MathUtils.getRandomGroupElement(true);
+        final FixedBaseTable t = FixedBaseTable.getInstance(P.toP2());
+        assertThat(t.precmp, is(not(sameInstance(P.precmp))));
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 8; j++) {
+                assertThat(t.precmp.get(i, j), is(equalTo(P.precmp.get(i, j))));
+            }
+        }
+    }
+
+    // This test is slow due to math utils using an inferior algorithm to calculate the result.
+    /**
+     * Test method for {@link FixedBaseTable#scalarMultiply(byte[])}.
+     */
+    @Test
+    public void scalarMultiplyReturnsExpectedResult() {
+        final GroupElement P = MathUtils.getRandomGroupElement();
+        final FixedBaseTable t = FixedBaseTable.getInstance(P);
+        for (int i = 0; i < 5; i++) {
+            // Arrange:
+            final FieldElement f = MathUtils.getRandomFieldElement();
+
+            // Act:
+            final GroupElement g = t.scalarMultiply(f.toByteArray());
+            final GroupElement h = MathUtils.scalarMultiplyGroupElement(P, f);
+
+            // Assert:
+            Assert.assertThat(g, IsEqual.equalTo(h));
+        }
+    }
+
+    @Test
+    public void scalarMultiplyWithZeroAndOne() {
+        final GroupElement P = MathUtils.getRandomGroupElement();
+        final FixedBaseTable t = FixedBaseTable.getInstance(P);
+        assertThat(t.scalarMultiply(curve.getField().ZERO.toByteArray()),
+                is(equalTo(curve.getZero(GroupElement.Representation.P3))));
+        assertThat(t.scalarMultiply(curve.getField().ONE.toByteArray()), is(equalTo(P)));
+    }
+
+    /**
+     * Test method for {@link FixedBaseTable#toByteArray()} and {@link FixedBaseTable#fromByteArray(Curve, byte[])}.
+     */
+    @Test
+    public void compactFormRoundTrips() {
+        final GroupElement P = MathUtils.getRandomGroupElement();
+        final FixedBaseTable t = FixedBaseTable.getInstance(P);
+        final byte[] enc = t.toByteArray();
+        assertThat(enc.length, is(256 * 64));
+
+        final FixedBaseTable u = FixedBaseTable.fromByteArray(curve, enc);
+        assertThat(u.getBasePoint(), is(equalTo(P)));
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 8; j++) {
+                assertThat(u.precmp.get(i, j), is(equalTo(t.precmp.get(i, j))));
+            }
+        }
+        final byte[] a = MathUtils.getRandomFieldElement().toByteArray();
+        assertThat(u.scalarMultiply(a), is(equalTo(t.scalarMultiply(a))));
+    }
+
+    @Test
+    public void fromByteArrayRejectsWrongLength() {
+        exception.expect(IllegalArgumentException.class);
+        FixedBaseTable.fromByteArray(curve, new byte[256 * 64 - 1]);
+    }
+
+    @Test
+    public void fromByteArrayRejectsPointsNotOnCurve() {
+        final byte[] enc = FixedBaseTable.getInstance(ed25519.getB()).toByteArray();
+        enc[64 * 100] ^= 1;
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Table entry 100 is not on the curve");
+        FixedBaseTable.fromByteArray(curve, enc);
+    }
+
+    @Test
+    public void serializationRoundTrips() throws Exception {
+        final GroupElement P = MathUtils.getRandomGroupElement();
+        final FixedBaseTable t = FixedBaseTable.getInstance(P);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(t);
+        oos.close();
+        final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        final FixedBaseTable u = (FixedBaseTable) ois.readObject();
+
+        assertThat(u.getBasePoint(), is(equalTo(P)));
+        final byte[] a = MathUtils.getRandomFieldElement().toByteArray();
+        assertThat(u.scalarMultiply(a), is(equalTo(t.scalarMultiply(a))));
+    }
+}
@@ -467,8 +467,11 @@ public class GroupElementTest {
     @Test
     public void testPrecompute() {
         GroupElement B = ed25519.getB();
-        assertThat(B.precmp, is(equalTo(PrecomputationTestVectors.testPrecmp)));
-        assertThat(B.dblPrecmp, is(equalTo(PrecomputationTestVectors.testDblPrecmp)));
+        for (int i = 0; i < 32; i++)
+            for (int j = 0; j < 8; j++)
+                assertThat(B.precmp.get(i, j), is(equalTo(PrecomputationTestVectors.testPrecmp[i][j])));
+        for (int i = 0; i < 8; i++)
+            assertThat(B.dblPrecmp.get(0, i), is(equalTo(PrecomputationTestVectors.testDblPrecmp[i])));
     }
 
     @Test
@@ -480,7 +483,7 @@ public class GroupElementTest {
         for (int i = 0; i < 32; i++) {
             GroupElement h = g;
             for (int j = 0; j < 8; j++) {
-                Assert.assertThat(MathUtils.toRepresentation(h, GroupElement.Representation.PRECOMP), IsEqual.equalTo(ed25519.getB().precmp[i][j]));
+                Assert.assertThat(MathUtils.toRepresentation(h, GroupElement.Representation.PRECOMP), IsEqual.equalTo(ed25519.getB().precmp.get(i, j)));
                 h = MathUtils.addGroupElements(h, g);
             }
             for (int k = 0; k < 8; k++) {
@@ -497,11 +500,29 @@ public class GroupElementTest {
 
         // Act + Assert:
         for (int i=0; i<8; i++) {
-            Assert.assertThat(MathUtils.toRepresentation(g, GroupElement.Representation.PRECOMP), IsEqual.equalTo(ed25519.getB().dblPrecmp[i]));
+            Assert.assertThat(MathUtils.toRepresentation(g, GroupElement.Representation.PRECOMP), IsEqual.equalTo(ed25519.getB().dblPrecmp.get(0, i)));
             g = MathUtils.addGroupElements(g, h);
         }
     }
 
+    /**
+     * Test method for {@link GroupElement#negateAll(GroupElement[])}.
+     */
+    @Test
+    public void negateAllMatchesNegate() {
+        final GroupElement[] g = new GroupElement[5];
+        for (int i = 0; i < g.length; i++)
+            g[i] = MathUtils.getRandomGroupElement();
+        final GroupElement[] neg = GroupElement.negateAll(g);
+        for (int i = 0; i < g.length; i++) {
+            final GroupElement expected = g[i].negate();
+            assertThat(neg[i], is(equalTo(expected)));
+            for (int j = 0; j < 8; j++)
+                assertThat(neg[i].dblPrecmp.get(0, j), is(equalTo(expected.dblPrecmp.get(0, j))));
+        }
+        assertThat(GroupElement.negateAll(new GroupElement[0]).length, is(0));
+    }
+
     /**
      * Test method for {@link GroupElement#dbl()}.
      */
@@ -682,19 +703,90 @@ public class GroupElementTest {
                 // 16^i r_i B
                 GroupElement t = B.select(i, j);
                 assertThat(i + "," + j,
-                        t, is(equalTo(B.precmp[i][j-1])));
+                        t, is(equalTo(B.precmp.get(i, j-1))));
                 // -16^i r_i B
                 t = B.select(i, -j);
                 GroupElement neg = GroupElement.precomp(curve,
-                        B.precmp[i][j-1].Y,
-                        B.precmp[i][j-1].X,
-                        B.precmp[i][j-1].Z.negate());
+                        B.precmp.get(i, j-1).Y,
+                        B.precmp.get(i, j-1).X,
+                        B.precmp.get(i, j-1).Z.negate());
                 assertThat(i + "," + -j,
                         t, is(equalTo(neg)));
             }
         }
     }
 
+    /**
+     * Test method for {@link PrecomputedTable#select(int, int, int[])}.
+     */
+    @Test
+    public void selectReusingAccumulatorMatchesSelect() {
+        GroupElement B = ed25519.getB();
+        int[] acc = B.precmp.newAccumulator();
+        for (int i = 0; i < 32; i++) {
+            for (int j = -8; j <= 8; j++) {
+                assertThat(i + "," + j, B.precmp.select(i, j, acc), is(equalTo(B.select(i, j))));
+            }
+        }
+    }
+
+    /**
+     * Asserts that all limbs of the coordinates of a P1P1 point are valid
+     * multiplication inputs, i.e. bounded by $1.65*2^{26},1.65*2^{25},\dots$
+     */
+    private static void assertMultiplicationInputBounds(GroupElement g) {
+        final Encoding enc = curve.getField().getEncoding();
+        final int[] t = new int[enc.getPackedLength()];
+        for (FieldElement c : new FieldElement[] { g.X, g.Y, g.Z, g.T }) {
+            enc.pack(c, t, 0);
+            for (int i = 0; i < t.length; i++) {
+                final double bound = 1.65 * (1 << ((i & 1) == 0 ? 26 : 25));
+                assertThat(Math.abs((double) t[i]), is(lessThanOrEqualTo(bound)));
+            }
+        }
+    }
+
+    @Test
+    public void pointFormulasNeedNoIntermediateCarries() {
+        for (int i = 0; i < 100; i++) {
+            // Arrange: points with general Z and T
+            final GroupElement p = MathUtils.getRandomGroupElement().dbl().toP3().dbl().toP3();
+            final GroupElement q = MathUtils.getRandomGroupElement().dbl().toP3();
+            final GroupElement qPrecomp = MathUtils.toRepresentation(q, GroupElement.Representation.PRECOMP);
+
+            // Act:
+            final GroupElement[] r = new GroupElement[] {
+                    p.dbl(), p.toP2().dbl(),
+                    p.madd(qPrecomp), p.msub(qPrecomp),
+                    p.add(q.toCached()), p.sub(q.toCached())
+            };
+
+            // Assert:
+            for (GroupElement g : r)
+                assertMultiplicationInputBounds(g);
+            final GroupElement sum = MathUtils.addGroupElements(p, q);
+            final GroupElement diff = MathUtils.addGroupElements(p, MathUtils.negateGroupElement(q));
+            assertThat(r[0].toP3(), is(equalTo(MathUtils.doubleGroupElement(p))));
+            assertThat(r[2].toP3(), is(equalTo(sum)));
+            assertThat(r[3].toP3(), is(equalTo(diff)));
+            assertThat(r[4].toP3(), is(equalTo(sum)));
+            assertThat(r[5].toP3(), is(equalTo(diff)));
+        }
+    }
+
+    @Test
+    public void maddFromTableMatchesMaddAndMsub() {
+        final GroupElement B = ed25519.getB();
+        for (int i = 0; i < 10; i++) {
+            final GroupElement p = MathUtils.getRandomGroupElement().dbl().toP3();
+            for (int j = 0; j < 8; j++) {
+                final GroupElement q = B.dblPrecmp.get(0, j);
+                assertThat(p.madd(B.dblPrecmp, 0, j, false).toP3(), is(equalTo(p.madd(q).toP3())));
+                assertThat(p.madd(B.dblPrecmp, 0, j, true).toP3(), is(equalTo(p.msub(q).toP3())));
+            }
+        }
+    }
+
     // region scalar multiplication
     /**
      * Test method for {@link GroupElement#scalarMultiply(byte[])}.
@@ -761,6 +853,29 @@ public class GroupElementTest {
         }
     }
 
+    /**
+     * Test method for {@link GroupElement#scalarMultiplyVariableBase(byte[])}.
+     */
+    @Test
+    public void scalarMultiplyVariableBaseReturnsExpectedResult() {
+        for (int i=0; i<5; i++) {
+            // Arrange:
+            final GroupElement g = MathUtils.getRandomGroupElement();
+            final FieldElement f = MathUtils.getRandomFieldElement();
+
+            // Act:
+            final GroupElement h1 = g.scalarMultiplyVariableBase(f.toByteArray());
+            final GroupElement h2 = MathUtils.scalarMultiplyGroupElement(g, f);
+
+            // Assert:
+            Assert.assertThat(h1, IsEqual.equalTo(h2));
+        }
+        final GroupElement g = MathUtils.getRandomGroupElement();
+        Assert.assertThat(g.scalarMultiplyVariableBase(curve.getField().ZERO.toByteArray()),
+                IsEqual.equalTo(curve.getZero(GroupElement.Representation.P3)));
+        Assert.assertThat(g.scalarMultiplyVariableBase(curve.getField().ONE.toByteArray()), IsEqual.equalTo(g));
+    }
+
     @Test
     public void testDoubleScalarMultiplyVariableTime() {
         // Little-endian
@@ -824,6 +939,20 @@ public class GroupElementTest {
         }
     }
 
+    @Test
+    public void doubleScalarMultiplyVariableTimeReusesBuffers() {
+        final GroupElement basePoint = ed25519.getB();
+        final byte[] aslide = new byte[256];
+        final byte[] bslide = new byte[256];
+        for (int i = 0; i < 10; i++) {
+            final GroupElement g = MathUtils.getRandomGroupElement(true);
+            final byte[] a = MathUtils.getRandomFieldElement().toByteArray();
+            final byte[] b = MathUtils.getRandomFieldElement().toByteArray();
+            assertThat(basePoint.doubleScalarMultiplyVariableTime(g, a, b, aslide, bslide),
+                    is(equalTo(basePoint.doubleScalarMultiplyVariableTime(g, a, b))));
+        }
+    }
+
     // endregion
 
     /**
@@ -0,0 +1,71 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares {@link SafeGcd} with BigInteger.modInverse().
+ * @author str4d
+ *
+ */
+public class SafeGcdTest {
+
+    private static byte[] toByteArray(BigInteger b) {
+        final byte[] bytes = new byte[32];
+        final byte[] be = b.toByteArray();
+        for (int i = 0; i < be.length && i < 32; i++)
+            bytes[i] = be[be.length - 1 - i];
+        return bytes;
+    }
+
+    private static void assertInvertsModulo(BigInteger m, Random rnd) {
+        final SafeGcd inverter = new SafeGcd(toByteArray(m));
+        for (int i = 0; i < 200; i++) {
+            final BigInteger x = new BigInteger(256, rnd).mod(m);
+            if (!x.gcd(m).equals(BigInteger.ONE))
+                continue;
+            assertThat(MathUtils.toBigInteger(inverter.invert(toByteArray(x))), is(x.modInverse(m)));
+        }
+        assertThat(inverter.invert(new byte[32]), is(new byte[32]));
+        assertThat(inverter.invert(toByteArray(BigInteger.ONE)), is(toByteArray(BigInteger.ONE)));
+        final BigInteger m1 = m.subtract(BigInteger.ONE);
+        assertThat(inverter.invert(toByteArray(m1)), is(toByteArray(m1)));
+    }
+
+    @Test
+    public void invertMatchesModInverseForFieldAndGroupOrder() {
+        final Random rnd = new Random();
+        assertInvertsModulo(MathUtils.getQ(), rnd);
+        assertInvertsModulo(MathUtils.getGroupOrder(), rnd);
+    }
+
+    @Test
+    public void invertMatchesModInverseForRandomOddModuli() {
+        final Random rnd = new Random();
+        for (int i = 0; i < 20; i++) {
+            final BigInteger m = new BigInteger(256, rnd).setBit(0).setBit(255 - (i % 8));
+            assertInvertsModulo(m, rnd);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsEvenModulus() {
+        new SafeGcd(toByteArray(BigInteger.valueOf(1000)));
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author str4d
+ *
+ */
+public class ScalarRecodingTest {
+
+    private static byte[] randomScalar() {
+        final byte[] a = MathUtils.getRandomByteArray(32);
+        a[31] &= 0x7f;
+        return a;
+    }
+
+    @Test
+    public void wnafHasExpectedForm() {
+        final byte[] r = new byte[256];
+        for (int w = ScalarRecoding.MIN_WIDTH; w <= ScalarRecoding.MAX_WIDTH; w++) {
+            for (int n = 0; n < 200; n++) {
+                final byte[] a = randomScalar();
+                final int top = ScalarRecoding.wnaf(a, w, r);
+
+                BigInteger value = BigInteger.ZERO;
+                int last = -w;
+                for (int i = 0; i < 256; i++) {
+                    if (r[i] == 0)
+                        continue;
+                    assertThat(r[i] & 1, is(1));
+                    assertThat(Math.abs(r[i]), is(lessThan(1 << (w - 1))));
+                    assertThat(i - last, is(greaterThanOrEqualTo(w)));
+                    last = i;
+                    value = value.add(BigInteger.valueOf(r[i]).shiftLeft(i));
+                }
+                assertThat(top, is(last + 1));
+                assertThat(value, is(MathUtils.toBigInteger(a)));
+            }
+        }
+    }
+
+    @Test
+    public void wnafOfZeroIsEmpty() {
+        final byte[] r = new byte[256];
+        r[7] = 3;
+        assertThat(ScalarRecoding.wnaf(new byte[32], 5, r), is(0));
+        assertThat(r, is(new byte[256]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wnafRejectsTooWideWindow() {
+        ScalarRecoding.wnaf(new byte[32], ScalarRecoding.MAX_WIDTH + 1, new byte[256]);
+    }
+
+    @Test
+    public void toRadix16ReusesBuffer() {
+        final byte[] e = new byte[64];
+        for (int n = 0; n < 100; n++) {
+            final byte[] a = randomScalar();
+            assertThat(ScalarRecoding.toRadix16(a, e), is(sameInstance(e)));
+
+            BigInteger value = BigInteger.ZERO;
+            for (int i = 0; i < 64; i++) {
+                assertThat((int) e[i], is(both(greaterThanOrEqualTo(-8)).and(lessThanOrEqualTo(8))));
+                value = value.add(BigInteger.valueOf(e[i]).shiftLeft(4 * i));
+            }
+            assertThat(value, is(MathUtils.toBigInteger(a)));
+        }
+    }
+}
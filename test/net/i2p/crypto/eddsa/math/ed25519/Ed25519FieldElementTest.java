@@ -11,11 +11,15 @@
  */
 package net.i2p.crypto.eddsa.math.ed25519;
 
+import net.i2p.crypto.eddsa.Utils;
 import net.i2p.crypto.eddsa.math.*;
+import net.i2p.crypto.eddsa.math.bigint.BigIntegerFieldElement;
+import net.i2p.crypto.eddsa.math.bigint.BigIntegerLittleEndianEncoding;
 import org.hamcrest.core.*;
 import org.junit.*;
 
 import java.math.BigInteger;
+import java.util.Random;
 
 /**
  * Tests rely on the BigInteger class.
@@ -74,6 +78,146 @@ public class Ed25519FieldElementTest extends AbstractFieldElementTest {
 
     // endregion
 
+    // region multiply121666
+
+    @Test
+    public void multiply121666ReturnsCorrectResult() {
+        for (int i=0; i<1000; i++) {
+            // Arrange:
+            final FieldElement f1 = getRandomFieldElement();
+            final FieldElement f2 = f1.subtract(getRandomFieldElement());
+            final BigInteger b2 = toBigInteger(f2);
+
+            // Act:
+            final FieldElement f3 = ((Ed25519FieldElement) f2).multiply121666();
+            final BigInteger b3 = toBigInteger(f3).mod(getQ());
+
+            // Assert:
+            Assert.assertThat(b3, IsEqual.equalTo(b2.multiply(BigInteger.valueOf(121666)).mod(getQ())));
+        }
+    }
+
+    // endregion
+
+    // region invert
+
+    @Test
+    public void invertMatchesInvertFermat() {
+        final Random rnd = new Random();
+        for (int i=0; i<1000; i++) {
+            // Arrange:
+            final Ed25519FieldElement f1 = (i % 2 == 0) ?
+                    (Ed25519FieldElement) getRandomFieldElement() : getMaximalFieldElement(rnd);
+
+            // Act:
+            final FieldElement f2 = f1.invert();
+            final FieldElement f3 = f1.invertFermat();
+
+            // Assert:
+            Assert.assertThat(f2, IsEqual.equalTo(f3));
+        }
+        final Ed25519FieldElement zero = (Ed25519FieldElement) getZeroFieldElement();
+        Assert.assertThat(zero.invert(), IsEqual.equalTo(zero.invertFermat()));
+        Assert.assertThat(zero.invert().isNonZero(), IsEqual.equalTo(false));
+    }
+
+    // endregion
+
+    // region lazy carries
+
+    static final Field bigIntegerField = new Field(
+            256, // b
+            Utils.hexToBytes("edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f"), // q
+            new BigIntegerLittleEndianEncoding());
+
+    /**
+     * Random limbs of the largest magnitude allowed as multiplication input,
+     * $1.65*2^{26},1.65*2^{25},\dots$
+     */
+    private static Ed25519FieldElement getMaximalFieldElement(Random rnd) {
+        final int[] t = new int[10];
+        for (int i = 0; i < 10; i++) {
+            final int bound = (int) (1.65 * (1 << ((i & 1) == 0 ? 26 : 25)));
+            t[i] = rnd.nextBoolean() ? bound - rnd.nextInt(1 << 10) : -bound + rnd.nextInt(1 << 10);
+        }
+        return new Ed25519FieldElement(MathUtils.getField(), t);
+    }
+
+    private static FieldElement toBigIntegerFieldElement(Ed25519FieldElement f) {
+        return new BigIntegerFieldElement(bigIntegerField, MathUtils.toBigInteger(f.t).mod(MathUtils.getQ()));
+    }
+
+    private static void assertSameValue(FieldElement f, FieldElement oracle) {
+        Assert.assertThat(MathUtils.toBigInteger(f), IsEqual.equalTo(MathUtils.toBigInteger(oracle.toByteArray())));
+    }
+
+    @Test
+    public void multiplicationAcceptsUncarriedInputsAtBound() {
+        final Random rnd = new Random();
+        for (int i = 0; i < 1000; i++) {
+            // Arrange:
+            final Ed25519FieldElement f = getMaximalFieldElement(rnd);
+            final Ed25519FieldElement g = getMaximalFieldElement(rnd);
+            final FieldElement fo = toBigIntegerFieldElement(f);
+            final FieldElement go = toBigIntegerFieldElement(g);
+
+            // Act + Assert:
+            assertSameValue(f.multiply(g), fo.multiply(go));
+            assertSameValue(f.square(), fo.square());
+            assertSameValue(f.squareAndDouble(), fo.squareAndDouble());
+        }
+    }
+
+    @Test
+    public void sumsOfThreeProductsAreValidMultiplicationInputs() {
+        for (int i = 0; i < 1000; i++) {
+            // Arrange:
+            final FieldElement a = MathUtils.getRandomFieldElement().multiply(MathUtils.getRandomFieldElement());
+            final FieldElement b = MathUtils.getRandomFieldElement().multiply(MathUtils.getRandomFieldElement());
+            final FieldElement c = MathUtils.getRandomFieldElement().square();
+
+            // Act:
+            final Ed25519FieldElement s = (Ed25519FieldElement) a.add(b).subtract(c);
+
+            // Assert:
+            for (int j = 0; j < 10; j++) {
+                final double bound = 1.65 * (1 << ((j & 1) == 0 ? 26 : 25));
+                Assert.assertThat(Math.abs((double) s.t[j]) <= bound, IsEqual.equalTo(true));
+            }
+        }
+    }
+
+    @Test
+    public void equalsAndIsZeroAcceptUncarriedLimbs() {
+        final Random rnd = new Random();
+        for (int i = 0; i < 1000; i++) {
+            // Arrange:
+            final Ed25519FieldElement f = getMaximalFieldElement(rnd);
+            final FieldElement g = MathUtils.toFieldElement(MathUtils.toBigInteger(f.t).mod(getQ()));
+            final FieldElement h = f.add(f).subtract(g);
+
+            // Act + Assert:
+            Assert.assertThat(f.equals(g), IsEqual.equalTo(true));
+            Assert.assertThat(g.equals(f), IsEqual.equalTo(true));
+            Assert.assertThat(f.hashCode(), IsEqual.equalTo(g.hashCode()));
+            Assert.assertThat(f.subtract(g).isZero(), IsEqual.equalTo(1));
+            Assert.assertThat(h.equals(g), IsEqual.equalTo(true));
+            Assert.assertThat(f.equals(g.addOne()), IsEqual.equalTo(false));
+            Assert.assertThat(f.isNonZero(), IsEqual.equalTo(g.isNonZero()));
+        }
+        // p and -p are zero
+        final Field field = getField();
+        final FieldElement p = new Ed25519FieldElement(field, new int[] {
+                0x3ffffed, 0x1ffffff, 0x3ffffff, 0x1ffffff, 0x3ffffff,
+                0x1ffffff, 0x3ffffff, 0x1ffffff, 0x3ffffff, 0x1ffffff });
+        Assert.assertThat(p.isZero(), IsEqual.equalTo(1));
+        Assert.assertThat(p.negate().isZero(), IsEqual.equalTo(1));
+        Assert.assertThat(p.equals(field.ZERO), IsEqual.equalTo(true));
+        Assert.assertThat(p.addOne().equals(field.ONE), IsEqual.equalTo(true));
+    }
+
+    // endregion
+
     // region toString
 
     @Test
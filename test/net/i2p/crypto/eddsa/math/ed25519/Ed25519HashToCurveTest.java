@@ -0,0 +1,111 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.MathUtils;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test vectors from RFC 9380 appendices J.5.1, J.5.2 and K.3.
+ * @author str4d
+ *
+ */
+public class Ed25519HashToCurveTest {
+    static final byte[] DST_RO = "QUUX-V01-CS02-with-edwards25519_XMD:SHA-512_ELL2_RO_".getBytes();
+    static final byte[] DST_NU = "QUUX-V01-CS02-with-edwards25519_XMD:SHA-512_ELL2_NU_".getBytes();
+
+    static final byte[][] MSGS = new byte[][] {
+        "".getBytes(),
+        "abc".getBytes(),
+        "abcdef0123456789".getBytes(),
+        ("q128_" + repeat('q', 128)).getBytes(),
+        ("a512_" + repeat('a', 512)).getBytes(),
+    };
+
+    /**
+     * Encodings of the points of J.5.1.
+     */
+    static final String[] RO = new String[] {
+        "21dc15e10253796df23a7699c8a383ea624cce88c52431f6be220b1a56c8a609",
+        "31558a26887f23fb8218f143e69d5f0af2e7831130bd5b432ef23883b895839a",
+        "a661c58eea707f2171dd1a8a641e41758ac842cfd31e64dabc7f0e143d0a0653",
+        "f7d2895eea2ef7b737ed56594f99e238a1eeb0dd672f98d239fafc55e315ca2e",
+        "95f9d827f3c0f8076af227f01fef51d0cc924fb1806a237fc2c566f204fcc26d",
+    };
+
+    static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++)
+            sb.append(c);
+        return sb.toString();
+    }
+
+    @Test
+    public void expandMessageXmdReturnsExpectedResult() {
+        byte[] dst = "QUUX-V01-CS02-with-expander-SHA512-256".getBytes();
+        assertThat(Utils.bytesToHex(Ed25519HashToCurve.expandMessageXmd(new byte[0], dst, 0x20)),
+                is("6b9a7312411d92f921c6f68ca0b6380730a1a4d982c507211a90964c394179ba"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void expandMessageXmdRejectsLongOutput() {
+        Ed25519HashToCurve.expandMessageXmd(new byte[0], DST_RO, 256 * 64);
+    }
+
+    @Test
+    public void hashToFieldReturnsExpectedResult() {
+        FieldElement[] u = Ed25519HashToCurve.hashToField(MSGS[0], DST_RO, 2);
+        assertThat(Utils.bytesToHex(u[0].toByteArray()),
+                is("3a3f202d71eec79a7907b0e20d38d5e7e674e1fa88ef6e8cf9b58c3c81f4fe03"));
+        assertThat(Utils.bytesToHex(u[1].toByteArray()),
+                is("750ca6e693e72af92bd96846676b5fe3faaa957768dc89f5c8907213dddd0b78"));
+    }
+
+    @Test
+    public void hashToCurveReturnsExpectedResult() {
+        for (int i = 0; i < MSGS.length; i++) {
+            GroupElement P = Ed25519HashToCurve.hashToCurve(MSGS[i], DST_RO);
+            assertThat(P.getRepresentation(), is(GroupElement.Representation.P3));
+            assertThat(P.isOnCurve(), is(true));
+            assertThat(Utils.bytesToHex(P.toByteArray()), is(RO[i]));
+        }
+    }
+
+    @Test
+    public void encodeToCurveReturnsExpectedResult() {
+        assertThat(Utils.bytesToHex(Ed25519HashToCurve.encodeToCurve(MSGS[0], DST_NU).toByteArray()),
+                is("9b0f7f682dabce2190b14e21a175f39eb6a6b29fff2a9f5e72d5a4044d312e22"));
+        assertThat(Utils.bytesToHex(Ed25519HashToCurve.encodeToCurve(MSGS[1], DST_NU).toByteArray()),
+                is("42fa27c8f5a1ae0aa38bb59d5938e5145622ba5dedd11d11736fa2f9502d7367"));
+    }
+
+    @Test
+    public void hashToCurveBatchMatchesHashToCurve() {
+        byte[][] enc = Ed25519HashToCurve.hashToCurveBatch(MSGS, DST_RO);
+        assertThat(enc.length, is(MSGS.length));
+        for (int i = 0; i < MSGS.length; i++)
+            assertThat(Utils.bytesToHex(enc[i]), is(RO[i]));
+        assertThat(Ed25519HashToCurve.hashToCurveBatch(new byte[0][], DST_RO).length, is(0));
+    }
+
+    @Test
+    public void mapToCurveHandlesZero() {
+        GroupElement P = Ed25519HashToCurve.mapToCurve(MathUtils.getField().ZERO);
+        assertThat(P.isOnCurve(), is(true));
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.MathUtils;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveSpec;
+import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test vectors from RFC 7748.
+ * @author str4d
+ *
+ */
+public class Ed25519MontgomeryLadderTest {
+    static final EdDSANamedCurveSpec ed25519 = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+    static final Ed25519MontgomeryLadder ladder = new Ed25519MontgomeryLadder(ed25519.getCurve(), ed25519.getB());
+    static final byte[] NINE = Utils.hexToBytes("0900000000000000000000000000000000000000000000000000000000000000");
+
+    /**
+     * Test method for {@link Ed25519MontgomeryLadder#scalarMultiply(byte[], byte[])}.
+     * RFC 7748 section 5.2.
+     */
+    @Test
+    public void testScalarMultiply() {
+        assertThat(Utils.bytesToHex(ladder.scalarMultiply(
+                Utils.hexToBytes("a546e36bf0527c9d3b16154b82465edd62144c0ac1fc5a18506a2244ba449ac4"),
+                Utils.hexToBytes("e6db6867583030db3594c1a424b15f7c726624ec26b3353b10a903a6d0ab1c4c"))),
+                is(equalTo("c3da55379de9c6908e94ea4df28d084f32eccf03491c71f754b4075577a28552")));
+        // The most significant bit of u is ignored.
+        assertThat(Utils.bytesToHex(ladder.scalarMultiply(
+                Utils.hexToBytes("4b66e9d4d1b4673c5ad22691957d6af5c11b6421e0ea01d42ca4169e7918ba0d"),
+                Utils.hexToBytes("e5210f12786811d3f4b7959d0538ae2c31dbe7106fc03c3efc4cd549c715a493"))),
+                is(equalTo("95cbde9476e8907d7aade45cb4b873f88b595a68799fa152e6f8f7647aac7957")));
+    }
+
+    /**
+     * Test method for {@link Ed25519MontgomeryLadder#scalarMultiply(byte[], byte[])}.
+     * RFC 7748 section 5.2, iterated.
+     */
+    @Test
+    public void testScalarMultiplyIterated() {
+        byte[] k = NINE;
+        byte[] u = NINE;
+        for (int i = 1; i <= 1000; i++) {
+            byte[] r = ladder.scalarMultiply(k, u);
+            u = k;
+            k = r;
+            if (i == 1)
+                assertThat(Utils.bytesToHex(k), is(equalTo("422c8e7a6227d7bca1350b3e2bb7279f7897b87bb6854b783c60e80311ae3079")));
+        }
+        assertThat(Utils.bytesToHex(k), is(equalTo("684cf59ba83309552800ef566f2f4d3c1c3887c49360e3875f2eb94d99532c51")));
+    }
+
+    /**
+     * Test method for {@link Ed25519MontgomeryLadder#scalarMultiplyBase(byte[])}.
+     * RFC 7748 section 6.1.
+     */
+    @Test
+    public void testScalarMultiplyBase() {
+        assertThat(Utils.bytesToHex(ladder.scalarMultiplyBase(
+                Utils.hexToBytes("77076d0a7318a57d3c16c17251b26645df4c2f87ebc0992ab177fba51db92c2a"))),
+                is(equalTo("8520f0098930a754748b7ddcb43ef75a0dbf3a0d26381af4eba4a98eaa9b4e6a")));
+        assertThat(Utils.bytesToHex(ladder.scalarMultiplyBase(
+                Utils.hexToBytes("5dab087e624a8a4b79e17f8b83800ee66f3bb1292618b6fd1c2f8b27ff88e0eb"))),
+                is(equalTo("de9edb7d7b7dc1b4d35b61c2ece435373f8343c85b78674dadfc7e146f882b4f")));
+    }
+
+    @Test
+    public void scalarMultiplyBaseMatchesLadder() {
+        for (int i = 0; i < 20; i++) {
+            final byte[] k = MathUtils.getRandomByteArray(32);
+            assertThat(ladder.scalarMultiplyBase(k), is(equalTo(ladder.scalarMultiply(k, NINE))));
+        }
+    }
+
+    @Test
+    public void scalarMultiplyOfSmallOrderPointIsZero() {
+        final byte[] k = MathUtils.getRandomByteArray(32);
+        assertThat(ladder.scalarMultiply(k, new byte[32]), is(equalTo(new byte[32])));
+        final byte[] one = new byte[32];
+        one[0] = 1;
+        assertThat(ladder.scalarMultiply(k, one), is(equalTo(new byte[32])));
+    }
+
+    /**
+     * Test method for {@link Ed25519MontgomeryLadder#clamp(byte[])}.
+     */
+    @Test
+    public void testClamp() {
+        final byte[] k = new byte[32];
+        for (int i = 0; i < 32; i++)
+            k[i] = (byte) 0xff;
+        final byte[] e = Ed25519MontgomeryLadder.clamp(k);
+        assertThat(e[0], is((byte) 0xf8));
+        assertThat(e[31], is((byte) 0x7f));
+        assertThat(k[0], is((byte) 0xff));
+        assertThat(Ed25519MontgomeryLadder.clamp(new byte[32])[31], is((byte) 0x40));
+    }
+}
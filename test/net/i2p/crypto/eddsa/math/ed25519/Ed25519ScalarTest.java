@@ -0,0 +1,145 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.MathUtils;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares {@link Ed25519Scalar} with BigInteger arithmetic.
+ * @author str4d
+ *
+ */
+public class Ed25519ScalarTest {
+    private static final BigInteger q = MathUtils.getGroupOrder();
+
+    private static BigInteger toBigInteger(Ed25519Scalar s) {
+        return MathUtils.toBigInteger(s.toByteArray());
+    }
+
+    private static byte[] toByteArray(BigInteger b) {
+        final byte[] bytes = new byte[32];
+        final byte[] be = b.toByteArray();
+        for (int i = 0; i < be.length && i < 32; i++)
+            bytes[i] = be[be.length - 1 - i];
+        return bytes;
+    }
+
+    private static Ed25519Scalar random() {
+        return Ed25519Scalar.fromBytesModOrderWide(MathUtils.getRandomByteArray(64));
+    }
+
+    @Test
+    public void fromBytesModOrderReducesInput() {
+        for (int i = 0; i < 1000; i++) {
+            final byte[] b = MathUtils.getRandomByteArray(32);
+            assertThat(toBigInteger(Ed25519Scalar.fromBytesModOrder(b)),
+                    is(MathUtils.toBigInteger(b).mod(q)));
+        }
+        final byte[] max = Utils.hexToBytes("ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+        assertThat(toBigInteger(Ed25519Scalar.fromBytesModOrder(max)),
+                is(MathUtils.toBigInteger(max).mod(q)));
+        assertThat(Ed25519Scalar.fromBytesModOrder(toByteArray(q)), is(Ed25519Scalar.ZERO));
+    }
+
+    @Test
+    public void fromBytesModOrderWideMatchesScalarOps() {
+        final Ed25519ScalarOps scalarOps = new Ed25519ScalarOps();
+        for (int i = 0; i < 1000; i++) {
+            final byte[] b = MathUtils.getRandomByteArray(64);
+            assertThat(Ed25519Scalar.fromBytesModOrderWide(b).toByteArray(), is(scalarOps.reduce(b)));
+        }
+    }
+
+    @Test
+    public void canonicalCheckRejectsOrderAndAbove() {
+        assertThat(Ed25519Scalar.isCanonical(toByteArray(q.subtract(BigInteger.ONE))), is(true));
+        assertThat(Ed25519Scalar.isCanonical(toByteArray(q)), is(false));
+        assertThat(Ed25519Scalar.isCanonical(toByteArray(q.add(BigInteger.ONE))), is(false));
+        assertThat(Ed25519Scalar.isCanonical(new byte[31]), is(false));
+        final byte[] b = random().toByteArray();
+        assertThat(Ed25519Scalar.fromCanonicalBytes(b).toByteArray(), is(b));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromCanonicalBytesThrowsIfNotCanonical() {
+        Ed25519Scalar.fromCanonicalBytes(toByteArray(q));
+    }
+
+    @Test
+    public void arithmeticMatchesBigInteger() {
+        for (int i = 0; i < 1000; i++) {
+            final Ed25519Scalar a = random();
+            final Ed25519Scalar b = random();
+            final Ed25519Scalar c = random();
+            final BigInteger A = toBigInteger(a);
+            final BigInteger B = toBigInteger(b);
+            final BigInteger C = toBigInteger(c);
+            assertThat(toBigInteger(a.add(b)), is(A.add(B).mod(q)));
+            assertThat(toBigInteger(a.subtract(b)), is(A.subtract(B).mod(q)));
+            assertThat(toBigInteger(a.negate()), is(A.negate().mod(q)));
+            assertThat(toBigInteger(a.multiply(b)), is(A.multiply(B).mod(q)));
+            assertThat(toBigInteger(a.square()), is(A.multiply(A).mod(q)));
+            assertThat(toBigInteger(a.multiplyAndAdd(b, c)), is(A.multiply(B).add(C).mod(q)));
+        }
+        final Ed25519Scalar m1 = Ed25519Scalar.ZERO.subtract(Ed25519Scalar.ONE);
+        assertThat(toBigInteger(m1), is(q.subtract(BigInteger.ONE)));
+        assertThat(m1.multiply(m1), is(Ed25519Scalar.ONE));
+        assertThat(m1.add(Ed25519Scalar.ONE), is(Ed25519Scalar.ZERO));
+        assertThat(Ed25519Scalar.ZERO.negate(), is(Ed25519Scalar.ZERO));
+    }
+
+    @Test
+    public void invertReturnsInverse() {
+        for (int i = 0; i < 100; i++) {
+            final Ed25519Scalar a = random();
+            assertThat(toBigInteger(a.invert()), is(toBigInteger(a).modInverse(q)));
+            assertThat(a.multiply(a.invert()), is(Ed25519Scalar.ONE));
+        }
+        assertThat(Ed25519Scalar.ZERO.invert(), is(Ed25519Scalar.ZERO));
+    }
+
+    @Test
+    public void invertMatchesInvertFermat() {
+        for (int i = 0; i < 100; i++) {
+            final Ed25519Scalar a = random();
+            assertThat(a.invert(), is(a.invertFermat()));
+        }
+        assertThat(Ed25519Scalar.ONE.invert(), is(Ed25519Scalar.ONE));
+        assertThat(Ed25519Scalar.ZERO.invertFermat(), is(Ed25519Scalar.ZERO));
+    }
+
+    @Test
+    public void batchInvertMatchesInvert() {
+        final Ed25519Scalar[] in = new Ed25519Scalar[10];
+        for (int i = 0; i < in.length; i++)
+            in[i] = random();
+        in[4] = Ed25519Scalar.ZERO;
+        final Ed25519Scalar[] out = Ed25519Scalar.batchInvert(in);
+        for (int i = 0; i < in.length; i++)
+            assertThat(out[i], is(in[i].invert()));
+        assertThat(Ed25519Scalar.batchInvert(new Ed25519Scalar[0]).length, is(0));
+    }
+
+    @Test
+    public void isZeroReturnsExpectedResult() {
+        assertThat(Ed25519Scalar.ZERO.isZero(), is(1));
+        assertThat(Ed25519Scalar.ONE.isZero(), is(0));
+        assertThat(Ed25519Scalar.fromBytesModOrder(toByteArray(q)).isZero(), is(1));
+    }
+}
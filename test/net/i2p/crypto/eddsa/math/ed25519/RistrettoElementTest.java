@@ -0,0 +1,175 @@
+/**
+ * EdDSA-Java by str4d
+ *
+ * To the extent possible under law, the person who associated CC0 with
+ * EdDSA-Java has waived all copyright and related or neighboring rights
+ * to EdDSA-Java.
+ *
+ * You should have received a copy of the CC0 legalcode along with this
+ * work. If not, see <https://creativecommons.org/publicdomain/zero/1.0/>.
+ *
+ */
+package net.i2p.crypto.eddsa.math.ed25519;
+
+import net.i2p.crypto.eddsa.Utils;
+import net.i2p.crypto.eddsa.math.FieldElement;
+import net.i2p.crypto.eddsa.math.GroupElement;
+import net.i2p.crypto.eddsa.math.MathUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test vectors from RFC 9496 appendix A, cross-checked with libsodium.
+ * @author str4d
+ *
+ */
+public class RistrettoElementTest {
+    /**
+     * Encodings of $0 G, 1 G, \dots, 7 G$.
+     */
+    static final String[] MULTIPLES = new String[] {
+        "0000000000000000000000000000000000000000000000000000000000000000",
+        "e2f2ae0a6abc4e71a884a961c500515f58e30b6aa582dd8db6a65945e08d2d76",
+        "6a493210f7499cd17fecb510ae0cea23a110e8d5b901f8acadd3095c73a3b919",
+        "94741f5d5d52755ece4f23f044ee27d5d1ea1e2bd196b462166b16152a9d0259",
+        "da80862773358b466ffadfe0b3293ab3d9fd53c5ea6c955358f568322daf6a57",
+        "e882b131016b52c1d3337080187cf768423efccbb517bb495ab812c4160ff44e",
+        "f64746d3c92b13050ed8d80236a7f0007c3b3f962f5ba793d19a601ebb1df403",
+        "44f53520926ec81fbd5a387845beb7df85a96a24ece18738bdcfa6a7822a176d",
+    };
+
+    static final String[] BAD_ENCODINGS = new String[] {
+        // Non-canonical field encodings
+        "00ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff",
+        "ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+        "f3ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+        "edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+        "0000000000000000000000000000000000000000000000000000000000000080",
+        // Negative field elements
+        "0100000000000000000000000000000000000000000000000000000000000000",
+        "01ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+        // Non-square x^2
+        "26948d35ca62e643e26a83177332e6b6afeb9d08e4268b650f1f5bbd8d81d371",
+        "4eac077a713c57b4f4397629a4145982c661f48044dd3f96427d40b147d9742f",
+        // s = -1, which causes y = 0
+        "ecffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+    };
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    static byte[] scalar(int i) {
+        byte[] s = new byte[32];
+        s[0] = (byte) i;
+        return s;
+    }
+
+    /**
+     * Test method for {@link RistrettoElement#encode()} and {@link RistrettoElement#decode(byte[])}.
+     */
+    @Test
+    public void testMultiplesOfGenerator() {
+        RistrettoElement P = RistrettoElement.IDENTITY;
+        for (int i = 0; i < MULTIPLES.length; i++) {
+            assertThat(Utils.bytesToHex(P.encode()), is(equalTo(MULTIPLES[i])));
+            assertThat(Utils.bytesToHex(RistrettoElement.multiplyGenerator(scalar(i)).encode()), is(equalTo(MULTIPLES[i])));
+            RistrettoElement Q = RistrettoElement.decode(Utils.hexToBytes(MULTIPLES[i]));
+            assertThat(Q, is(equalTo(P)));
+            assertThat(Utils.bytesToHex(Q.encode()), is(equalTo(MULTIPLES[i])));
+            P = P.add(RistrettoElement.GENERATOR);
+        }
+    }
+
+    @Test
+    public void decodeRejectsBadEncodings() {
+        for (String enc : BAD_ENCODINGS) {
+            try {
+                RistrettoElement.decode(Utils.hexToBytes(enc));
+                throw new AssertionError("Accepted " + enc);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void equalityIgnoresTorsion() {
+        final RistrettoElement P = RistrettoElement.hashToGroup("P".getBytes());
+        final FieldElement zero = MathUtils.getField().ZERO;
+        final FieldElement one = MathUtils.getField().ONE;
+        // (0, -1) has order 2, (sqrt(-1), 0) has order 4.
+        final GroupElement T2 = GroupElement.p3(P.getElement().getCurve(), zero, one.negate(), one, zero, false);
+        final GroupElement T4 = GroupElement.p3(P.getElement().getCurve(), RistrettoElement.SQRT_M1, zero, one, zero, false);
+        final GroupElement[] torsion = new GroupElement[] { T2, T4, T4.add(T2.toCached()).toP3() };
+
+        for (GroupElement T : torsion) {
+            final RistrettoElement Q = new RistrettoElement(P.getElement().add(T.toCached()).toP3());
+            assertThat(Q.getElement(), is(not(equalTo(P.getElement()))));
+            assertThat(Q, is(equalTo(P)));
+            assertThat(Q.encode(), is(equalTo(P.encode())));
+            assertThat(Q.hashCode(), is(equalTo(P.hashCode())));
+        }
+        assertThat(P, is(not(equalTo(P.dbl()))));
+    }
+
+    /**
+     * Test method for {@link RistrettoElement#fromUniformBytes(byte[])}.
+     * Values generated with libsodium's crypto_core_ristretto255_from_hash().
+     */
+    @Test
+    public void testFromUniformBytes() {
+        assertThat(Utils.bytesToHex(RistrettoElement.hashToGroup(
+                "Ristretto is traditionally a short shotgun barrel".getBytes()).encode()),
+                is(equalTo("fc92cd500bdea442e6ebf1fd607f9b1c21117ffbc9593c2bfaf77b5b3daf4f78")));
+        assertThat(Utils.bytesToHex(RistrettoElement.fromUniformBytes(Utils.hexToBytes(
+                "3d485070925fb6c98307b1f7c47c8e05e09be5e5e05bdd6e527134ffc5da7d07beb4dcaf615f48e46a1a8faa189ee8e6853cfe753d3e0defa468ee6907aa851c")).encode()),
+                is(equalTo("caacbf15de444ff32e783213348c1c10454391dae5b7494d4029023fe74cfa1c")));
+        assertThat(Utils.bytesToHex(RistrettoElement.hashToGroup("Ristretto".getBytes()).encode()),
+                is(equalTo("246d123b17623a8cf2d0835300ef369dd3156c236e543b7cd64da125681f4f4f")));
+    }
+
+    /**
+     * Test method for {@link RistrettoElement#doubleAndEncodeBatch(RistrettoElement[])}.
+     */
+    @Test
+    public void testDoubleAndEncodeBatch() {
+        final RistrettoElement[] points = new RistrettoElement[MULTIPLES.length + 4];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = i < MULTIPLES.length
+                    ? RistrettoElement.decode(Utils.hexToBytes(MULTIPLES[i]))
+                    : RistrettoElement.hashToGroup(scalar(i));
+        }
+        final byte[][] enc = RistrettoElement.doubleAndEncodeBatch(points);
+        for (int i = 0; i < points.length; i++) {
+            assertThat(enc[i], is(equalTo(points[i].dbl().encode())));
+            assertThat(enc[i], is(equalTo(points[i].add(points[i]).encode())));
+        }
+        assertThat(RistrettoElement.doubleAndEncodeBatch(new RistrettoElement[0]).length, is(0));
+    }
+
+    /**
+     * Test method for {@link RistrettoElement#multiply(byte[])}.
+     */
+    @Test
+    public void testMultiply() {
+        final RistrettoElement P = RistrettoElement.hashToGroup("P".getBytes());
+        final byte[] a = MathUtils.reduceModGroupOrder(MathUtils.getRandomByteArray(64));
+        final byte[] b = MathUtils.reduceModGroupOrder(MathUtils.getRandomByteArray(64));
+
+        final RistrettoElement aP = P.multiply(a);
+        assertThat(aP, is(equalTo(RistrettoElement.multiply(P.getFixedBaseTable(), a))));
+        assertThat(RistrettoElement.GENERATOR.multiply(a), is(equalTo(RistrettoElement.multiplyGenerator(a))));
+        assertThat(P.doubleMultiplyVariableTime(a, b),
+                is(equalTo(aP.add(RistrettoElement.multiplyGenerator(b)))));
+        assertThat(P.multiply(scalar(3)), is(equalTo(P.add(P).add(P))));
+        assertThat(P.subtract(P), is(equalTo(RistrettoElement.IDENTITY)));
+        assertThat(P.add(P.negate()), is(equalTo(RistrettoElement.IDENTITY)));
+
+        // l * P = 0
+        final byte[] l = MathUtils.toByteArray(MathUtils.getGroupOrder());
+        assertThat(P.multiply(l), is(equalTo(RistrettoElement.IDENTITY)));
+    }
+}
@@ -14,6 +14,11 @@ package net.i2p.crypto.eddsa.spec;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.junit.Test;
 
 /**
@@ -33,4 +38,27 @@ public class EdDSANamedCurveTableTest {
         assertThat(lower, is(equalTo(mixed)));
         assertThat(upper, is(equalTo(mixed)));
     }
+
+    @Test
+    public void deserializedSpecIsInterned() throws Exception {
+        EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(spec);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+        assertThat(ois.readObject(), is(sameInstance((Object) spec)));
+    }
+
+    @Test
+    public void specIsSerializedByName() throws Exception {
+        EdDSANamedCurveSpec spec = EdDSANamedCurveTable.getByName(EdDSANamedCurveTable.ED_25519);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(spec);
+        oos.close();
+
+        assertThat(baos.size(), is(lessThan(256)));
+    }
 }